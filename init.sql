@@ -63,6 +63,7 @@ CREATE TABLE
         doctor_experience INTEGER,
         languages_spoken JSON,
         qualifications JSON,
+        schedule_version BIGINT NOT NULL DEFAULT 0,
         UNIQUE KEY uq_doctor_id (doctor_id),
         FOREIGN KEY (clinic_id) REFERENCES clinic_information (clinic_id),
         CONSTRAINT chk_consultation_fee CHECK (doctor_consultation_fee <= 1000),
@@ -94,7 +95,9 @@ CREATE TABLE
         clinic_id INT,
         doctor_id VARCHAR(255),
         slot_date DATE,
-        is_available BOOLEAN
+        is_available BOOLEAN,
+        version BIGINT NOT NULL DEFAULT 0,
+        INDEX idx_slot_doctor_clinic_date_time (doctor_id, clinic_id, slot_date, slot_time)
     );
 
 -- Slot Generation Table
@@ -106,6 +109,10 @@ CREATE TABLE
         slot_date DATE,
         STATUS BOOLEAN,
         slots INTEGER,
+        state VARCHAR(10) NOT NULL DEFAULT 'DONE',
+        claimed_at TIMESTAMP NULL,
+        claim_token CHAR(36) NULL,
+        UNIQUE KEY uq_slot_generation_doctor_clinic_date (doctor_id, clinic_id, slot_date),
         FOREIGN KEY (doctor_id) REFERENCES doctor_information (doctor_id),
         FOREIGN KEY (clinic_id) REFERENCES clinic_information (clinic_id)
     );
@@ -124,6 +131,7 @@ CREATE TABLE
         failed_login_attempts INT NOT NULL DEFAULT 0,
         locked_until TIMESTAMP NULL,
         last_login_at TIMESTAMP NULL,
+        security_stamp BIGINT NOT NULL DEFAULT 0,
         created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
         updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
     );
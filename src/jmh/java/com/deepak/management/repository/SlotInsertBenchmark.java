@@ -0,0 +1,191 @@
+package com.deepak.management.repository;
+
+import com.deepak.management.model.common.ShiftTime;
+import com.deepak.queue.model.QueueTimeSlot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Benchmarks writing 100,000 generated slots to MySQL with {@link SlotInformationBulkWriter}
+ * against the single-row inserts that {@code saveAll} sent before it.
+ *
+ * <p>{@code saveAll} of an IDENTITY entity is one INSERT per slot followed by reading its key, so
+ * {@link #rowByRow()} sends exactly that over JDBC rather than starting Hibernate. Each run writes
+ * into a freshly truncated {@code slot_information}, created from init.sql, inside one transaction,
+ * as slot generation does. The table is emptied, so point it at a scratch database: it uses {@code
+ * slot_benchmark} on localhost as root unless {@code benchmark.mysql.url}, {@code
+ * benchmark.mysql.username} and {@code benchmark.mysql.password} are passed to the forked JVM, e.g.
+ * {@code -Djmh.args="SlotInsertBenchmark -jvmArgsAppend -Dbenchmark.mysql.password=secret"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class SlotInsertBenchmark {
+
+  private static final int SLOTS = 100_000;
+  private static final int DOCTORS = 50;
+  private static final Pattern SLOT_TABLE =
+      Pattern.compile(
+          "CREATE TABLE\\s+IF NOT EXISTS slot_information \\(.*?\\);", Pattern.DOTALL);
+  private static final String INSERT_ONE =
+      "INSERT INTO slot_information "
+          + "(slot_no, shift_time, slot_time, clinic_id, doctor_id, slot_date, is_available, "
+          + "version) VALUES (?, ?, ?, ?, ?, ?, ?, 0)";
+
+  private SingleConnectionDataSource dataSource;
+  private TransactionTemplate transactionTemplate;
+  private JdbcTemplate jdbcTemplate;
+  private DataSourceTransactionManager transactionManager;
+  private List<QueueTimeSlot> slots;
+
+  @Setup
+  public void setUp() throws IOException {
+    // The writer logs every call; keep the console out of the measurement
+    ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME))
+        .setLevel(ch.qos.logback.classic.Level.OFF);
+
+    dataSource =
+        new SingleConnectionDataSource(
+            System.getProperty(
+                "benchmark.mysql.url",
+                "jdbc:mysql://localhost:3306/slot_benchmark?createDatabaseIfNotExist=true"),
+            System.getProperty("benchmark.mysql.username", "root"),
+            System.getProperty("benchmark.mysql.password", ""),
+            true);
+    transactionManager = new DataSourceTransactionManager(dataSource);
+    transactionTemplate = new TransactionTemplate(transactionManager);
+    jdbcTemplate = new JdbcTemplate(dataSource);
+
+    final Matcher table = SLOT_TABLE.matcher(Files.readString(Path.of("init.sql")));
+    if (!table.find()) {
+      throw new IllegalStateException("init.sql does not declare slot_information");
+    }
+    jdbcTemplate.execute(table.group());
+  }
+
+  @TearDown
+  public void tearDown() {
+    dataSource.destroy();
+  }
+
+  @Setup(Level.Invocation)
+  public void emptyTable() {
+    jdbcTemplate.execute("TRUNCATE TABLE slot_information");
+    slots = slots();
+  }
+
+  /** Multi-row INSERTs of {@code rowsPerStatement} slots, as slot generation writes them now. */
+  @Benchmark
+  public int multiRowInsert(BulkWriter writer) {
+    return transactionTemplate.execute(status -> writer.bulkWriter.insertAll(slots));
+  }
+
+  /** One INSERT and key read per slot, as {@code saveAll} wrote them. */
+  @Benchmark
+  public int rowByRow() {
+    return transactionTemplate.execute(
+        status -> jdbcTemplate.execute((ConnectionCallback<Integer>) this::insertRowByRow));
+  }
+
+  private int insertRowByRow(Connection connection) throws SQLException {
+    int rows = 0;
+    try (PreparedStatement statement =
+        connection.prepareStatement(INSERT_ONE, Statement.RETURN_GENERATED_KEYS)) {
+      for (QueueTimeSlot slot : slots) {
+        rows += insertOne(statement, slot);
+      }
+    }
+    return rows;
+  }
+
+  private static int insertOne(PreparedStatement statement, QueueTimeSlot slot)
+      throws SQLException {
+    statement.setObject(1, slot.getSlotNo());
+    statement.setString(2, slot.getShiftTime());
+    statement.setTime(3, Time.valueOf(slot.getSlotTime()));
+    statement.setObject(4, slot.getClinicId());
+    statement.setString(5, slot.getDoctorId());
+    statement.setObject(6, slot.getSlotDate());
+    statement.setBoolean(7, slot.isAvailable());
+    final int rows = statement.executeUpdate();
+    try (ResultSet keys = statement.getGeneratedKeys()) {
+      if (keys.next()) {
+        slot.setSlotId(keys.getLong(1));
+      }
+    }
+    return rows;
+  }
+
+  /** Forty 10-minute morning slots per doctor and day, over as many days as 100,000 slots need. */
+  private static List<QueueTimeSlot> slots() {
+    final List<QueueTimeSlot> slots = new ArrayList<>(SLOTS);
+    final LocalDate firstDay = LocalDate.of(2025, 1, 1);
+    for (int i = 0; i < SLOTS; i++) {
+      final int slotOfDay = i % 40;
+      final int doctor = i / 40 % DOCTORS;
+      final QueueTimeSlot slot = new QueueTimeSlot();
+      slot.setSlotNo(slotOfDay + 1);
+      slot.setShiftTime(ShiftTime.MORNING.toString());
+      slot.setSlotTime(LocalTime.of(8, 0).plusMinutes(10L * slotOfDay));
+      slot.setClinicId(1);
+      slot.setDoctorId(String.format("BM%04d", doctor + 1));
+      slot.setSlotDate(firstDay.plusDays(i / (40 * DOCTORS)));
+      slot.setAvailable(true);
+      slots.add(slot);
+    }
+    return slots;
+  }
+
+  /** The writer under test, sized per run; only {@link #multiRowInsert(BulkWriter)} takes it. */
+  @State(Scope.Benchmark)
+  public static class BulkWriter {
+    @Param({"100", "500", "1000"})
+    private int rowsPerStatement;
+
+    private SlotInformationBulkWriter bulkWriter;
+
+    @Setup
+    public void setUp(SlotInsertBenchmark benchmark) {
+      bulkWriter =
+          new SlotInformationBulkWriter(
+              benchmark.jdbcTemplate,
+              new OptimisticRetry(benchmark.transactionManager, new SimpleMeterRegistry(), 1, 0),
+              rowsPerStatement);
+    }
+  }
+}
@@ -0,0 +1,109 @@
+package com.deepak.queue.service;
+
+import com.deepak.queue.model.MinuteRange;
+import com.deepak.queue.model.QueueTimeSlot;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares the original start-time matching absence removal with the interval subtraction in
+ * {@link SlotIntervals} for one doctor shift.
+ *
+ * <p>Both variants start from the shift and the raw absence times and produce the available slots,
+ * so the cost of building the absence slot list in the original code is included.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class AbsenceSubtractionBenchmark {
+
+  private static final LocalTime SHIFT_START = LocalTime.of(8, 0);
+  private static final LocalTime SHIFT_END = LocalTime.of(20, 0);
+  private static final int MAX_SLOTS = 100;
+
+  @Param({"5", "10", "15"})
+  private int consultationTime;
+
+  @Param({"1", "8", "32"})
+  private int absenceCount;
+
+  private final List<LocalTime[]> absences = new ArrayList<>();
+
+  @Setup
+  public void setUp() {
+    final Random random = new Random(42);
+    absences.clear();
+    for (int i = 0; i < absenceCount; i++) {
+      final int start = 8 * 60 + random.nextInt(11 * 60);
+      final int length = 5 + random.nextInt(40);
+      absences.add(
+          new LocalTime[] {
+            LocalTime.MIN.plusMinutes(start), LocalTime.MIN.plusMinutes(start + length)
+          });
+    }
+  }
+
+  @Benchmark
+  public List<QueueTimeSlot> legacyRemoveIf() {
+    final List<QueueTimeSlot> slots = new ArrayList<>();
+    LocalDateTime slotStart = LocalDateTime.of(LocalDate.now(), SHIFT_START);
+    final LocalDateTime slotEnd = LocalDateTime.of(LocalDate.now(), SHIFT_END);
+    int count = 0;
+    while (slotStart.plusMinutes(consultationTime).isBefore(slotEnd) && count++ < MAX_SLOTS) {
+      slots.add(slot(slotStart.toLocalTime()));
+      slotStart = slotStart.plusMinutes(consultationTime);
+    }
+
+    final List<QueueTimeSlot> absenceSlots = new ArrayList<>();
+    for (LocalTime[] absence : absences) {
+      LocalDateTime aStart = LocalDateTime.of(LocalDate.now(), absence[0]);
+      final LocalDateTime aEnd = LocalDateTime.of(LocalDate.now(), absence[1]);
+      int absenceSlotCount = 0;
+      while (aStart.plusMinutes(consultationTime).isBefore(aEnd) && absenceSlotCount++ < 100) {
+        absenceSlots.add(slot(aStart.toLocalTime()));
+        aStart = aStart.plusMinutes(consultationTime);
+      }
+    }
+
+    slots.removeIf(
+        s -> absenceSlots.stream().anyMatch(a -> s.getSlotTime().equals(a.getSlotTime())));
+    return slots;
+  }
+
+  @Benchmark
+  public List<QueueTimeSlot> intervalSubtraction() {
+    final List<MinuteRange> ranges = new ArrayList<>(absences.size());
+    for (LocalTime[] absence : absences) {
+      ranges.add(SlotIntervals.absenceRange(absence[0], absence[1]));
+    }
+    final MinuteRange shift = SlotIntervals.shiftRange(SHIFT_START, SHIFT_END);
+    final List<MinuteRange> free =
+        SlotIntervals.subtract(shift, SlotIntervals.absenceTimeline(ranges));
+    final int[] starts = SlotIntervals.slotStarts(shift, consultationTime, free, MAX_SLOTS);
+    final List<QueueTimeSlot> slots = new ArrayList<>(starts.length);
+    for (int start : starts) {
+      slots.add(slot(SlotIntervals.toLocalTime(start)));
+    }
+    return slots;
+  }
+
+  private static QueueTimeSlot slot(LocalTime time) {
+    final QueueTimeSlot slot = new QueueTimeSlot();
+    slot.setSlotTime(time);
+    slot.setAvailable(true);
+    return slot;
+  }
+}
@@ -0,0 +1,191 @@
+package com.deepak.queue.service;
+
+import ch.qos.logback.classic.Level;
+import com.deepak.management.model.common.DaysOfWeek;
+import com.deepak.management.model.common.DoctorAvailability;
+import com.deepak.management.model.common.ShiftTime;
+import com.deepak.management.model.doctor.DoctorAbsenceInformation;
+import com.deepak.queue.model.MinuteRange;
+import com.deepak.queue.model.QueueTimeSlot;
+import java.sql.Time;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Benchmarks the in-memory core of slot generation over a set of synthetic doctors.
+ *
+ * <p>Every doctor works a morning and an evening shift on each weekday, and some also work a night
+ * shift that crosses midnight. Consultation times are drawn around {@code consultationTime} and
+ * absences cover roughly {@code absenceDensity} percent of each day's working minutes. Run with the
+ * default {@code -prof gc} to see the allocation rate next to the throughput.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SlotGenerationBenchmark {
+
+  private static final int DOCTORS = 50;
+  private static final DayOfWeek DAY = DayOfWeek.MONDAY;
+
+  @Param({"5", "10", "20"})
+  private int consultationTime;
+
+  @Param({"0", "10", "40"})
+  private int absenceDensity;
+
+  private final List<List<DoctorAvailability>> availability = new ArrayList<>();
+  private final List<WeeklyScheduleTemplate> templates = new ArrayList<>();
+  private final List<List<DoctorAbsenceInformation>> absences = new ArrayList<>();
+  private final List<List<QueueTimeSlot>> generatedDays = new ArrayList<>();
+  private final List<DoctorAbsenceInformation> allAbsences = new ArrayList<>();
+
+  @Setup
+  public void setUp() {
+    // The generator logs every slot; keep the console out of the measurement
+    ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME))
+        .setLevel(Level.OFF);
+
+    final Random random = new Random(42);
+    availability.clear();
+    templates.clear();
+    absences.clear();
+    generatedDays.clear();
+    allAbsences.clear();
+    for (int doctor = 0; doctor < DOCTORS; doctor++) {
+      final int doctorConsultation = Math.max(3, consultationTime + random.nextInt(5) - 2);
+      final List<DoctorAvailability> shifts = new ArrayList<>();
+      for (DaysOfWeek day : DaysOfWeek.values()) {
+        shifts.add(shift(day, ShiftTime.MORNING, 8, 12, doctorConsultation));
+        shifts.add(shift(day, ShiftTime.EVENING, 16, 21, doctorConsultation));
+        if (doctor % 5 == 0) {
+          shifts.add(shift(day, ShiftTime.NIGHT, 22, 2, doctorConsultation));
+        }
+      }
+      availability.add(shifts);
+      final WeeklyScheduleTemplate template =
+          WeeklyScheduleTemplate.compile(
+              shifts, 0L, WeeklyScheduleTemplateCache.MAX_SLOTS_PER_SHIFT);
+      templates.add(template);
+
+      final List<DoctorAbsenceInformation> doctorAbsences = absencesFor(template, random);
+      absences.add(doctorAbsences);
+      allAbsences.addAll(doctorAbsences);
+      generatedDays.add(expand(template, doctorAbsences));
+    }
+  }
+
+  /** Compiles every doctor's availability into its weekly slot grid. */
+  @Benchmark
+  public void shiftExpansion(Blackhole blackhole) {
+    for (List<DoctorAvailability> shifts : availability) {
+      blackhole.consume(
+          WeeklyScheduleTemplate.compile(
+              shifts, 0L, WeeklyScheduleTemplateCache.MAX_SLOTS_PER_SHIFT));
+    }
+  }
+
+  /** Builds the absence timeline and masks it out of each shift, as the generator does per day. */
+  @Benchmark
+  public void absenceRemoval(Blackhole blackhole) {
+    for (int doctor = 0; doctor < DOCTORS; doctor++) {
+      final List<MinuteRange> timeline =
+          QueueSlotCreationServiceImpl.buildAbsenceTimeline(absences.get(doctor));
+      for (ShiftTemplate shift : templates.get(doctor).getShifts(DAY)) {
+        blackhole.consume(shift.availableSlotTimes(timeline));
+      }
+    }
+  }
+
+  /** Generates one day of slot objects per doctor, including absence removal and numbering. */
+  @Benchmark
+  public void dayGeneration(Blackhole blackhole) {
+    for (int doctor = 0; doctor < DOCTORS; doctor++) {
+      blackhole.consume(expand(templates.get(doctor), absences.get(doctor)));
+    }
+  }
+
+  @Benchmark
+  public void reorderQueueNumbers(Blackhole blackhole) {
+    for (List<QueueTimeSlot> slots : generatedDays) {
+      QueueSlotCreationServiceImpl.reorderQueueNumbers(slots);
+      blackhole.consume(slots);
+    }
+  }
+
+  @Benchmark
+  public void calculateShiftTime(Blackhole blackhole) {
+    for (DoctorAbsenceInformation absence : allAbsences) {
+      blackhole.consume(
+          QueueSlotCreationServiceImpl.calculateShiftTime(
+              absence.getAbsenceStartTime(), absence.getAbsenceEndTime()));
+    }
+  }
+
+  private static List<QueueTimeSlot> expand(
+      WeeklyScheduleTemplate template, List<DoctorAbsenceInformation> doctorAbsences) {
+    final List<MinuteRange> timeline =
+        QueueSlotCreationServiceImpl.buildAbsenceTimeline(doctorAbsences);
+    final List<QueueTimeSlot> slots = new ArrayList<>();
+    for (ShiftTemplate shift : template.getShifts(DAY)) {
+      for (LocalTime time : shift.availableSlotTimes(timeline)) {
+        final QueueTimeSlot slot = new QueueTimeSlot();
+        slot.setShiftTime(shift.getShiftTime().toString());
+        slot.setSlotTime(time);
+        slot.setSlotDate(LocalDate.MIN);
+        slot.setAvailable(true);
+        slots.add(slot);
+      }
+    }
+    QueueSlotCreationServiceImpl.reorderQueueNumbers(slots);
+    return slots;
+  }
+
+  /** Scatters absences of 10 to 60 minutes over the day's shifts until the density is reached. */
+  private List<DoctorAbsenceInformation> absencesFor(
+      WeeklyScheduleTemplate template, Random random) {
+    final List<DoctorAbsenceInformation> doctorAbsences = new ArrayList<>();
+    final List<ShiftTemplate> shifts = template.getShifts(DAY);
+    int working = 0;
+    for (ShiftTemplate shift : shifts) {
+      working += shift.getRange().length();
+    }
+    int absent = 0;
+    while (absent * 100 < working * absenceDensity) {
+      final MinuteRange range = shifts.get(random.nextInt(shifts.size())).getRange();
+      final int length = 10 + random.nextInt(51);
+      final int start = range.start() + random.nextInt(Math.max(1, range.length() - length));
+      final DoctorAbsenceInformation absence = new DoctorAbsenceInformation();
+      absence.setAbsenceStartTime(Time.valueOf(SlotIntervals.toLocalTime(start)));
+      absence.setAbsenceEndTime(Time.valueOf(SlotIntervals.toLocalTime(start + length)));
+      doctorAbsences.add(absence);
+      absent += length;
+    }
+    return doctorAbsences;
+  }
+
+  private static DoctorAvailability shift(
+      DaysOfWeek day, ShiftTime shiftTime, int startHour, int endHour, int consultation) {
+    final DoctorAvailability availability = new DoctorAvailability();
+    availability.setAvailableDays(day);
+    availability.setShiftTime(shiftTime);
+    availability.setShiftStartTime(Time.valueOf(LocalTime.of(startHour, 0)));
+    availability.setShiftEndTime(Time.valueOf(LocalTime.of(endHour, 0)));
+    availability.setConsultationTime(consultation);
+    return availability;
+  }
+}
@@ -0,0 +1,71 @@
+package com.deepak.management.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Takes a {@link DatabaseBulkhead} permit of one pool for every connection it hands out and gives
+ * it back when the connection is closed.
+ */
+class BulkheadDataSource extends DelegatingDataSource {
+  private final DatabaseBulkhead bulkhead;
+  private final ReplicaRoutingDataSource.Target pool;
+
+  BulkheadDataSource(
+      DataSource target, DatabaseBulkhead bulkhead, ReplicaRoutingDataSource.Target pool) {
+    super(target);
+    this.bulkhead = bulkhead;
+    this.pool = pool;
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return admit(() -> obtainTargetDataSource().getConnection());
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    return admit(() -> obtainTargetDataSource().getConnection(username, password));
+  }
+
+  private Connection admit(ConnectionSource source) throws SQLException {
+    final Runnable release = bulkhead.acquire(pool);
+    final Connection connection;
+    try {
+      connection = source.get();
+    } catch (SQLException | RuntimeException e) {
+      release.run();
+      throw e;
+    }
+    final AtomicBoolean released = new AtomicBoolean();
+    return (Connection)
+        Proxy.newProxyInstance(
+            Connection.class.getClassLoader(),
+            new Class<?>[] {Connection.class},
+            (proxy, method, args) -> {
+              if ("close".equals(method.getName()) && released.compareAndSet(false, true)) {
+                try {
+                  connection.close();
+                } finally {
+                  release.run();
+                }
+                return null;
+              }
+              try {
+                return method.invoke(connection, args);
+              } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+              }
+            });
+  }
+
+  @FunctionalInterface
+  private interface ConnectionSource {
+    Connection get() throws SQLException;
+  }
+}
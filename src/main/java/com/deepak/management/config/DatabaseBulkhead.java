@@ -0,0 +1,200 @@
+package com.deepak.management.config;
+
+import com.deepak.management.exception.DatabaseBusyException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Admits threads to the database through a fixed number of permits, one per open connection.
+ *
+ * <p>Web traffic, the live queue and background jobs draw from separate semaphores, so a slot
+ * generation run cannot starve requests or the desk's queue writes, and a burst of requests cannot
+ * stall either of the others. Together the permits stay within the Hikari pool, so callers wait on
+ * a semaphore, where a virtual thread unmounts, instead of inside the pool or the MySQL driver. Web
+ * callers give up after {@code db.bulkhead.web-max-wait-ms} with a {@link DatabaseBusyException},
+ * live queue work after {@code db.bulkhead.live-max-wait-ms} and jobs after {@code
+ * db.bulkhead.job-max-wait-ms}.
+ *
+ * <p>With {@code spring.datasource.replica.url} set, the primary and the replica pool each get
+ * their own set of lanes of the same sizes, so read-only work on the replica does not take permits
+ * from writers on the primary; each pool's {@code maximum-pool-size} must then cover web + live +
+ * job permits.
+ *
+ * <p>Work runs in the web lane unless it is wrapped in {@link #callAsLiveQueue(Supplier)} or {@link
+ * #runAsJob(Runnable)}. Waiting threads, permits in use and rejections are published per lane and
+ * pool as {@code db.bulkhead.waiting}, {@code db.bulkhead.in-use} and {@code db.bulkhead.rejected}.
+ */
+@Component
+public class DatabaseBulkhead implements MeterBinder {
+  private static final ThreadLocal<Kind> LANE = new ThreadLocal<>();
+
+  private final Lanes primary;
+  // Null without a replica
+  private final Lanes replica;
+
+  public DatabaseBulkhead(
+      @Value("${db.bulkhead.web-permits:5}") int webPermits,
+      @Value("${db.bulkhead.web-max-wait-ms:100}") long webMaxWaitMs,
+      @Value("${db.bulkhead.live-permits:2}") int livePermits,
+      @Value("${db.bulkhead.live-max-wait-ms:2000}") long liveMaxWaitMs,
+      @Value("${db.bulkhead.job-permits:3}") int jobPermits,
+      @Value("${db.bulkhead.job-max-wait-ms:30000}") long jobMaxWaitMs,
+      @Value("${spring.datasource.replica.url:}") String replicaUrl) {
+    this.primary =
+        new Lanes(
+            new Lane("primary", "web", webPermits, webMaxWaitMs),
+            new Lane("primary", "live", livePermits, liveMaxWaitMs),
+            new Lane("primary", "job", jobPermits, jobMaxWaitMs));
+    this.replica =
+        replicaUrl.isBlank()
+            ? null
+            : new Lanes(
+                new Lane("replica", "web", webPermits, webMaxWaitMs),
+                new Lane("replica", "live", livePermits, liveMaxWaitMs),
+                new Lane("replica", "job", jobPermits, jobMaxWaitMs));
+  }
+
+  /**
+   * Runs live queue work, whose database access should use the live lane, and returns its result.
+   */
+  public <T> T callAsLiveQueue(Supplier<T> work) {
+    return callIn(Kind.LIVE, work);
+  }
+
+  /** Runs work whose database access should use the job lane. */
+  public void runAsJob(Runnable work) {
+    callAsJob(
+        () -> {
+          work.run();
+          return null;
+        });
+  }
+
+  /** Runs work whose database access should use the job lane and returns its result. */
+  public <T> T callAsJob(Supplier<T> work) {
+    return callIn(Kind.JOB, work);
+  }
+
+  private static <T> T callIn(Kind kind, Supplier<T> work) {
+    final Kind previous = LANE.get();
+    LANE.set(kind);
+    try {
+      return work.get();
+    } finally {
+      if (previous == null) {
+        LANE.remove();
+      } else {
+        LANE.set(previous);
+      }
+    }
+  }
+
+  /**
+   * Takes a permit of the current thread's lane on the given pool.
+   *
+   * @return The action that gives the permit back; run it exactly once.
+   * @throws DatabaseBusyException When no permit became free in time.
+   */
+  Runnable acquire(ReplicaRoutingDataSource.Target target) {
+    final Lanes lanes =
+        target == ReplicaRoutingDataSource.Target.REPLICA && replica != null ? replica : primary;
+    final Kind kind = LANE.get();
+    final Lane current = lanes.of(kind == null ? Kind.WEB : kind);
+    current.acquire();
+    return current.permits::release;
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    primary.bindTo(registry);
+    if (replica != null) {
+      replica.bindTo(registry);
+    }
+  }
+
+  private enum Kind {
+    WEB,
+    LIVE,
+    JOB
+  }
+
+  private record Lanes(Lane web, Lane live, Lane job) {
+    private Lane of(Kind kind) {
+      return switch (kind) {
+        case WEB -> web;
+        case LIVE -> live;
+        case JOB -> job;
+      };
+    }
+
+    private void bindTo(MeterRegistry registry) {
+      web.bindTo(registry);
+      live.bindTo(registry);
+      job.bindTo(registry);
+    }
+  }
+
+  private static final class Lane {
+    private final String target;
+    private final String name;
+    private final int size;
+    private final long maxWaitMs;
+    private final Semaphore permits;
+    private final AtomicLong rejected = new AtomicLong();
+
+    private Lane(String target, String name, int size, long maxWaitMs) {
+      this.target = target;
+      this.name = name;
+      this.size = Math.max(1, size);
+      this.maxWaitMs = Math.max(0, maxWaitMs);
+      this.permits = new Semaphore(this.size, true);
+    }
+
+    private void acquire() {
+      boolean acquired;
+      try {
+        acquired = permits.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        acquired = false;
+      }
+      if (!acquired) {
+        rejected.incrementAndGet();
+        throw new DatabaseBusyException(
+            "All "
+                + size
+                + " database permits of the "
+                + name
+                + " lane on the "
+                + target
+                + " are in use");
+      }
+    }
+
+    private void bindTo(MeterRegistry registry) {
+      Gauge.builder("db.bulkhead.waiting", permits, Semaphore::getQueueLength)
+          .tag("lane", name)
+          .tag("target", target)
+          .description("Threads waiting for a database permit")
+          .register(registry);
+      Gauge.builder("db.bulkhead.in-use", permits, p -> size - p.availablePermits())
+          .tag("lane", name)
+          .tag("target", target)
+          .description("Database permits in use")
+          .register(registry);
+      FunctionCounter.builder("db.bulkhead.rejected", rejected, AtomicLong::get)
+          .tag("lane", name)
+          .tag("target", target)
+          .description("Callers turned away because no database permit became free in time")
+          .register(registry);
+    }
+  }
+}
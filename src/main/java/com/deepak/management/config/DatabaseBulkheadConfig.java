@@ -0,0 +1,49 @@
+package com.deepak.management.config;
+
+import javax.sql.DataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Puts the application's {@code dataSource} bean behind a {@link DatabaseBulkhead}, so JPA and
+ * {@code JdbcTemplate} access alike are admitted through it. With a read replica the two pools of
+ * {@link ReplicaDataSourceConfig} are wrapped instead, each with its own permits, since the routed
+ * {@code dataSource} cannot tell which pool a connection will come from. {@code
+ * db.bulkhead.enabled=false} leaves the data sources as they are.
+ */
+@Configuration
+@ConditionalOnProperty(name = "db.bulkhead.enabled", havingValue = "true", matchIfMissing = true)
+public class DatabaseBulkheadConfig {
+  private static final String DATA_SOURCE_BEAN = "dataSource";
+  private static final String PRIMARY_DATA_SOURCE_BEAN = "primaryDataSource";
+  private static final String REPLICA_DATA_SOURCE_BEAN = "replicaDataSource";
+
+  @Bean
+  public static BeanPostProcessor databaseBulkheadPostProcessor(
+      ObjectProvider<DatabaseBulkhead> bulkhead, Environment environment) {
+    final boolean withReplica = environment.containsProperty("spring.datasource.replica.url");
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource dataSource)) {
+          return bean;
+        }
+        if (withReplica
+            ? PRIMARY_DATA_SOURCE_BEAN.equals(beanName)
+            : DATA_SOURCE_BEAN.equals(beanName)) {
+          return new BulkheadDataSource(
+              dataSource, bulkhead.getObject(), ReplicaRoutingDataSource.Target.PRIMARY);
+        }
+        if (withReplica && REPLICA_DATA_SOURCE_BEAN.equals(beanName)) {
+          return new BulkheadDataSource(
+              dataSource, bulkhead.getObject(), ReplicaRoutingDataSource.Target.REPLICA);
+        }
+        return bean;
+      }
+    };
+  }
+}
@@ -0,0 +1,75 @@
+package com.deepak.management.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Splits database access between the primary and a read replica when {@code
+ * spring.datasource.replica.url} is set; without it the single auto-configured pool is used.
+ *
+ * <p>The primary pool is built from the usual {@code spring.datasource.*} settings and the replica
+ * pool from {@code spring.datasource.replica.*}, with its own {@code
+ * spring.datasource.replica.hikari.*} pool settings. Work inside {@code @Transactional(readOnly =
+ * true)} goes to the replica while {@link ReplicaLagMonitor} finds it current enough; everything
+ * else goes to the primary.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "spring.datasource.replica", name = "url")
+public class ReplicaDataSourceConfig {
+
+  @Bean
+  @ConfigurationProperties("spring.datasource.hikari")
+  public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+    return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+  }
+
+  @Bean
+  @ConfigurationProperties("spring.datasource.replica.hikari")
+  public HikariDataSource replicaDataSource(
+      DataSourceProperties properties,
+      @Value("${spring.datasource.replica.url}") String url,
+      @Value("${spring.datasource.replica.username:${spring.datasource.username:}}")
+          String username,
+      @Value("${spring.datasource.replica.password:${spring.datasource.password:}}")
+          String password) {
+    final HikariDataSource dataSource =
+        DataSourceBuilder.create()
+            .type(HikariDataSource.class)
+            .driverClassName(properties.determineDriverClassName())
+            .url(url)
+            .username(username)
+            .password(password)
+            .build();
+    dataSource.setPoolName("management-serviceReplicaHP");
+    dataSource.setReadOnly(true);
+    return dataSource;
+  }
+
+  @Bean
+  public ReplicaLagMonitor replicaLagMonitor(
+      @Qualifier("replicaDataSource") DataSource replicaDataSource,
+      @Value("${spring.datasource.replica.max-lag-seconds:5}") long maxLagSeconds,
+      @Value("${spring.datasource.replica.lag-query:}") String lagQuery) {
+    return new ReplicaLagMonitor(replicaDataSource, maxLagSeconds, lagQuery);
+  }
+
+  @Bean
+  @Primary
+  public DataSource dataSource(
+      @Qualifier("primaryDataSource") DataSource primaryDataSource,
+      @Qualifier("replicaDataSource") DataSource replicaDataSource,
+      ReplicaLagMonitor replicaLagMonitor) {
+    return new LazyConnectionDataSourceProxy(
+        new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource, replicaLagMonitor));
+  }
+}
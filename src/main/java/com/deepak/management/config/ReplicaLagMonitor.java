@@ -0,0 +1,76 @@
+package com.deepak.management.config;
+
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Checks how far the read replica is behind the primary.
+ *
+ * <p>The replica is usable only after a check found it at most {@code
+ * spring.datasource.replica.max-lag-seconds} behind; a failed check, stopped replication or a
+ * larger lag sends read-only work back to the primary until a later check passes. By default the
+ * lag is {@code Seconds_Behind_Source} of {@code SHOW REPLICA STATUS}; {@code
+ * spring.datasource.replica.lag-query} replaces it with a query returning the lag in seconds, e.g.
+ * {@code SELECT 0} for a local second database that is not a real replica.
+ */
+public class ReplicaLagMonitor {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+  private final JdbcTemplate jdbcTemplate;
+  private final long maxLagSeconds;
+  private final String lagQuery;
+  private volatile boolean usable;
+
+  public ReplicaLagMonitor(DataSource replicaDataSource, long maxLagSeconds, String lagQuery) {
+    this.jdbcTemplate = new JdbcTemplate(replicaDataSource);
+    this.maxLagSeconds = maxLagSeconds;
+    this.lagQuery = lagQuery == null ? "" : lagQuery.trim();
+  }
+
+  /** Whether read-only work may go to the replica. */
+  public boolean isUsable() {
+    return usable;
+  }
+
+  @Scheduled(fixedDelayString = "${spring.datasource.replica.lag-check-ms:5000}")
+  public void check() {
+    Long lagSeconds;
+    try {
+      lagSeconds =
+          lagQuery.isEmpty()
+              ? replicaStatusLag()
+              : jdbcTemplate.queryForObject(lagQuery, Long.class);
+    } catch (DataAccessException e) {
+      LOGGER.warn("Replica lag check failed: {}", e.getMessage());
+      lagSeconds = null;
+    }
+    final boolean nowUsable = lagSeconds != null && lagSeconds <= maxLagSeconds;
+    if (nowUsable != usable) {
+      if (nowUsable) {
+        LOGGER.info("Read replica is {} s behind, sending read-only work to it", lagSeconds);
+      } else {
+        LOGGER.warn(
+            "Read replica lag is {} s, sending read-only work to the primary",
+            lagSeconds == null ? "unknown" : lagSeconds);
+      }
+    }
+    usable = nowUsable;
+  }
+
+  private Long replicaStatusLag() {
+    return jdbcTemplate.query(
+        "SHOW REPLICA STATUS",
+        resultSet -> {
+          if (!resultSet.next()) {
+            return null;
+          }
+          // NULL while replication is stopped
+          final long lag = resultSet.getLong("Seconds_Behind_Source");
+          return resultSet.wasNull() ? null : lag;
+        });
+  }
+}
@@ -0,0 +1,39 @@
+package com.deepak.management.config;
+
+import java.util.Map;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Hands out replica connections inside read-only transactions while the replica keeps up, and
+ * primary connections otherwise.
+ *
+ * <p>The decision is made when a connection is taken, so this must sit behind a {@link
+ * org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, which takes it at the first
+ * statement, after the transaction has been marked read-only.
+ */
+class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+  enum Target {
+    PRIMARY,
+    REPLICA
+  }
+
+  private final ReplicaLagMonitor replicaLagMonitor;
+
+  ReplicaRoutingDataSource(
+      DataSource primary, DataSource replica, ReplicaLagMonitor replicaLagMonitor) {
+    this.replicaLagMonitor = replicaLagMonitor;
+    setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+    setDefaultTargetDataSource(primary);
+    afterPropertiesSet();
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    return TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+            && replicaLagMonitor.isUsable()
+        ? Target.REPLICA
+        : Target.PRIMARY;
+  }
+}
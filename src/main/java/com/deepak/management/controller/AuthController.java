@@ -23,8 +23,6 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import java.time.LocalDateTime;
-import java.util.Date;
-import java.util.List;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseCookie;
@@ -87,12 +85,14 @@ public class AuthController {
     // Generate tokens
     String accessToken =
         tokenProvider.generateAccessToken(
+            userDetails.getUser().getId(),
             userDetails.getUsername(),
             userDetails.getAuthorities().stream()
                 .findFirst()
                 .map(GrantedAuthority::getAuthority)
                 .orElse("ROLE_USER"),
-            userDetails.getClinicIds());
+            userDetails.getClinicIds(),
+            userDetails.getUser().getSecurityStamp());
 
     // Convert Long to Integer for user ID
     Integer userId = userDetails.getId().intValue();
@@ -138,7 +138,11 @@ public class AuthController {
                             user.getRole(); // Assuming getRole() returns the role as String
                         String accessToken =
                             tokenProvider.generateAccessToken(
-                                user.getUsername(), role, user.getClinicIds());
+                                user.getId(),
+                                user.getUsername(),
+                                role,
+                                user.getClinicIds(),
+                                user.getSecurityStamp());
 
                         // Generate new refresh token (optional: rotate refresh token)
                         RefreshToken newRefreshToken =
@@ -168,9 +172,12 @@ public class AuthController {
     String refreshToken = tokenProvider.extractRefreshTokenFromCookies(request);
 
     // Blacklist access token if present and valid
-    if (accessToken != null && tokenProvider.validateToken(accessToken)) {
-      Date expiry = tokenProvider.getExpirationDateFromToken(accessToken);
-      blacklistedAccessTokenService.blacklistToken(accessToken, expiry.toInstant());
+    if (accessToken != null) {
+      tokenProvider
+          .tryVerify(accessToken)
+          .ifPresent(
+              verified ->
+                  blacklistedAccessTokenService.blacklistToken(accessToken, verified.expiresAt()));
     }
 
     // Revoke refresh token if present
@@ -206,21 +213,16 @@ public class AuthController {
   @PostMapping("/validate")
   public ResponseEntity<TokenValidationResponse> validateToken(
       @RequestBody TokenValidationRequest tokenRequest) {
-    boolean valid = tokenProvider.validateToken(tokenRequest.getToken());
-    if (valid) {
-      String username = tokenProvider.getUsernameFromToken(tokenRequest.getToken());
-      String role =
-          tokenProvider.getClaimFromToken(
-              tokenRequest.getToken(), claims -> claims.get("role", String.class));
-      @SuppressWarnings("unchecked")
-      List<Integer> clinicIds =
-          (List<Integer>)
-              tokenProvider.getClaimFromToken(
-                  tokenRequest.getToken(), claims -> claims.get("clinicIds"));
-      return ResponseEntity.ok(new TokenValidationResponse(true, username, role, clinicIds));
-    } else {
-      return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-          .body(new TokenValidationResponse(false, null, null, null));
-    }
+    return tokenProvider
+        .tryVerify(tokenRequest.getToken())
+        .map(
+            verified ->
+                ResponseEntity.ok(
+                    new TokenValidationResponse(
+                        true, verified.subject(), verified.role(), verified.clinicIds())))
+        .orElseGet(
+            () ->
+                ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new TokenValidationResponse(false, null, null, null)));
   }
 }
@@ -6,7 +6,6 @@ import com.deepak.management.exception.DoctorNotFound;
 import com.deepak.management.exception.ErrorDetails;
 import com.deepak.management.model.doctor.DoctorAbsenceInformation;
 import com.deepak.management.repository.ClinicInformationRepository;
-import com.deepak.management.repository.DoctorAbsenceInformationRepository;
 import com.deepak.management.repository.DoctorInformationRepository;
 import com.deepak.management.service.doctorabsence.DoctorAbsenceService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -36,17 +35,14 @@ import org.springframework.web.bind.annotation.*;
 @Validated
 public class DoctorAbsenceController {
   private static final Logger LOGGER = LoggerFactory.getLogger(DoctorAbsenceController.class);
-  private final DoctorAbsenceInformationRepository doctorAbsenceInformationRepository;
   private final DoctorAbsenceService doctorAbsenceService;
   private final ClinicInformationRepository clinicInformationRepository;
   private final DoctorInformationRepository doctorInformationRepository;
 
   public DoctorAbsenceController(
-      DoctorAbsenceInformationRepository doctorAbsenceInformationRepository,
       DoctorAbsenceService doctorAbsenceService,
       ClinicInformationRepository clinicInformationRepository,
       DoctorInformationRepository doctorInformationRepository) {
-    this.doctorAbsenceInformationRepository = doctorAbsenceInformationRepository;
     this.doctorAbsenceService = doctorAbsenceService;
     this.clinicInformationRepository = clinicInformationRepository;
     this.doctorInformationRepository = doctorInformationRepository;
@@ -97,7 +93,7 @@ public class DoctorAbsenceController {
               + " not found in clinic "
               + doctorAbsenceInformation.getClinicId());
     }
-    return doctorAbsenceInformationRepository.save(doctorAbsenceInformation);
+    return doctorAbsenceService.saveDoctorAbsenceInformation(doctorAbsenceInformation);
   }
 
   @GetMapping
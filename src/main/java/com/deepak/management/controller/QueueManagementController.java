@@ -1,8 +1,18 @@
 package com.deepak.management.controller;
 
 import com.deepak.management.exception.ErrorDetails;
+import com.deepak.management.model.queuemanagement.QueueBatchOperation;
+import com.deepak.management.model.queuemanagement.QueueBatchResult;
+import com.deepak.management.model.queuemanagement.QueueCursor;
+import com.deepak.management.model.queuemanagement.QueueDetailsPage;
+import com.deepak.management.model.queuemanagement.QueueEta;
 import com.deepak.management.model.queuemanagement.QueueManagementDTO;
-import com.deepak.management.repository.QueueManagementRepository;
+import com.deepak.management.repository.QueueDetailsReader;
+import com.deepak.management.service.queuemanagement.EtaService;
+import com.deepak.management.service.queuemanagement.LiveQueueService;
+import com.deepak.management.service.queuemanagement.QueueStreamService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
@@ -12,27 +22,64 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
 import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/queue")
+@Validated
 @CrossOrigin(origins = "http://localhost:3030")
 @Tag(
     name = "Queue Management",
     description = "APIs for managing queue and patient status information")
 public class QueueManagementController {
 
-  private final QueueManagementRepository queueManagementRepository;
+  private final LiveQueueService liveQueueService;
+  private final QueueStreamService queueStreamService;
+  private final EtaService etaService;
+  private final QueueDetailsReader queueDetailsReader;
+  private final ObjectMapper objectMapper;
+  private final int maxPageSize;
+  private final int maxBatchSize;
 
-  public QueueManagementController(QueueManagementRepository queueManagementRepository) {
-    this.queueManagementRepository = queueManagementRepository;
+  public QueueManagementController(
+      LiveQueueService liveQueueService,
+      QueueStreamService queueStreamService,
+      EtaService etaService,
+      QueueDetailsReader queueDetailsReader,
+      ObjectMapper objectMapper,
+      @Value("${queue.details.max-page-size:500}") int maxPageSize,
+      @Value("${queue.batch.max-operations:200}") int maxBatchSize) {
+    this.liveQueueService = liveQueueService;
+    this.queueStreamService = queueStreamService;
+    this.etaService = etaService;
+    this.queueDetailsReader = queueDetailsReader;
+    this.objectMapper = objectMapper;
+    this.maxPageSize = maxPageSize;
+    this.maxBatchSize = maxBatchSize;
   }
 
   @GetMapping("/details")
   @Operation(
       summary = "Get all Queue Information",
-      description = "Retrieves a list of all queue management records")
+      description =
+          "Retrieves a list of all queue management records ordered by slot date, slot time and ID."
+              + " The list is streamed in chunks as it is read from the database; use"
+              + " /queue/details/page to read it in pages")
   @ApiResponses(
       value = {
         @ApiResponse(
@@ -51,14 +98,101 @@ public class QueueManagementController {
                     mediaType = "application/json",
                     schema = @Schema(implementation = ErrorDetails.class)))
       })
-  public List<QueueManagementDTO> getQueueInformation() {
-    return queueManagementRepository.getQueueManagementData();
+  public ResponseEntity<StreamingResponseBody> getQueueInformation() {
+    final StreamingResponseBody body =
+        outputStream -> {
+          try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.writeStartArray();
+            queueDetailsReader.streamAll(
+                dto -> {
+                  try {
+                    generator.writeObject(dto);
+                  } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                  }
+                });
+            generator.writeEndArray();
+          }
+        };
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+  }
+
+  @GetMapping("/details/page")
+  @Operation(
+      summary = "Get a page of Queue Information",
+      description =
+          "Retrieves queue management records ordered by slot date, slot time and ID, one page at a"
+              + " time. Pass the returned nextCursor to read the following page.",
+      parameters = {
+        @Parameter(
+            name = "clinicId",
+            description = "Only records of this clinic",
+            in = ParameterIn.QUERY,
+            schema = @Schema(type = "integer")),
+        @Parameter(
+            name = "date",
+            description = "Only records on this date",
+            in = ParameterIn.QUERY,
+            schema = @Schema(type = "string", format = "date", example = "2025-01-31")),
+        @Parameter(
+            name = "cursor",
+            description = "The nextCursor of the previous page",
+            in = ParameterIn.QUERY,
+            schema = @Schema(type = "string")),
+        @Parameter(
+            name = "limit",
+            description = "Records per page",
+            in = ParameterIn.QUERY,
+            schema = @Schema(type = "integer", defaultValue = "100"))
+      })
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Successfully retrieved a page of queue information",
+            content =
+                @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = QueueDetailsPage.class))),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid cursor or limit",
+            content =
+                @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = ErrorDetails.class))),
+        @ApiResponse(
+            responseCode = "500",
+            description = "Internal server error",
+            content =
+                @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = ErrorDetails.class)))
+      })
+  public QueueDetailsPage getQueueInformationPage(
+      @RequestParam(required = false) Integer clinicId,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "100") int limit) {
+    if (limit < 1 || limit > maxPageSize) {
+      throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST, "limit must be between 1 and " + maxPageSize);
+    }
+    final QueueCursor after;
+    try {
+      after = cursor == null || cursor.isBlank() ? null : QueueCursor.decode(cursor);
+    } catch (IllegalArgumentException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+    }
+    return queueDetailsReader.findPage(clinicId, date, after, limit);
   }
 
   @GetMapping("/details/{clinicId}/{doctorId}")
   @Operation(
-      summary = "Get all Queue Information for a doctor",
-      description = "Retrieves queue management records for a specific doctor in a clinic",
+      summary = "Get today's Queue Information for a doctor",
+      description =
+          "Retrieves today's queue management records for a specific doctor in a clinic from the"
+              + " in-memory live queue",
       parameters = {
         @Parameter(
             name = "clinicId",
@@ -100,7 +234,123 @@ public class QueueManagementController {
       })
   public List<QueueManagementDTO> getQueueInformationForDoctor(
       @PathVariable String clinicId, @PathVariable String doctorId) {
-    return queueManagementRepository.getQueueManagementData(clinicId, doctorId);
+    return liveQueueService.getQueue(clinicId, doctorId);
+  }
+
+  @GetMapping(value = "/stream/{clinicId}/{doctorId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  @Operation(
+      summary = "Stream Queue changes for a doctor",
+      description =
+          "Opens a Server-Sent Events stream that sends today's queue as a 'snapshot' event and then"
+              + " a 'reached', 'cancelled', 'visited', 'deleted' or 'skipped' event per change. A"
+              + " later 'snapshot' event replaces the whole queue.",
+      parameters = {
+        @Parameter(
+            name = "clinicId",
+            description = "Unique identifier of the clinic",
+            required = true,
+            in = ParameterIn.PATH,
+            schema = @Schema(type = "string")),
+        @Parameter(
+            name = "doctorId",
+            description = "Unique identifier of the doctor",
+            required = true,
+            in = ParameterIn.PATH,
+            schema = @Schema(type = "string"))
+      })
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Stream opened",
+            content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE)),
+        @ApiResponse(
+            responseCode = "500",
+            description = "Internal server error",
+            content =
+                @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = ErrorDetails.class)))
+      })
+  public SseEmitter streamQueueInformationForDoctor(
+      @PathVariable String clinicId, @PathVariable String doctorId) {
+    return queueStreamService.subscribe(clinicId, doctorId);
+  }
+
+  @GetMapping("/eta/{id}")
+  @Operation(
+      summary = "Estimate when a patient will be seen",
+      description =
+          "Estimates the start of a consultation from the patients still ahead in today's queue and"
+              + " the doctor's recent consultation times. Answered from memory once the doctor's"
+              + " queue has been loaded.",
+      parameters = {
+        @Parameter(
+            name = "id",
+            description = "Queue record ID",
+            required = true,
+            in = ParameterIn.PATH,
+            schema = @Schema(type = "integer"))
+      })
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Estimate calculated",
+            content =
+                @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = QueueEta.class))),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Queue record is not in an open queue of today",
+            content =
+                @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = ErrorDetails.class)))
+      })
+  public QueueEta getEstimatedTime(@PathVariable Integer id) {
+    return etaService.estimate(id);
+  }
+
+  @PostMapping("/batch")
+  @Operation(
+      summary = "Apply several queue changes at once",
+      description =
+          "Marks several queue records as reached, cancelled, visited or deleted in one"
+              + " transaction and returns the outcome of each operation in request order")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Operations applied",
+            content =
+                @Content(
+                    mediaType = "application/json",
+                    array =
+                        @ArraySchema(schema = @Schema(implementation = QueueBatchResult.class)))),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid or too many operations",
+            content =
+                @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = ErrorDetails.class))),
+        @ApiResponse(
+            responseCode = "500",
+            description = "Internal server error",
+            content =
+                @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = ErrorDetails.class)))
+      })
+  public List<QueueBatchResult> applyBatch(
+      @RequestBody @NotEmpty List<@Valid QueueBatchOperation> operations) {
+    if (operations.size() > maxBatchSize) {
+      throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST, "At most " + maxBatchSize + " operations are allowed");
+    }
+    return liveQueueService.applyBatch(operations);
   }
 
   @PutMapping("/patientReached/{id}")
@@ -134,7 +384,7 @@ public class QueueManagementController {
                     schema = @Schema(implementation = ErrorDetails.class)))
       })
   public void patientReached(@PathVariable Integer id) {
-    queueManagementRepository.updatePatientReached(id);
+    liveQueueService.patientReached(id);
   }
 
   @PutMapping("/patientCancelled/{id}")
@@ -168,7 +418,7 @@ public class QueueManagementController {
                     schema = @Schema(implementation = ErrorDetails.class)))
       })
   public void patientCancelled(@PathVariable Integer id) {
-    queueManagementRepository.updatePatientCancelled(id);
+    liveQueueService.patientCancelled(id);
   }
 
   @PutMapping("/patientVisited/{id}")
@@ -202,7 +452,7 @@ public class QueueManagementController {
                     schema = @Schema(implementation = ErrorDetails.class)))
       })
   public void patientVisited(@PathVariable Integer id) {
-    queueManagementRepository.updatePatientVisited(id);
+    liveQueueService.patientVisited(id);
   }
 
   @PutMapping("/patientDelete/{id}")
@@ -236,7 +486,7 @@ public class QueueManagementController {
                     schema = @Schema(implementation = ErrorDetails.class)))
       })
   public void patientDelete(@PathVariable Integer id) {
-    queueManagementRepository.updatePatientDelete(id);
+    liveQueueService.patientDeleted(id);
   }
 
   @PutMapping("/patientSkip/{id}")
@@ -270,6 +520,6 @@ public class QueueManagementController {
                     schema = @Schema(implementation = ErrorDetails.class)))
       })
   public void patientSkip(@PathVariable Integer id) {
-    queueManagementRepository.SkipPatient(id);
+    liveQueueService.skipPatient(id);
   }
 }
@@ -0,0 +1,8 @@
+package com.deepak.management.exception;
+
+/** Thrown when no database permit is free within the wait allowed for the caller. */
+public class DatabaseBusyException extends RuntimeException {
+  public DatabaseBusyException(String message) {
+    super(message);
+  }
+}
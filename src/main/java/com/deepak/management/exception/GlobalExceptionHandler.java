@@ -14,6 +14,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -38,6 +40,16 @@ public class GlobalExceptionHandler {
   @ExceptionHandler(Exception.class)
   @SuppressWarnings("CallToPrintStackTrace")
   public ResponseEntity<ErrorDetails> handleGlobalException(Exception ex, WebRequest request) {
+    // Persistence layers wrap the bulkhead's rejection when it happens while opening a connection,
+    // and authentication wraps the hashing queue's
+    for (Throwable cause = ex.getCause(); cause != null; cause = cause.getCause()) {
+      if (cause instanceof DatabaseBusyException busy) {
+        return handleDatabaseBusyException(busy, request);
+      }
+      if (cause instanceof PasswordHashingBusyException busy) {
+        return handlePasswordHashingBusyException(busy, request);
+      }
+    }
     LOGGER.error("An error occurred: {}", ex.getMessage());
     ErrorDetails errorDetails =
         new ErrorDetails(LocalDateTime.now(), ex.getMessage(), request.getDescription(false));
@@ -45,6 +57,39 @@ public class GlobalExceptionHandler {
     return new ResponseEntity<>(errorDetails, HttpStatus.INTERNAL_SERVER_ERROR);
   }
 
+  @ExceptionHandler(DatabaseBusyException.class)
+  public ResponseEntity<ErrorDetails> handleDatabaseBusyException(
+      DatabaseBusyException ex, WebRequest request) {
+    LOGGER.warn("Request rejected: {}", ex.getMessage());
+    ErrorDetails errorDetails =
+        new ErrorDetails(LocalDateTime.now(), ex.getMessage(), request.getDescription(false));
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, "1")
+        .body(errorDetails);
+  }
+
+  @ExceptionHandler(PasswordHashingBusyException.class)
+  public ResponseEntity<ErrorDetails> handlePasswordHashingBusyException(
+      PasswordHashingBusyException ex, WebRequest request) {
+    LOGGER.warn("Request rejected: {}", ex.getMessage());
+    ErrorDetails errorDetails =
+        new ErrorDetails(LocalDateTime.now(), ex.getMessage(), request.getDescription(false));
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, "1")
+        .body(errorDetails);
+  }
+
+  @ExceptionHandler(SlotGenerationPendingException.class)
+  public ResponseEntity<ErrorDetails> handleSlotGenerationPendingException(
+      SlotGenerationPendingException ex, WebRequest request) {
+    LOGGER.warn("Request rejected: {}", ex.getMessage());
+    ErrorDetails errorDetails =
+        new ErrorDetails(LocalDateTime.now(), ex.getMessage(), request.getDescription(false));
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, "1")
+        .body(errorDetails);
+  }
+
   @ExceptionHandler(ClinicNotFound.class)
   public ResponseEntity<ErrorDetails> handleClinicNotFoundException(
       ClinicNotFound ex, WebRequest request) {
@@ -115,6 +160,15 @@ public class GlobalExceptionHandler {
     return new ResponseEntity<>(body, HttpStatus.CONFLICT);
   }
 
+  @ExceptionHandler(OptimisticLockingFailureException.class)
+  public ResponseEntity<ErrorDetails> handleOptimisticLockingFailureException(
+      OptimisticLockingFailureException ex, WebRequest request) {
+    LOGGER.warn("Concurrent update conflict: {}", ex.getMessage());
+    ErrorDetails errorDetails =
+        new ErrorDetails(LocalDateTime.now(), ex.getMessage(), request.getDescription(false));
+    return new ResponseEntity<>(errorDetails, HttpStatus.CONFLICT);
+  }
+
   @ExceptionHandler({SlotAlreadyGeneratedException.class})
   public ResponseEntity<ErrorDetails> handleSlotAlreadyGeneratedException(
       SlotAlreadyGeneratedException ex, WebRequest request) {
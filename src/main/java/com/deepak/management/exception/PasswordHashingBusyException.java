@@ -0,0 +1,8 @@
+package com.deepak.management.exception;
+
+/** Thrown when the password hashing queue is full. */
+public class PasswordHashingBusyException extends RuntimeException {
+  public PasswordHashingBusyException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,8 @@
+package com.deepak.management.exception;
+
+/** Thrown when a generator's claim on a doctor-day was taken over before it finished. */
+public class SlotGenerationClaimLostException extends RuntimeException {
+  public SlotGenerationClaimLostException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,8 @@
+package com.deepak.management.exception;
+
+/** Thrown when another caller is still generating a doctor-day's slots after the allowed wait. */
+public class SlotGenerationPendingException extends RuntimeException {
+  public SlotGenerationPendingException(String message) {
+    super(message);
+  }
+}
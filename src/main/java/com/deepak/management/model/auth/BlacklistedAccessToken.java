@@ -5,28 +5,63 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import java.time.Instant;
 import lombok.Data;
 
+/**
+ * A revoked access token, stored as the SHA-256 digest of the token and bucketed by the hour it
+ * expires in, so expired revocations are purged an hour at a time. The database stamps {@code
+ * revoked_at} on insert, which other instances poll by.
+ */
 @Entity
-@Table(name = "blacklisted_access_tokens")
+@Table(
+    name = "blacklisted_access_tokens",
+    uniqueConstraints =
+        @UniqueConstraint(
+            name = "uk_blacklisted_access_tokens_digest",
+            columnNames = "token_digest"),
+    indexes = {
+      @Index(name = "idx_blacklisted_access_tokens_expiry_hour", columnList = "expiry_hour"),
+      @Index(name = "idx_blacklisted_access_tokens_revoked_at", columnList = "revoked_at, id")
+    })
 @Data
 public class BlacklistedAccessToken {
+  private static final long SECONDS_PER_HOUR = 3600;
+
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
   private Long id;
 
-  @Column(nullable = false, unique = true, length = 512)
-  private String token;
+  @Column(name = "token_digest", nullable = false, length = 64, columnDefinition = "CHAR(64)")
+  private String tokenDigest;
 
   @Column(nullable = false)
   private Instant expiryDate;
 
+  // Hours since the epoch, UTC
+  @Column(name = "expiry_hour", nullable = false)
+  private Long expiryHour;
+
+  @Column(
+      name = "revoked_at",
+      insertable = false,
+      updatable = false,
+      columnDefinition = "DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6)")
+  private Instant revokedAt;
+
   public BlacklistedAccessToken() {}
 
-  public BlacklistedAccessToken(String token, Instant expiryDate) {
-    this.token = token;
+  public BlacklistedAccessToken(String tokenDigest, Instant expiryDate) {
+    this.tokenDigest = tokenDigest;
     this.expiryDate = expiryDate;
+    this.expiryHour = hourOf(expiryDate);
+  }
+
+  /** Returns the bucket of an instant: the hours since the epoch, UTC. */
+  public static long hourOf(Instant instant) {
+    return Math.floorDiv(instant.getEpochSecond(), SECONDS_PER_HOUR);
   }
 }
@@ -67,6 +67,10 @@ public class User {
   @Column(name = "locked_until")
   private LocalDateTime lockedUntil;
 
+  @Builder.Default
+  @Column(name = "security_stamp", nullable = false)
+  private Long securityStamp = 0L;
+
   @Column(name = "last_login_at")
   private LocalDateTime lastLoginAt;
 
@@ -3,6 +3,7 @@ package com.deepak.management.model.doctor;
 import com.deepak.management.model.common.DoctorAvailability;
 import com.deepak.management.model.common.PhoneNumbers;
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.v3.oas.annotations.Hidden;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.Column;
@@ -131,4 +132,9 @@ public class DoctorInformation {
       description = "List of academic and professional qualifications of the doctor",
       example = "[\"MBBS\", \"MD (Paediatrics)\", \"DCH\"]")
   private List<String> qualifications;
+
+  @JsonIgnore
+  @Column(name = "schedule_version")
+  @Hidden
+  private Long scheduleVersion = 0L;
 }
@@ -0,0 +1,9 @@
+package com.deepak.management.model.queuemanagement;
+
+/** A status change that can be applied to a queue entry in a batch. */
+public enum QueueAction {
+  REACHED,
+  CANCELLED,
+  VISITED,
+  DELETED
+}
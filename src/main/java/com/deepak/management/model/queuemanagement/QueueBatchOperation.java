@@ -0,0 +1,20 @@
+package com.deepak.management.model.queuemanagement;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QueueBatchOperation {
+  @Schema(description = "Queue record ID", example = "42")
+  @NotNull
+  private Integer id;
+
+  @Schema(description = "Change to apply", example = "REACHED")
+  @NotNull
+  private QueueAction action;
+}
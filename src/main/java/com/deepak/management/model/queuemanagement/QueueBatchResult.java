@@ -0,0 +1,23 @@
+package com.deepak.management.model.queuemanagement;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class QueueBatchResult {
+  public static final String UPDATED = "UPDATED";
+  public static final String NOT_FOUND = "NOT_FOUND";
+
+  @Schema(description = "Queue record ID", example = "42")
+  private Integer id;
+
+  @Schema(description = "Change that was requested", example = "REACHED")
+  private QueueAction action;
+
+  @Schema(description = "UPDATED, or NOT_FOUND when no queue record has the ID")
+  private String status;
+}
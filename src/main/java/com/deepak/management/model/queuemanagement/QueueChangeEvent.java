@@ -0,0 +1,20 @@
+package com.deepak.management.model.queuemanagement;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * A change to a doctor's queue, pushed to stream subscribers.
+ *
+ * @param type What happened; {@code snapshot} means the whole queue should be read again.
+ * @param id The queue record ID, or null for {@code snapshot}.
+ * @param entry The entry after the change, or null when it left the queue.
+ */
+@Schema(description = "A change to a doctor's queue")
+public record QueueChangeEvent(String type, Integer id, QueueManagementDTO entry) {
+  public static final String SNAPSHOT = "snapshot";
+  public static final String REACHED = "reached";
+  public static final String CANCELLED = "cancelled";
+  public static final String VISITED = "visited";
+  public static final String DELETED = "deleted";
+  public static final String SKIPPED = "skipped";
+}
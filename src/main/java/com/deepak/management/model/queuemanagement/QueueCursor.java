@@ -0,0 +1,40 @@
+package com.deepak.management.model.queuemanagement;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position after the last queue record of a page, in {@code (slot_date, slot_time,
+ * queue_management_id)} order. Clients pass it back as an opaque string to get the next page.
+ */
+public record QueueCursor(LocalDate date, LocalTime time, Integer id) {
+
+  public String encode() {
+    final String raw = date + "|" + time + "|" + id;
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Reads a cursor produced by {@link #encode()}.
+   *
+   * @throws IllegalArgumentException when the value is not a cursor.
+   */
+  public static QueueCursor decode(String value) {
+    try {
+      final String[] parts =
+          new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8).split("\\|");
+      if (parts.length != 3) {
+        throw new IllegalArgumentException("Invalid cursor: " + value);
+      }
+      return new QueueCursor(
+          LocalDate.parse(parts[0]), LocalTime.parse(parts[1]), Integer.valueOf(parts[2]));
+    } catch (DateTimeParseException e) {
+      throw new IllegalArgumentException("Invalid cursor: " + value, e);
+    }
+  }
+}
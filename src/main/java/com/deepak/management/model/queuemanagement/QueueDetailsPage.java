@@ -0,0 +1,17 @@
+package com.deepak.management.model.queuemanagement;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class QueueDetailsPage {
+  private List<QueueManagementDTO> items;
+
+  @Schema(description = "Cursor for the next page; absent on the last page")
+  private String nextCursor;
+}
@@ -0,0 +1,24 @@
+package com.deepak.management.model.queuemanagement;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * When a patient in today's queue is expected to be seen.
+ *
+ * @param id The queue record ID.
+ * @param visited Whether the patient has already been seen; the times are null when so.
+ * @param waitingAhead Patients before this one who have not been seen yet.
+ * @param minutesPerPatient The consultation length the estimate is based on.
+ * @param estimatedTime The expected start of the consultation, as HH:mm.
+ * @param latestTime A start time that nine in ten days are expected to beat, as HH:mm.
+ * @param samples The consultations measured for this doctor so far.
+ */
+@Schema(description = "Estimated start of a patient's consultation")
+public record QueueEta(
+    @Schema(example = "42") Integer id,
+    @Schema(example = "false") boolean visited,
+    @Schema(example = "3") int waitingAhead,
+    @Schema(example = "11.5") double minutesPerPatient,
+    @Schema(example = "10:35") String estimatedTime,
+    @Schema(example = "10:50") String latestTime,
+    @Schema(example = "27") long samples) {}
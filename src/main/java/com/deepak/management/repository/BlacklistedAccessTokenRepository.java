@@ -1,14 +1,41 @@
 package com.deepak.management.repository;
 
 import com.deepak.management.model.auth.BlacklistedAccessToken;
-import java.util.Optional;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface BlacklistedAccessTokenRepository
     extends JpaRepository<BlacklistedAccessToken, Long> {
-  Optional<BlacklistedAccessToken> findByToken(String token);
+  boolean existsByTokenDigest(String tokenDigest);
 
-  void deleteByExpiryDateBefore(java.time.Instant now);
+  /**
+   * Reads revocations written after the position {@code (revokedAt, id)}, in that order, through
+   * the {@code revoked_at} index. Expired rows are included until the purge removes them, so the
+   * position keeps moving even when only expired rows follow it.
+   */
+  @Query(
+      "SELECT t FROM BlacklistedAccessToken t "
+          + "WHERE t.revokedAt > :revokedAt OR (t.revokedAt = :revokedAt AND t.id > :id) "
+          + "ORDER BY t.revokedAt, t.id")
+  List<BlacklistedAccessToken> findRevokedAfter(
+      @Param("revokedAt") Instant revokedAt, @Param("id") long id, Pageable pageable);
+
+  /**
+   * Deletes up to {@code limit} revocations from the expiry buckets before {@code hour}, through
+   * the bucket index. Returns the number of rows deleted.
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      value = "DELETE FROM blacklisted_access_tokens WHERE expiry_hour < :hour LIMIT :limit",
+      nativeQuery = true)
+  int deleteBucketsBefore(@Param("hour") long hour, @Param("limit") int limit);
 }
@@ -30,6 +30,9 @@ public interface DoctorAbsenceInformationRepository
   List<DoctorAbsenceInformation> findByAbsenceDateAndClinicIdAndDoctorId(
       Date absenceDate, Integer clinicId, String doctorId);
 
+  List<DoctorAbsenceInformation> findByAbsenceDateBetweenAndClinicIdAndDoctorId(
+      Date startDate, Date endDate, Integer clinicId, String doctorId);
+
   Page<DoctorAbsenceInformation> findByAbsenceDateGreaterThanEqualAndClinicId(
       Date absenceDate, Integer clinicId, Pageable pageable);
 }
@@ -2,11 +2,20 @@ package com.deepak.management.repository;
 
 import com.deepak.management.model.doctor.DoctorInformation;
 import java.util.List;
+import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface DoctorInformationRepository extends JpaRepository<DoctorInformation, Long> {
 
   DoctorInformation findByDoctorIdAndClinicId(String doctorId, Integer clinicId);
 
   List<DoctorInformation> findAllByClinicId(Integer clinicId);
+
+  @Query(
+      "SELECT COALESCE(d.scheduleVersion, 0) FROM doctor_information d "
+          + "WHERE d.doctorId = :doctorId AND d.clinicId = :clinicId")
+  Optional<Long> findScheduleVersion(
+      @Param("doctorId") String doctorId, @Param("clinicId") Integer clinicId);
 }
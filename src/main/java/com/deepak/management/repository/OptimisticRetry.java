@@ -0,0 +1,86 @@
+package com.deepak.management.repository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BooleanSupplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs compare-and-set writes against rows with a {@code version} column and retries the ones that
+ * lost to a concurrent writer.
+ *
+ * <p>An attempt reads the versions it needs and updates only rows whose version is unchanged, so no
+ * row lock is held between the read and the write. Connections use READ COMMITTED, which lets a
+ * retry in the same transaction see the winner's commit. Every lost attempt counts in {@code
+ * queue.optimistic.conflicts}, tagged with the operation; after {@code
+ * queue.optimistic.max-attempts} attempts the write gives up with an {@link
+ * OptimisticLockingFailureException} and counts in {@code queue.optimistic.exhausted}.
+ */
+@Component
+@Slf4j
+public class OptimisticRetry {
+  static final String CONFLICTS_METRIC = "queue.optimistic.conflicts";
+  static final String EXHAUSTED_METRIC = "queue.optimistic.exhausted";
+
+  private final TransactionTemplate transactionTemplate;
+  private final MeterRegistry meterRegistry;
+  private final int maxAttempts;
+  private final long backoffMs;
+
+  public OptimisticRetry(
+      PlatformTransactionManager transactionManager,
+      MeterRegistry meterRegistry,
+      @Value("${queue.optimistic.max-attempts:3}") int maxAttempts,
+      @Value("${queue.optimistic.backoff-ms:10}") long backoffMs) {
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.meterRegistry = meterRegistry;
+    this.maxAttempts = Math.max(1, maxAttempts);
+    this.backoffMs = Math.max(0, backoffMs);
+  }
+
+  /**
+   * Runs attempts, each in a transaction, until one succeeds.
+   *
+   * @param operation Names the write in logs and metrics.
+   * @param attempt Returns false when its compare-and-set found a changed version.
+   * @throws OptimisticLockingFailureException When every attempt lost.
+   */
+  public void run(String operation, BooleanSupplier attempt) {
+    for (int attempts = 1; ; attempts++) {
+      if (Boolean.TRUE.equals(transactionTemplate.execute(status -> attempt.getAsBoolean()))) {
+        return;
+      }
+      conflict(operation);
+      if (attempts >= maxAttempts) {
+        meterRegistry.counter(EXHAUSTED_METRIC, "operation", operation).increment();
+        throw new OptimisticLockingFailureException(
+            operation + " conflicted with concurrent changes " + attempts + " times");
+      }
+      log.debug("Retrying {} after a version conflict (attempt {})", operation, attempts);
+      pause(attempts);
+    }
+  }
+
+  /** Counts a compare-and-set that lost, for writes that handle the conflict themselves. */
+  public void conflict(String operation) {
+    meterRegistry.counter(CONFLICTS_METRIC, "operation", operation).increment();
+  }
+
+  // Random backoff growing with the attempt, so writers that collided do not collide again
+  private void pause(int attempts) {
+    if (backoffMs == 0) {
+      return;
+    }
+    try {
+      Thread.sleep(ThreadLocalRandom.current().nextLong(backoffMs * attempts + 1));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new OptimisticLockingFailureException("Interrupted while retrying a write", e);
+    }
+  }
+}
@@ -0,0 +1,158 @@
+package com.deepak.management.repository;
+
+import com.deepak.management.model.queuemanagement.QueueCursor;
+import com.deepak.management.model.queuemanagement.QueueDetailsPage;
+import com.deepak.management.model.queuemanagement.QueueManagementDTO;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Reads queue records across clinics and days without loading them all at once.
+ *
+ * <p>Both read the {@code queue_read_model} table, which triggers keep up to date, so neither joins
+ * the appointment, patient, doctor or slot tables. {@link #findPage(Integer, LocalDate,
+ * QueueCursor, int)} reads one page in {@code (slot_date, slot_time, queue_management_id)} order,
+ * starting after a cursor, so every page costs the same however deep the client has read. {@link
+ * #streamAll(Consumer)} walks the same pages of {@code queue.details.stream-chunk-size} rows, so a
+ * connection is only held while one chunk is read, never while the client downloads it. Every page
+ * is read in a read-only transaction of its own, which a configured read replica serves.
+ */
+@Repository
+@Slf4j
+public class QueueDetailsReader {
+
+  private static final String SELECT =
+      "SELECT "
+          + "q.queue_management_id AS id, "
+          + "q.avatar_url AS avatarUrl, "
+          + "q.patient_name AS patientName, "
+          + "q.patient_phone_number AS patientPhoneNumber, "
+          + "q.doctor_name AS doctorName, "
+          + "q.queue_no AS queueNo, "
+          + "CASE WHEN q.patient_reached = 0 THEN 'false' ELSE 'true' END AS patientReached, "
+          + "TIME_FORMAT(q.slot_time, '%H:%i:%s') AS time, "
+          + "q.shift_time AS shiftTime, "
+          + "q.slot_date AS slotDate, "
+          + "q.slot_time AS slotTime "
+          + "FROM queue_read_model q ";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate readOnlyTransaction;
+  private final int streamChunkSize;
+
+  public QueueDetailsReader(
+      JdbcTemplate jdbcTemplate,
+      PlatformTransactionManager transactionManager,
+      @Value("${queue.details.stream-chunk-size:500}") int streamChunkSize) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+    this.streamChunkSize = Math.max(1, streamChunkSize);
+  }
+
+  /**
+   * Passes every queue record to the consumer in the order of {@link #findPage(Integer, LocalDate,
+   * QueueCursor, int)}, one chunk at a time. Each chunk is a query in a read-only transaction of
+   * its own, so the connection goes back to the pool before the consumer sees the chunk's rows. The
+   * transaction is opened here because calling {@code findPage} on this object bypasses the proxy
+   * that applies its {@code @Transactional}.
+   *
+   * @return The number of rows read.
+   */
+  public int streamAll(Consumer<QueueManagementDTO> consumer) {
+    final long startTime = System.currentTimeMillis();
+    int rows = 0;
+    QueueCursor after = null;
+    do {
+      final QueueCursor from = after;
+      final QueueDetailsPage page =
+          readOnlyTransaction.execute(status -> findPage(null, null, from, streamChunkSize));
+      page.getItems().forEach(consumer);
+      rows += page.getItems().size();
+      after = page.getNextCursor() == null ? null : QueueCursor.decode(page.getNextCursor());
+    } while (after != null);
+    log.info("Streamed {} queue records in {} ms", rows, System.currentTimeMillis() - startTime);
+    return rows;
+  }
+
+  /**
+   * Reads one page of queue records.
+   *
+   * @param clinicId Only records of this clinic; null for all clinics.
+   * @param date Only records on this date; null for all dates.
+   * @param after The cursor of the previous page; null for the first page.
+   * @param limit The maximum number of records on the page.
+   * @return The page, with a cursor when more records may follow.
+   */
+  @Transactional(readOnly = true)
+  public QueueDetailsPage findPage(Integer clinicId, LocalDate date, QueueCursor after, int limit) {
+    final StringBuilder sql = new StringBuilder(SELECT).append("WHERE 1 = 1 ");
+    final List<Object> args = new ArrayList<>();
+    if (clinicId != null) {
+      sql.append("AND q.clinic_id = ? ");
+      args.add(clinicId);
+    }
+    if (date != null) {
+      sql.append("AND q.slot_date = ? ");
+      args.add(Date.valueOf(date));
+    }
+    if (after != null) {
+      sql.append(
+          "AND (q.slot_date > ? OR (q.slot_date = ? AND (q.slot_time > ? "
+              + "OR (q.slot_time = ? AND q.queue_management_id > ?)))) ");
+      args.add(Date.valueOf(after.date()));
+      args.add(Date.valueOf(after.date()));
+      args.add(Time.valueOf(after.time()));
+      args.add(Time.valueOf(after.time()));
+      args.add(after.id());
+    }
+    sql.append("ORDER BY q.slot_date, q.slot_time, q.queue_management_id LIMIT ?");
+    // One extra row tells whether another page follows
+    args.add(limit + 1);
+
+    final List<QueueCursor> cursors = new ArrayList<>(limit + 1);
+    final List<QueueManagementDTO> items =
+        jdbcTemplate.query(
+            sql.toString(),
+            (resultSet, rowNum) -> {
+              cursors.add(
+                  new QueueCursor(
+                      resultSet.getDate("slotDate").toLocalDate(),
+                      resultSet.getTime("slotTime").toLocalTime(),
+                      resultSet.getInt("id")));
+              return toDto(resultSet);
+            },
+            args.toArray());
+    if (items.size() <= limit) {
+      return new QueueDetailsPage(items, null);
+    }
+    return new QueueDetailsPage(
+        new ArrayList<>(items.subList(0, limit)), cursors.get(limit - 1).encode());
+  }
+
+  private static QueueManagementDTO toDto(ResultSet resultSet) throws SQLException {
+    return new QueueManagementDTO(
+        resultSet.getInt("id"),
+        resultSet.getString("avatarUrl"),
+        resultSet.getString("patientName"),
+        resultSet.getString("patientPhoneNumber"),
+        resultSet.getString("doctorName"),
+        resultSet.getObject("queueNo", Integer.class),
+        resultSet.getString("patientReached"),
+        resultSet.getString("time"),
+        resultSet.getString("shiftTime"));
+  }
+}
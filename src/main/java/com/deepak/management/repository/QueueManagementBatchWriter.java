@@ -0,0 +1,112 @@
+package com.deepak.management.repository;
+
+import com.deepak.management.model.queuemanagement.QueueAction;
+import com.deepak.management.model.queuemanagement.QueueBatchOperation;
+import com.deepak.management.model.queuemanagement.QueueBatchResult;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Applies many queue status changes with as few statements as possible.
+ *
+ * <p>All actions on one entry are merged into a single UPDATE that sets every affected column, e.g.
+ * a delete sets {@code deleted} and {@code cancelled} together. Entries that need the same set of
+ * columns share one prepared statement, sent as a JDBC batch, and every batch runs in one
+ * transaction. Each statement bumps the row's {@code version}; the flags it sets do not depend on
+ * what was read before, so it needs no compare-and-set of its own.
+ */
+@Repository
+@Slf4j
+public class QueueManagementBatchWriter {
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public QueueManagementBatchWriter(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Applies the operations in one transaction.
+   *
+   * @param operations Operations with a non-null id and action.
+   * @return One result per operation, in the same order.
+   */
+  @Transactional
+  public List<QueueBatchResult> apply(List<QueueBatchOperation> operations) {
+    final Map<Integer, Set<QueueAction>> actionsById = new LinkedHashMap<>();
+    for (QueueBatchOperation operation : operations) {
+      actionsById
+          .computeIfAbsent(operation.getId(), id -> EnumSet.noneOf(QueueAction.class))
+          .add(operation.getAction());
+    }
+    final Map<Set<QueueAction>, List<Integer>> idsByActions =
+        actionsById.entrySet().stream()
+            .collect(
+                Collectors.groupingBy(
+                    Map.Entry::getValue,
+                    LinkedHashMap::new,
+                    Collectors.mapping(Map.Entry::getKey, Collectors.toList())));
+
+    final Map<Integer, Boolean> found = new LinkedHashMap<>();
+    for (Map.Entry<Set<QueueAction>, List<Integer>> group : idsByActions.entrySet()) {
+      final List<Integer> ids = group.getValue();
+      final int[][] counts =
+          jdbcTemplate.batchUpdate(
+              updateFor(group.getKey()),
+              ids,
+              ids.size(),
+              (statement, id) -> statement.setInt(1, id));
+      int index = 0;
+      for (int[] chunk : counts) {
+        for (int count : chunk) {
+          found.put(ids.get(index++), count != 0);
+        }
+      }
+    }
+    log.info(
+        "Applied {} queue operations on {} entries in {} batches",
+        operations.size(),
+        actionsById.size(),
+        idsByActions.size());
+
+    final List<QueueBatchResult> results = new ArrayList<>(operations.size());
+    for (QueueBatchOperation operation : operations) {
+      results.add(
+          new QueueBatchResult(
+              operation.getId(),
+              operation.getAction(),
+              Boolean.TRUE.equals(found.get(operation.getId()))
+                  ? QueueBatchResult.UPDATED
+                  : QueueBatchResult.NOT_FOUND));
+    }
+    return results;
+  }
+
+  private static String updateFor(Set<QueueAction> actions) {
+    final List<String> columns = new ArrayList<>();
+    if (actions.contains(QueueAction.REACHED)) {
+      columns.add("patient_reached = 1");
+    }
+    if (actions.contains(QueueAction.VISITED)) {
+      columns.add("visit_status = 'Done'");
+    }
+    if (actions.contains(QueueAction.DELETED)) {
+      columns.add("deleted = 1");
+    }
+    if (actions.contains(QueueAction.CANCELLED) || actions.contains(QueueAction.DELETED)) {
+      columns.add("cancelled = 1");
+    }
+    return "UPDATE queue_management SET "
+        + String.join(", ", columns)
+        + ", version = version + 1 WHERE queue_management_id = ?";
+  }
+}
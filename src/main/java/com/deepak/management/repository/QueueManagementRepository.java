@@ -4,164 +4,271 @@ import com.deepak.management.model.queuemanagement.QueueManagementDTO;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.Query;
 import jakarta.transaction.Transactional;
+import java.time.LocalDate;
 import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Repository;
 
+/**
+ * Reads and updates queue entries.
+ *
+ * <p>Reads go to {@code queue_read_model}, one denormalized row per entry that the V6 triggers keep
+ * in step with {@code queue_management}, {@code patients}, {@code slot_information} and {@code
+ * doctor_information} in the writing transaction. Updates go to {@code queue_management}.
+ *
+ * <p>Every update bumps the {@code version} columns of the rows it touches. Moves between slots are
+ * compare-and-set on those versions, so two skips cannot take the same slot and {@link
+ * OptimisticRetry} retries the one that lost. Status flags are set outright in one statement, since
+ * setting a flag does not depend on what was read before.
+ */
 @Repository
 @Slf4j
 public class QueueManagementRepository {
 
   private final EntityManager entityManager;
+  private final OptimisticRetry optimisticRetry;
 
-  public QueueManagementRepository(EntityManager entityManager) {
+  public QueueManagementRepository(EntityManager entityManager, OptimisticRetry optimisticRetry) {
     this.entityManager = entityManager;
+    this.optimisticRetry = optimisticRetry;
   }
 
-  public List<QueueManagementDTO> getQueueManagementData() {
+  public List<QueueManagementDTO> getQueueManagementData(String clinicId, String doctorId) {
     String sql =
         "SELECT "
             + "q.queue_management_id as id, "
-            + "CONCAT('/assets/images/avatars/avatar_', FLOOR(RAND() * 24) + 1, '.jpg') AS avatarUrl,"
-            + "JSON_UNQUOTE(JSON_EXTRACT(p.personalDetails, '$.name')) AS patientName, "
-            + "p.phone_number AS patientPhoneNumber, "
-            + "d.doctor_name AS doctorName, "
-            + "q.current_queue_no AS queueNo, "
+            + "q.avatar_url AS avatarUrl, "
+            + "q.patient_name AS patientName, "
+            + "q.patient_phone_number AS patientPhoneNumber, "
+            + "q.doctor_name AS doctorName, "
+            + "q.queue_no AS queueNo, "
             + "CASE WHEN q.patient_reached = 0 THEN 'false' ELSE 'true' END AS patientReached,"
-            + "TIME_FORMAT(s.slot_time, '%H:%i:%s') AS time,"
-            + "s.shift_time AS shiftTime "
-            + "FROM queue_management q "
-            + "JOIN appointments a ON q.appointment_id = a.appointment_id "
-            + "JOIN patients p ON a.patient_id = p.id "
-            + "JOIN doctor_information d ON q.doctor_id = d.doctor_id AND q.clinic_id = d.clinic_id "
-            + "JOIN slot_information s ON q.slot_id = s.slot_id "
-            + "ORDER BY s.slot_time,s.shift_time ";
+            + "TIME_FORMAT(q.slot_time, '%H:%i:%s') AS time,"
+            + "q.shift_time AS shiftTime "
+            + "FROM queue_read_model q "
+            + "WHERE q.clinic_id = :clinicId AND q.doctor_id = :doctorId "
+            + "AND q.deleted = 0 "
+            + "AND q.cancelled = 0 "
+            + "ORDER BY q.slot_time, q.shift_time ";
 
     Query query = entityManager.createNativeQuery(sql, QueueManagementDTO.class);
+    query.setParameter("clinicId", clinicId);
+    query.setParameter("doctorId", doctorId);
+
     return query.getResultList();
   }
 
-  public List<QueueManagementDTO> getQueueManagementData(String clinicId, String doctorId) {
+  /**
+   * Loads the active queue entries of a doctor for one day, for the live queue.
+   *
+   * @return Rows of id, avatarUrl, patientName, patientPhoneNumber, doctorName, queueNo,
+   *     patientReached, time, shiftTime, slot_id and visit_status, ordered like {@link
+   *     #getQueueManagementData(String, String)}.
+   */
+  public List<Object[]> getLiveQueueRows(String clinicId, String doctorId, LocalDate slotDate) {
     String sql =
         "SELECT "
-            + "q.queue_management_id as id, "
-            + "CONCAT('/assets/images/avatars/avatar_', FLOOR(RAND() * 24) + 1, '.jpg') AS avatarUrl,"
-            + "JSON_UNQUOTE(JSON_EXTRACT(p.personalDetails, '$.name')) AS patientName, "
-            + "p.phone_number AS patientPhoneNumber, "
-            + "d.doctor_name AS doctorName, "
-            + "q.current_queue_no AS queueNo, "
-            + "CASE WHEN q.patient_reached = 0 THEN 'false' ELSE 'true' END AS patientReached,"
-            + "TIME_FORMAT(s.slot_time, '%H:%i:%s') AS time,"
-            + "s.shift_time AS shiftTime "
-            + "FROM queue_management q "
-            + "JOIN appointments a ON q.appointment_id = a.appointment_id "
-            + "JOIN patients p ON a.patient_id = p.id "
-            + "JOIN doctor_information d ON q.doctor_id = d.doctor_id AND q.clinic_id = d.clinic_id "
-            + "JOIN slot_information s ON q.slot_id = s.slot_id "
+            + "q.queue_management_id, "
+            + "q.avatar_url, "
+            + "q.patient_name, "
+            + "q.patient_phone_number, "
+            + "q.doctor_name, "
+            + "q.queue_no, "
+            + "CASE WHEN q.patient_reached = 0 THEN 'false' ELSE 'true' END,"
+            + "TIME_FORMAT(q.slot_time, '%H:%i:%s'),"
+            + "q.shift_time, "
+            + "q.slot_id, "
+            + "q.visit_status "
+            + "FROM queue_read_model q "
             + "WHERE q.clinic_id = :clinicId AND q.doctor_id = :doctorId "
+            + "AND q.slot_date = :slotDate "
             + "AND q.deleted = 0 "
             + "AND q.cancelled = 0 "
-            + "ORDER BY s.slot_time, s.shift_time ";
+            + "ORDER BY q.slot_time, q.shift_time ";
 
-    Query query = entityManager.createNativeQuery(sql, QueueManagementDTO.class);
+    Query query = entityManager.createNativeQuery(sql);
     query.setParameter("clinicId", clinicId);
     query.setParameter("doctorId", doctorId);
+    query.setParameter("slotDate", slotDate);
+    return query.getResultList();
+  }
 
+  /**
+   * Finds the queue an active entry belongs to, for loading it into the live queue.
+   *
+   * @return Rows of clinic_id, doctor_id and slot_date; empty when the entry is unknown, deleted or
+   *     cancelled.
+   */
+  public List<Object[]> getQueueKeyRows(Integer id) {
+    String sql =
+        "SELECT q.clinic_id, q.doctor_id, q.slot_date "
+            + "FROM queue_read_model q "
+            + "WHERE q.queue_management_id = :id AND q.deleted = 0 AND q.cancelled = 0";
+    Query query = entityManager.createNativeQuery(sql);
+    query.setParameter("id", id);
     return query.getResultList();
   }
 
-  // Rest of the file remains the same...
+  /**
+   * Loads the slots of a doctor for one day, for skipping patients in the live queue.
+   *
+   * @return Rows of slot_id, time, shift_time and is_available, ordered by slot_id.
+   */
+  public List<Object[]> getSlotRows(String clinicId, String doctorId, LocalDate slotDate) {
+    String sql =
+        "SELECT slot_id, TIME_FORMAT(slot_time, '%H:%i:%s'), shift_time, is_available "
+            + "FROM slot_information "
+            + "WHERE clinic_id = :clinicId AND doctor_id = :doctorId AND slot_date = :slotDate "
+            + "ORDER BY slot_id";
+    Query query = entityManager.createNativeQuery(sql);
+    query.setParameter("clinicId", clinicId);
+    query.setParameter("doctorId", doctorId);
+    query.setParameter("slotDate", slotDate);
+    return query.getResultList();
+  }
 
   @Transactional
   public void updatePatientReached(Integer id) {
-    String sql = "UPDATE queue_management SET patient_reached = 1 WHERE queue_management_id = :id";
-    Query query = entityManager.createNativeQuery(sql);
-    query.setParameter("id", id);
-    query.executeUpdate();
+    updateStatus(id, "patient_reached = 1");
   }
 
   @Transactional
   public void updatePatientCancelled(Integer id) {
-    String sql = "UPDATE queue_management SET cancelled = 1 WHERE queue_management_id = :id";
-    Query query = entityManager.createNativeQuery(sql);
-    query.setParameter("id", id);
-    query.executeUpdate();
+    updateStatus(id, "cancelled = 1");
   }
 
   @Transactional
   public void updatePatientVisited(Integer id) {
-    String sql =
-        "UPDATE queue_management SET visit_status = 'Done' WHERE queue_management_id = :id";
-    Query query = entityManager.createNativeQuery(sql);
-    query.setParameter("id", id);
-    query.executeUpdate();
+    updateStatus(id, "visit_status = 'Done'");
   }
 
   @Transactional
   public void updatePatientDelete(Integer id) {
-    String sql1 = "UPDATE queue_management SET deleted = 1 WHERE queue_management_id = :id";
-    Query query1 = entityManager.createNativeQuery(sql1);
-    query1.setParameter("id", id);
-    query1.executeUpdate();
-
-    String sql2 = "UPDATE queue_management SET cancelled = 1 WHERE queue_management_id = :id";
-    Query query2 = entityManager.createNativeQuery(sql2);
-    query2.setParameter("id", id);
-    query2.executeUpdate();
+    updateStatus(id, "deleted = 1, cancelled = 1");
   }
 
-  @Transactional
+  /**
+   * Moves a queue entry to the next free slot of the same day, by slot id.
+   *
+   * <p>Nothing is locked while the next slot is chosen; the move only applies when neither the
+   * queue row nor the chosen slot changed in between, and is retried with a fresh read otherwise.
+   */
   public void SkipPatient(Integer id) {
-    // Step 1: Retrieve the current slot ID for the given queue management ID
+    optimisticRetry.run("skip", () -> skipOnce(id));
+  }
+
+  private boolean skipOnce(Integer id) {
+    // Step 1: Read the queue row, its version and its current slot
     String sql1 =
-        "SELECT slot_id, clinic_id, doctor_id FROM queue_management WHERE queue_management_id = :id";
+        "SELECT q.slot_id, q.clinic_id, q.doctor_id, s.slot_date, q.version "
+            + "FROM queue_management q "
+            + "JOIN slot_information s ON s.slot_id = q.slot_id "
+            + "WHERE q.queue_management_id = :id";
     Query query1 = entityManager.createNativeQuery(sql1);
     query1.setParameter("id", id);
     List<Object[]> result = query1.getResultList();
 
-    if (!result.isEmpty()) {
-      Object[] row = result.getFirst();
-      Integer currentSlotId = (Integer) row[0];
-      Integer clinicId = (Integer) row[1];
-      String doctorId = (String) row[2];
-
-      // Step 2: Find the next available slot from the slot_information table
-      String sql2 =
-          "SELECT slot_id FROM slot_information WHERE is_available = 1 AND slot_id > :currentSlotId AND clinic_id = :clinicId AND doctor_id = :doctorId ORDER BY slot_id ASC LIMIT 1";
-      Query query2 = entityManager.createNativeQuery(sql2);
-      query2.setParameter("currentSlotId", currentSlotId);
-      query2.setParameter("clinicId", clinicId);
-      query2.setParameter("doctorId", doctorId);
-      List<Object> nextSlotIds = query2.getResultList();
-
-      if (!nextSlotIds.isEmpty()) {
-        Integer nextSlotId = (Integer) nextSlotIds.getFirst();
-
-        // Step 3: Update the queue_management table with the new slot ID
-        String sql3 =
-            "UPDATE queue_management SET slot_id = :nextSlotId WHERE queue_management_id = :id";
-        Query query3 = entityManager.createNativeQuery(sql3);
-        query3.setParameter("nextSlotId", nextSlotId);
-        query3.setParameter("id", id);
-        query3.executeUpdate();
-
-        // Step 4: Mark the new slot as unavailable and the previous slot as available
-        String sql4 = "UPDATE slot_information SET is_available = 0 WHERE slot_id = :nextSlotId";
-        Query query4 = entityManager.createNativeQuery(sql4);
-        query4.setParameter("nextSlotId", nextSlotId);
-        query4.executeUpdate();
-
-        String sql5 = "UPDATE slot_information SET is_available = 1 WHERE slot_id = :currentSlotId";
-        Query query5 = entityManager.createNativeQuery(sql5);
-        query5.setParameter("currentSlotId", currentSlotId);
-        query5.executeUpdate();
-
-        log.info("Patient skipped to slot ID: {}", nextSlotId);
-      } else {
-        log.warn("No available slot found for skipping.");
-      }
-    } else {
+    if (result.isEmpty()) {
       log.info("No slot ID found for queue_management_id: {}", id);
+      return true;
+    }
+    Object[] row = result.getFirst();
+    Number currentSlotId = (Number) row[0];
+    Number clinicId = (Number) row[1];
+    String doctorId = (String) row[2];
+    Number version = (Number) row[4];
+
+    // Step 2: Find the next available slot of the same day
+    String sql2 =
+        "SELECT slot_id, version FROM slot_information "
+            + "WHERE doctor_id = :doctorId AND clinic_id = :clinicId AND slot_date = :slotDate "
+            + "AND slot_id > :currentSlotId AND is_available = 1 "
+            + "ORDER BY slot_id LIMIT 1";
+    Query query2 = entityManager.createNativeQuery(sql2);
+    query2.setParameter("currentSlotId", currentSlotId);
+    query2.setParameter("clinicId", clinicId);
+    query2.setParameter("doctorId", doctorId);
+    query2.setParameter("slotDate", row[3]);
+    List<Object[]> nextSlots = query2.getResultList();
+
+    if (nextSlots.isEmpty()) {
+      log.warn("No available slot found for skipping.");
+      return true;
     }
+    Number nextSlotId = (Number) nextSlots.getFirst()[0];
+    Number nextSlotVersion = (Number) nextSlots.getFirst()[1];
+
+    // Step 3: Move the patient and swap the availability of the two slots if nothing changed
+    String sql3 =
+        "UPDATE queue_management q "
+            + "JOIN slot_information current_slot ON current_slot.slot_id = q.slot_id "
+            + "JOIN slot_information next_slot ON next_slot.slot_id = :nextSlotId "
+            + "AND next_slot.version = :nextSlotVersion AND next_slot.is_available = 1 "
+            + "SET q.slot_id = :nextSlotId, "
+            + "q.version = q.version + 1, "
+            + "current_slot.is_available = 1, "
+            + "current_slot.version = current_slot.version + 1, "
+            + "next_slot.is_available = 0, "
+            + "next_slot.version = next_slot.version + 1 "
+            + "WHERE q.queue_management_id = :id AND q.version = :version";
+    Query query3 = entityManager.createNativeQuery(sql3);
+    query3.setParameter("nextSlotId", nextSlotId);
+    query3.setParameter("nextSlotVersion", nextSlotVersion);
+    query3.setParameter("id", id);
+    query3.setParameter("version", version);
+    if (query3.executeUpdate() == 0) {
+      return false;
+    }
+    log.info("Patient skipped to slot ID: {}", nextSlotId);
+    return true;
+  }
+
+  /**
+   * Moves a queue entry to another slot, marking the new slot unavailable and the previous slot
+   * available, in one statement.
+   *
+   * @return false, with nothing changed and a conflict counted, when the entry is no longer in
+   *     {@code currentSlotId} or the new slot is no longer available.
+   */
+  @Transactional
+  public boolean moveToSlot(Integer id, Number currentSlotId, Number nextSlotId) {
+    String sql =
+        "UPDATE queue_management q "
+            + "JOIN slot_information current_slot ON current_slot.slot_id = q.slot_id "
+            + "JOIN slot_information next_slot "
+            + "ON next_slot.slot_id = :nextSlotId AND next_slot.is_available = 1 "
+            + "SET q.slot_id = :nextSlotId, "
+            + "q.version = q.version + 1, "
+            + "current_slot.is_available = 1, "
+            + "current_slot.version = current_slot.version + 1, "
+            + "next_slot.is_available = 0, "
+            + "next_slot.version = next_slot.version + 1 "
+            + "WHERE q.queue_management_id = :id AND q.slot_id = :currentSlotId";
+    Query query = entityManager.createNativeQuery(sql);
+    query.setParameter("nextSlotId", nextSlotId);
+    query.setParameter("currentSlotId", currentSlotId);
+    query.setParameter("id", id);
+    if (query.executeUpdate() > 0) {
+      return true;
+    }
+    optimisticRetry.conflict("move");
+    return false;
+  }
+
+  /**
+   * Sets status columns of a queue entry and bumps its version, so compare-and-set writers that
+   * read the entry before notice the change. The flags are set regardless of what was read before,
+   * like {@link QueueManagementBatchWriter} does, so the write needs no compare-and-set of its own.
+   * An id without a row changes nothing.
+   */
+  private void updateStatus(Integer id, String assignments) {
+    String sql =
+        "UPDATE queue_management SET "
+            + assignments
+            + ", version = version + 1 "
+            + "WHERE queue_management_id = :id";
+    Query query = entityManager.createNativeQuery(sql);
+    query.setParameter("id", id);
+    query.executeUpdate();
   }
 }
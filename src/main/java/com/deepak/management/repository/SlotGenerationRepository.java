@@ -2,9 +2,14 @@ package com.deepak.management.repository;
 
 import com.deepak.queue.model.SlotGeneration;
 import java.sql.Date;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface SlotGenerationRepository extends JpaRepository<SlotGeneration, Integer> {
   Optional<SlotGeneration> findByDoctorIdAndClinicIdAndSlotDate(
@@ -12,4 +17,78 @@ public interface SlotGenerationRepository extends JpaRepository<SlotGeneration,
 
   List<SlotGeneration> findBySlotDateAndDoctorIdAndClinicId(
       Date slotDate, String doctorId, Integer clinicId);
+
+  List<SlotGeneration> findByDoctorIdAndClinicIdAndSlotDateBetween(
+      String doctorId, Integer clinicId, Date startDate, Date endDate);
+
+  List<SlotGeneration> findByDoctorIdAndClinicIdAndSlotDateGreaterThanEqual(
+      String doctorId, Integer clinicId, Date slotDate);
+
+  /** Inserts a CLAIMED marker unless the doctor-day already has one. Returns 1 when claimed. */
+  @Modifying
+  @Transactional
+  @Query(
+      value =
+          "INSERT IGNORE INTO slot_generation_information "
+              + "(doctor_id, clinic_id, slot_date, status, slots, state, claimed_at, claim_token) "
+              + "VALUES (:doctorId, :clinicId, :slotDate, false, 0, 'CLAIMED', :now, :token)",
+      nativeQuery = true)
+  int claim(
+      @Param("doctorId") String doctorId,
+      @Param("clinicId") Integer clinicId,
+      @Param("slotDate") Date slotDate,
+      @Param("now") LocalDateTime now,
+      @Param("token") String token);
+
+  /**
+   * Takes over a FAILED claim, or a CLAIMED one older than {@code staleBefore} whose generator is
+   * assumed dead. Returns 1 when claimed.
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      value =
+          "UPDATE slot_generation_information "
+              + "SET state = 'CLAIMED', claimed_at = :now, claim_token = :token "
+              + "WHERE doctor_id = :doctorId AND clinic_id = :clinicId AND slot_date = :slotDate "
+              + "AND (state = 'FAILED' OR (state = 'CLAIMED' AND claimed_at < :staleBefore))",
+      nativeQuery = true)
+  int reclaim(
+      @Param("doctorId") String doctorId,
+      @Param("clinicId") Integer clinicId,
+      @Param("slotDate") Date slotDate,
+      @Param("now") LocalDateTime now,
+      @Param("staleBefore") LocalDateTime staleBefore,
+      @Param("token") String token);
+
+  /** Marks a day DONE while the given token still holds its claim. Returns 1 when marked. */
+  @Modifying
+  @Transactional
+  @Query(
+      value =
+          "UPDATE slot_generation_information SET state = 'DONE', status = true, slots = :slots "
+              + "WHERE doctor_id = :doctorId AND clinic_id = :clinicId AND slot_date = :slotDate "
+              + "AND state = 'CLAIMED' AND claim_token = :token",
+      nativeQuery = true)
+  int markDone(
+      @Param("doctorId") String doctorId,
+      @Param("clinicId") Integer clinicId,
+      @Param("slotDate") Date slotDate,
+      @Param("slots") int slots,
+      @Param("token") String token);
+
+  /** Marks a day FAILED while the given token still holds its claim. Returns 1 when marked. */
+  @Modifying
+  @Transactional
+  @Query(
+      value =
+          "UPDATE slot_generation_information SET state = 'FAILED', status = false "
+              + "WHERE doctor_id = :doctorId AND clinic_id = :clinicId AND slot_date = :slotDate "
+              + "AND state = 'CLAIMED' AND claim_token = :token",
+      nativeQuery = true)
+  int markFailed(
+      @Param("doctorId") String doctorId,
+      @Param("clinicId") Integer clinicId,
+      @Param("slotDate") Date slotDate,
+      @Param("token") String token);
 }
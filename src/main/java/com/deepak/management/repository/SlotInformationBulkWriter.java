@@ -0,0 +1,174 @@
+package com.deepak.management.repository;
+
+import com.deepak.queue.model.QueueTimeSlot;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Time;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Writes generated slots to {@code slot_information} with multi-row INSERT statements.
+ *
+ * <p>{@link QueueTimeSlot} uses an IDENTITY key, which makes Hibernate insert every entity with its
+ * own statement even inside {@code saveAll}. This writer sends up to {@code
+ * slot.generation.insert-rows} rows per statement and reads the generated keys back into the slots
+ * in the same order, so callers see the same {@code slotId}s as after a {@code saveAll}.
+ */
+@Repository
+@Slf4j
+public class SlotInformationBulkWriter {
+
+  private static final String INSERT_PREFIX =
+      "INSERT INTO slot_information "
+          + "(slot_no, shift_time, slot_time, clinic_id, doctor_id, slot_date, is_available, "
+          + "version) VALUES ";
+  // The version is written explicitly, so a column added without a default is not left null
+  private static final String ROW_PLACEHOLDER = "(?, ?, ?, ?, ?, ?, ?, 0)";
+  private static final String UPDATE_SLOT =
+      "UPDATE slot_information SET slot_time = ?, is_available = ?, slot_no = ?, "
+          + "version = version + 1 WHERE slot_id = ? AND version = ?";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final OptimisticRetry optimisticRetry;
+  private final int rowsPerStatement;
+
+  public SlotInformationBulkWriter(
+      JdbcTemplate jdbcTemplate,
+      OptimisticRetry optimisticRetry,
+      @Value("${slot.generation.insert-rows:500}") int rowsPerStatement) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.optimisticRetry = optimisticRetry;
+    this.rowsPerStatement = Math.max(1, rowsPerStatement);
+  }
+
+  /**
+   * Inserts the slots in list order and assigns their generated ids.
+   *
+   * <p>Runs in the caller's transaction when there is one.
+   *
+   * @param slots The new slots; their {@code slotId} must be null.
+   * @return The number of rows inserted.
+   */
+  public int insertAll(List<QueueTimeSlot> slots) {
+    if (slots == null || slots.isEmpty()) {
+      return 0;
+    }
+    final long startTime = System.currentTimeMillis();
+    int inserted = 0;
+    for (int from = 0; from < slots.size(); from += rowsPerStatement) {
+      final List<QueueTimeSlot> chunk =
+          slots.subList(from, Math.min(from + rowsPerStatement, slots.size()));
+      final Integer rows =
+          jdbcTemplate.execute(
+              (ConnectionCallback<Integer>) connection -> insertChunk(connection, chunk));
+      inserted += rows == null ? 0 : rows;
+    }
+    log.info(
+        "Inserted {} slots in {} statements in {} ms",
+        inserted,
+        (slots.size() + rowsPerStatement - 1) / rowsPerStatement,
+        System.currentTimeMillis() - startTime);
+    return inserted;
+  }
+
+  /**
+   * Writes the time, availability and slot number of existing slots as one JDBC batch of a single
+   * prepared statement, each a compare-and-set on the version the slot was read with.
+   *
+   * <p>A slot whose version changed since it was read, because a patient was moved into or out of
+   * it meanwhile, is counted as a conflict and fails the whole call: the caller's decision for it
+   * was based on a booking state that no longer holds, so its transaction must roll back rather
+   * than commit with that slot left as it was.
+   *
+   * @param slots Slots that already have a {@code slotId} and the {@code version} they were read
+   *     with.
+   * @return The number of slots updated, which is all of them.
+   * @throws OptimisticLockingFailureException When any slot changed since it was read.
+   */
+  public int updateAll(List<QueueTimeSlot> slots) {
+    if (slots == null || slots.isEmpty()) {
+      return 0;
+    }
+    final int[][] counts =
+        jdbcTemplate.batchUpdate(
+            UPDATE_SLOT,
+            slots,
+            slots.size(),
+            (statement, slot) -> {
+              statement.setTime(1, Time.valueOf(slot.getSlotTime()));
+              statement.setBoolean(2, slot.isAvailable());
+              statement.setObject(3, slot.getSlotNo());
+              statement.setLong(4, slot.getSlotId());
+              statement.setLong(5, slot.getVersion() == null ? 0L : slot.getVersion());
+            });
+    final List<Long> conflicts = new ArrayList<>();
+    int index = 0;
+    for (int[] chunk : counts) {
+      for (int count : chunk) {
+        final QueueTimeSlot slot = slots.get(index++);
+        if (count == 0) {
+          optimisticRetry.conflict("slot-update");
+          conflicts.add(slot.getSlotId());
+        } else {
+          slot.setVersion(slot.getVersion() == null ? 1L : slot.getVersion() + 1);
+        }
+      }
+    }
+    if (!conflicts.isEmpty()) {
+      throw new OptimisticLockingFailureException(
+          "Slots " + conflicts + " changed concurrently; try again");
+    }
+    log.info("Updated {} slots in one batch", slots.size());
+    return slots.size();
+  }
+
+  private static int insertChunk(Connection connection, List<QueueTimeSlot> chunk)
+      throws SQLException {
+    final StringBuilder sql =
+        new StringBuilder(INSERT_PREFIX.length() + chunk.size() * (ROW_PLACEHOLDER.length() + 2));
+    sql.append(INSERT_PREFIX);
+    for (int i = 0; i < chunk.size(); i++) {
+      if (i > 0) {
+        sql.append(", ");
+      }
+      sql.append(ROW_PLACEHOLDER);
+    }
+
+    try (PreparedStatement statement =
+        connection.prepareStatement(sql.toString(), Statement.RETURN_GENERATED_KEYS)) {
+      int index = 1;
+      for (QueueTimeSlot slot : chunk) {
+        statement.setObject(index++, slot.getSlotNo());
+        statement.setString(index++, slot.getShiftTime());
+        statement.setTime(
+            index++, slot.getSlotTime() == null ? null : Time.valueOf(slot.getSlotTime()));
+        statement.setObject(index++, slot.getClinicId());
+        statement.setString(index++, slot.getDoctorId());
+        statement.setObject(index++, slot.getSlotDate());
+        statement.setBoolean(index++, slot.isAvailable());
+      }
+      final int rows = statement.executeUpdate();
+
+      // MySQL returns the keys of a multi-row insert in row order
+      try (ResultSet keys = statement.getGeneratedKeys()) {
+        int row = 0;
+        while (keys.next() && row < chunk.size()) {
+          final QueueTimeSlot slot = chunk.get(row++);
+          slot.setSlotId(keys.getLong(1));
+          slot.setVersion(0L);
+        }
+      }
+      return rows;
+    }
+  }
+}
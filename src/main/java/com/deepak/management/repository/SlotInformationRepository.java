@@ -1,10 +1,51 @@
 package com.deepak.management.repository;
 
 import com.deepak.queue.model.QueueTimeSlot;
+import java.time.LocalDate;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface SlotInformationRepository extends JpaRepository<QueueTimeSlot, Long> {
 
   List<QueueTimeSlot> findByDoctorIdAndClinicId(String doctorId, Integer clinicId);
+
+  /**
+   * Slots of a doctor-day through the {@code (doctor_id, clinic_id, slot_date, slot_time)} index,
+   * in no particular order; a night shift's slots after midnight have the smallest times of the
+   * day.
+   */
+  List<QueueTimeSlot> findByDoctorIdAndClinicIdAndSlotDate(
+      String doctorId, Integer clinicId, LocalDate slotDate);
+
+  List<QueueTimeSlot> findByDoctorIdAndClinicIdAndSlotDateBetweenOrderBySlotDateAscSlotTimeAsc(
+      String doctorId, Integer clinicId, LocalDate startDate, LocalDate endDate);
+
+  /** Ids of the doctor-day's slots that hold an active (not cancelled or deleted) queue entry. */
+  @Query(
+      value =
+          "SELECT DISTINCT s.slot_id FROM slot_information s "
+              + "JOIN queue_management q ON q.slot_id = s.slot_id "
+              + "WHERE s.doctor_id = :doctorId AND s.clinic_id = :clinicId "
+              + "AND s.slot_date = :slotDate AND q.deleted = 0 AND q.cancelled = 0",
+      nativeQuery = true)
+  List<Long> findBookedSlotIds(
+      @Param("doctorId") String doctorId,
+      @Param("clinicId") Integer clinicId,
+      @Param("slotDate") LocalDate slotDate);
+
+  @Query(
+      value =
+          "SELECT DISTINCT s.slot_id FROM slot_information s "
+              + "JOIN queue_management q ON q.slot_id = s.slot_id "
+              + "WHERE s.doctor_id = :doctorId AND s.clinic_id = :clinicId "
+              + "AND s.slot_date BETWEEN :startDate AND :endDate "
+              + "AND q.deleted = 0 AND q.cancelled = 0",
+      nativeQuery = true)
+  List<Long> findBookedSlotIdsBetween(
+      @Param("doctorId") String doctorId,
+      @Param("clinicId") Integer clinicId,
+      @Param("startDate") LocalDate startDate,
+      @Param("endDate") LocalDate endDate);
 }
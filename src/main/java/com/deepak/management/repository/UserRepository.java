@@ -3,9 +3,14 @@ package com.deepak.management.repository;
 import com.deepak.management.model.auth.User;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface UserRepository extends JpaRepository<User, Integer> {
   Optional<User> findByUsername(String username);
 
   Optional<User> findByEmail(String email);
+
+  @Query("SELECT u.securityStamp FROM User u WHERE u.username = :username")
+  Optional<Long> findSecurityStampByUsername(@Param("username") String username);
 }
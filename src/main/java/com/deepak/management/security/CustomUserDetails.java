@@ -11,6 +11,8 @@ import org.springframework.security.core.userdetails.UserDetails;
 
 @Getter
 public class CustomUserDetails implements UserDetails {
+  private static final String ROLE_PREFIX = "ROLE_";
+
   private final User user;
   private final List<Integer> clinicIds;
 
@@ -27,9 +29,28 @@ public class CustomUserDetails implements UserDetails {
     this.clinicIds = Objects.requireNonNullElse(clinicIds, List.of());
   }
 
+  /**
+   * Builds the principal of a request from its access token alone. The user carries no password
+   * hash, and is active and unlocked, as a lock or delete bumps the security stamp.
+   */
+  public static CustomUserDetails fromToken(VerifiedToken token) {
+    final String role = token.role();
+    return new CustomUserDetails(
+        User.builder()
+            .id(token.userId())
+            .username(token.subject())
+            .role(
+                role != null && role.startsWith(ROLE_PREFIX)
+                    ? role.substring(ROLE_PREFIX.length())
+                    : role)
+            .clinicIds(token.clinicIds())
+            .isActive(true)
+            .build());
+  }
+
   @Override
   public Collection<? extends GrantedAuthority> getAuthorities() {
-    return List.of(new SimpleGrantedAuthority("ROLE_" + user.getRole()));
+    return List.of(new SimpleGrantedAuthority(ROLE_PREFIX + user.getRole()));
   }
 
   @Override
@@ -6,14 +6,16 @@ import java.time.LocalDateTime;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.LockedException;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 @Service
 @RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
   private final UserRepository userRepository;
+  private final SecurityStampCache securityStampCache;
 
   @Override
   public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
@@ -26,7 +28,10 @@ public class CustomUserDetailsService implements UserDetailsService {
       LocalDateTime now = LocalDateTime.now();
       if (user.getLockedUntil() == null || user.getLockedUntil().isBefore(now)) {
         user.setLockedUntil(now.plusMinutes(10));
+        // Locking also ends the sessions already open
+        user.setSecurityStamp(user.getSecurityStamp() + 1);
         userRepository.save(user);
+        securityStampCache.refresh(username);
       }
       throw new LockedException(
           "Account locked due to too many failed login attempts. Try again after: "
@@ -34,4 +39,21 @@ public class CustomUserDetailsService implements UserDetailsService {
     }
     return new CustomUserDetails(user);
   }
+
+  /**
+   * Stores a password hashed again at login because its hash used a lower cost than configured. The
+   * password itself is unchanged, so the security stamp is kept.
+   */
+  @Override
+  public UserDetails updatePassword(UserDetails userDetails, String newPasswordHash) {
+    User user =
+        userRepository
+            .findByUsername(userDetails.getUsername())
+            .orElseThrow(
+                () ->
+                    new UsernameNotFoundException(
+                        "User not found with username: " + userDetails.getUsername()));
+    user.setPasswordHash(newPasswordHash);
+    return new CustomUserDetails(userRepository.save(user));
+  }
 }
@@ -30,6 +30,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
   private final JwtTokenProvider tokenProvider;
   private final CustomUserDetailsService customUserDetailsService;
+  private final SecurityStampCache securityStampCache;
   private final com.deepak.management.service.BlacklistedAccessTokenService
       blacklistedAccessTokenService;
 
@@ -41,18 +42,34 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
       throws ServletException, IOException {
     try {
       String jwt = getJwtFromRequest(request);
-      if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
+      // Parsed and checked once; the claims are kept on the request for later readers
+      VerifiedToken verified =
+          StringUtils.hasText(jwt) ? tokenProvider.tryVerify(jwt).orElse(null) : null;
+      if (verified != null) {
         // Check if token is blacklisted
         if (blacklistedAccessTokenService.isTokenBlacklisted(jwt)) {
           logger.warn("Attempt to use blacklisted JWT token");
           response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Blacklisted JWT token");
           return;
         }
-        String username = tokenProvider.getUsernameFromToken(jwt);
+        request.setAttribute(VerifiedToken.REQUEST_ATTRIBUTE, verified);
+        String username = verified.subject();
 
         // Only proceed if user is not already authenticated
         if (SecurityContextHolder.getContext().getAuthentication() == null) {
-          UserDetails userDetails = customUserDetailsService.loadUserByUsername(username);
+          UserDetails userDetails;
+          if (verified.securityStamp() != null && verified.userId() != null) {
+            // The claims describe the user; only the stamp needs to be current
+            if (!securityStampCache.isCurrent(username, verified.securityStamp())) {
+              logger.warn("Attempt to use JWT token issued before a credential change");
+              response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Revoked JWT token");
+              return;
+            }
+            userDetails = CustomUserDetails.fromToken(verified);
+          } else {
+            // Tokens issued before stamps were added are checked against the user table
+            userDetails = customUserDetailsService.loadUserByUsername(username);
+          }
 
           if (userDetails instanceof CustomUserDetails customUserDetails) {
             // Create authentication object
@@ -3,17 +3,26 @@ package com.deepak.management.security;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import java.security.Key;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Function;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,6 +30,14 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseCookie;
 import org.springframework.stereotype.Component;
 
+/**
+ * Issues and verifies JWTs.
+ *
+ * <p>The signing key and parser are built once at startup. {@link #verify(String)} parses a token
+ * once into an immutable {@link VerifiedToken} and keeps it in an LRU cache of {@code
+ * jwt.verified-cache-size} entries keyed by the token's SHA-256 digest, so a token seen again
+ * before it expires skips the HMAC check. The other token readers go through the same cache.
+ */
 @Component
 public class JwtTokenProvider {
   private static final Logger logger = LoggerFactory.getLogger(JwtTokenProvider.class);
@@ -40,23 +57,146 @@ public class JwtTokenProvider {
   @Value("${jwt.cookie.secure:false}")
   private boolean cookieSecure;
 
+  @Value("${jwt.verified-cache-size:10000}")
+  private int verifiedCacheSize;
+
+  private Key signingKey;
+  private JwtParser jwtParser;
+  private Map<String, VerifiedToken> verifiedTokens;
+  private final ReentrantLock verifiedTokensLock = new ReentrantLock();
+
   private static final String ACCESS_TOKEN_COOKIE_NAME = "accessToken";
   private static final String REFRESH_TOKEN_COOKIE_NAME = "refreshToken";
+  private static final String USER_ID_CLAIM = "uid";
+  private static final String STAMP_CLAIM = "stamp";
+
+  @PostConstruct
+  void init() {
+    signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+    jwtParser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+    final int capacity = Math.max(1, verifiedCacheSize);
+    verifiedTokens =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, VerifiedToken> eldest) {
+            return size() > capacity;
+          }
+        };
+  }
 
   private Key getSigningKey() {
-    byte[] keyBytes = Decoders.BASE64.decode(jwtSecret);
-    return Keys.hmacShaKeyFor(keyBytes);
+    return signingKey;
+  }
+
+  /**
+   * Checks a token's signature and expiry and returns its claims.
+   *
+   * @throws JwtException When the token is expired, malformed or wrongly signed.
+   * @throws IllegalArgumentException When the token is empty.
+   */
+  public VerifiedToken verify(String token) {
+    if (token == null || token.isBlank()) {
+      throw new IllegalArgumentException("JWT string is empty");
+    }
+    final String digest = TokenDigest.sha256(token);
+    final Instant now = Instant.now();
+    VerifiedToken verified;
+    verifiedTokensLock.lock();
+    try {
+      verified = verifiedTokens.get(digest);
+      if (verified != null && verified.isExpired(now)) {
+        verifiedTokens.remove(digest);
+        verified = null;
+      }
+    } finally {
+      verifiedTokensLock.unlock();
+    }
+    if (verified != null) {
+      return verified;
+    }
+
+    // Throws ExpiredJwtException for an expired token
+    final Claims claims = jwtParser.parseClaimsJws(token).getBody();
+    verified =
+        new VerifiedToken(
+            digest,
+            claims.getSubject(),
+            claims.get("role", String.class),
+            clinicIdsOf(claims.get("clinicIds")),
+            claims.get(USER_ID_CLAIM) instanceof Number userId ? userId.intValue() : null,
+            claims.get(STAMP_CLAIM) instanceof Number stamp ? stamp.longValue() : null,
+            claims.getIssuedAt() == null ? null : claims.getIssuedAt().toInstant(),
+            claims.getExpiration().toInstant());
+    verifiedTokensLock.lock();
+    try {
+      verifiedTokens.put(digest, verified);
+    } finally {
+      verifiedTokensLock.unlock();
+    }
+    return verified;
+  }
+
+  /** Like {@link #verify(String)}, but logs why a token is rejected and returns empty instead. */
+  public Optional<VerifiedToken> tryVerify(String token) {
+    try {
+      return Optional.of(verify(token));
+    } catch (SignatureException ex) {
+      logger.error("Invalid JWT signature");
+    } catch (MalformedJwtException ex) {
+      logger.error("Invalid JWT token");
+    } catch (ExpiredJwtException ex) {
+      logger.error("Expired JWT token");
+    } catch (UnsupportedJwtException ex) {
+      logger.error("Unsupported JWT token");
+    } catch (IllegalArgumentException ex) {
+      logger.error("JWT claims string is empty");
+    } catch (JwtException ex) {
+      logger.error("Invalid JWT token: {}", ex.getMessage());
+    }
+    return Optional.empty();
+  }
+
+  /** Returns the token verified by {@link JwtAuthenticationFilter} for this request, if any. */
+  public Optional<VerifiedToken> getVerifiedToken(HttpServletRequest request) {
+    return request.getAttribute(VerifiedToken.REQUEST_ATTRIBUTE) instanceof VerifiedToken verified
+        ? Optional.of(verified)
+        : Optional.empty();
   }
 
-  public String generateAccessToken(String username, String role, List<Integer> clinicIds) {
-    return buildToken(username, role, clinicIds, jwtExpirationInMs);
+  private static List<Integer> clinicIdsOf(Object claim) {
+    if (!(claim instanceof List<?> values)) {
+      return List.of();
+    }
+    final List<Integer> clinicIds = new ArrayList<>(values.size());
+    for (Object value : values) {
+      if (value instanceof Number number) {
+        clinicIds.add(number.intValue());
+      }
+    }
+    return clinicIds;
+  }
+
+  /**
+   * Issues an access token carrying everything needed to authenticate its requests, so {@link
+   * JwtAuthenticationFilter} only has to check the security stamp.
+   */
+  public String generateAccessToken(
+      Integer userId, String username, String role, List<Integer> clinicIds, Long securityStamp) {
+    final JwtBuilder builder = newToken(username, role, clinicIds, jwtExpirationInMs);
+    if (userId != null) {
+      builder.claim(USER_ID_CLAIM, userId);
+    }
+    if (securityStamp != null) {
+      builder.claim(STAMP_CLAIM, securityStamp);
+    }
+    return builder.compact();
   }
 
   public String generateRefreshToken(String username) {
-    return buildToken(username, null, null, refreshTokenExpirationInMs);
+    return newToken(username, null, null, refreshTokenExpirationInMs).compact();
   }
 
-  private String buildToken(
+  private JwtBuilder newToken(
       String username, String role, List<Integer> clinicIds, long expiration) {
     Date now = new Date();
     Date expiryDate = new Date(now.getTime() + expiration);
@@ -76,15 +216,15 @@ public class JwtTokenProvider {
       builder.claim("clinicIds", clinicIds);
     }
 
-    return builder.compact();
+    return builder;
   }
 
   public String getUsernameFromToken(String token) {
-    return getClaimFromToken(token, Claims::getSubject);
+    return verify(token).subject();
   }
 
   public Date getExpirationDateFromToken(String token) {
-    return getClaimFromToken(token, Claims::getExpiration);
+    return Date.from(verify(token).expiresAt());
   }
 
   public <T> T getClaimFromToken(String token, Function<Claims, T> claimsResolver) {
@@ -93,29 +233,11 @@ public class JwtTokenProvider {
   }
 
   private Claims getAllClaimsFromToken(String token) {
-    return Jwts.parserBuilder()
-        .setSigningKey(getSigningKey())
-        .build()
-        .parseClaimsJws(token)
-        .getBody();
+    return jwtParser.parseClaimsJws(token).getBody();
   }
 
   public boolean validateToken(String token) {
-    try {
-      Jwts.parserBuilder().setSigningKey(getSigningKey()).build().parseClaimsJws(token);
-      return true;
-    } catch (SignatureException ex) {
-      logger.error("Invalid JWT signature");
-    } catch (MalformedJwtException ex) {
-      logger.error("Invalid JWT token");
-    } catch (ExpiredJwtException ex) {
-      logger.error("Expired JWT token");
-    } catch (UnsupportedJwtException ex) {
-      logger.error("Unsupported JWT token");
-    } catch (IllegalArgumentException ex) {
-      logger.error("JWT claims string is empty");
-    }
-    return false;
+    return tryVerify(token).isPresent();
   }
 
   public boolean isTokenExpired(String token) {
@@ -124,12 +246,11 @@ public class JwtTokenProvider {
   }
 
   public String getRoleFromJWT(String token) {
-    return getClaimFromToken(token, claims -> claims.get("role", String.class));
+    return verify(token).role();
   }
 
-  @SuppressWarnings("unchecked")
   public List<Integer> getClinicIdsFromJWT(String token) {
-    return getClaimFromToken(token, claims -> claims.get("clinicIds", List.class));
+    return verify(token).clinicIds();
   }
 
   public String generateTokenFromUsername(String username) {
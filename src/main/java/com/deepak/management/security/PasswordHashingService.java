@@ -0,0 +1,152 @@
+package com.deepak.management.security;
+
+import com.deepak.management.exception.PasswordHashingBusyException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+/**
+ * The application's {@link PasswordEncoder}: BCrypt on a fixed pool of platform threads.
+ *
+ * <p>Hashing is CPU-bound, so it runs on {@code password.hashing.threads} threads, one per core by
+ * default, instead of on the request's virtual thread. Callers wait in a queue of {@code
+ * password.hashing.queue-capacity}; when it is full they get a {@link
+ * PasswordHashingBusyException}, answered with 503, so a burst of logins cannot take every core
+ * from the rest of the traffic.
+ *
+ * <p>Hashes are made with cost {@code password.hashing.cost}. {@link #upgradeEncoding(String)}
+ * reports hashes of a lower cost, which the login paths hash again while they know the password.
+ * Hashing time, queue wait, queue length and rejections are published as {@code
+ * password.hashing.duration}, {@code password.hashing.queue-wait}, {@code password.hashing.queued}
+ * and {@code password.hashing.rejected}.
+ */
+@Service
+public class PasswordHashingService implements PasswordEncoder {
+  private final BCryptPasswordEncoder encoder;
+  private final ThreadPoolExecutor executor;
+  private final int threads;
+  private final int queueCapacity;
+  private final AtomicLong rejected = new AtomicLong();
+  private final Timer encodeTimer;
+  private final Timer matchesTimer;
+  private final Timer queueWaitTimer;
+
+  public PasswordHashingService(
+      MeterRegistry meterRegistry,
+      @Value("${password.hashing.cost:10}") int cost,
+      @Value("${password.hashing.threads:0}") int threads,
+      @Value("${password.hashing.queue-capacity:100}") int queueCapacity) {
+    this.encoder = new BCryptPasswordEncoder(cost);
+    this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    this.queueCapacity = Math.max(1, queueCapacity);
+    this.executor =
+        new ThreadPoolExecutor(
+            this.threads,
+            this.threads,
+            0,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(this.queueCapacity),
+            Thread.ofPlatform().name("password-hashing-", 1).daemon(true).factory());
+
+    this.encodeTimer = durationTimer(meterRegistry, "encode");
+    this.matchesTimer = durationTimer(meterRegistry, "matches");
+    this.queueWaitTimer =
+        Timer.builder("password.hashing.queue-wait")
+            .description("Time a password waited for a hashing thread")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry);
+    Gauge.builder("password.hashing.queued", executor, e -> e.getQueue().size())
+        .description("Passwords waiting for a hashing thread")
+        .register(meterRegistry);
+    FunctionCounter.builder("password.hashing.rejected", rejected, AtomicLong::get)
+        .description("Passwords turned away because the hashing queue was full")
+        .register(meterRegistry);
+  }
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    return run(encodeTimer, () -> encoder.encode(rawPassword));
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    if (encodedPassword == null || encodedPassword.isEmpty()) {
+      // Nothing to hash; the encoder would refuse it right away
+      return false;
+    }
+    return run(matchesTimer, () -> encoder.matches(rawPassword, encodedPassword));
+  }
+
+  /** Returns true for a hash made with a lower cost than the configured one. */
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    return encodedPassword != null
+        && !encodedPassword.isEmpty()
+        && encoder.upgradeEncoding(encodedPassword);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    executor.shutdown();
+  }
+
+  private <T> T run(Timer timer, Supplier<T> work) {
+    final long queuedAt = System.nanoTime();
+    final Future<T> result;
+    try {
+      result =
+          executor.submit(
+              () -> {
+                final long startedAt = System.nanoTime();
+                queueWaitTimer.record(startedAt - queuedAt, TimeUnit.NANOSECONDS);
+                try {
+                  return work.get();
+                } finally {
+                  timer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+              });
+    } catch (RejectedExecutionException e) {
+      rejected.incrementAndGet();
+      throw new PasswordHashingBusyException(
+          "All "
+              + threads
+              + " password hashing threads are busy and "
+              + queueCapacity
+              + " passwords are waiting");
+    }
+    try {
+      return result.get();
+    } catch (InterruptedException e) {
+      result.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while hashing a password", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtime) {
+        throw runtime;
+      }
+      throw new IllegalStateException("Password hashing failed", e.getCause());
+    }
+  }
+
+  private static Timer durationTimer(MeterRegistry meterRegistry, String operation) {
+    return Timer.builder("password.hashing.duration")
+        .tag("operation", operation)
+        .description("Time spent hashing a password")
+        .publishPercentiles(0.5, 0.95, 0.99)
+        .register(meterRegistry);
+  }
+}
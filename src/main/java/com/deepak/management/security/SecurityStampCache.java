@@ -0,0 +1,112 @@
+package com.deepak.management.security;
+
+import com.deepak.management.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Current security stamps of users, as carried in the {@code stamp} claim of access tokens.
+ *
+ * <p>A stamp is read from the {@code users} table the first time a user is seen and kept in an LRU
+ * cache of {@code jwt.security-stamp.cache-size} users for {@code jwt.security-stamp.ttl-seconds},
+ * so authenticating a request does not query the database. Users that no longer exist are cached as
+ * well. Code that bumps a stamp calls {@link #refresh(String)}, which applies on this instance at
+ * once; other instances pick the new stamp up when their entry expires.
+ */
+@Component
+public class SecurityStampCache {
+  private final UserRepository userRepository;
+
+  @Value("${jwt.security-stamp.cache-size:10000}")
+  private int cacheSize;
+
+  @Value("${jwt.security-stamp.ttl-seconds:30}")
+  private long ttlSeconds;
+
+  private Map<String, Entry> stamps;
+  private final ReentrantLock stampsLock = new ReentrantLock();
+
+  // A null stamp marks a user that does not exist
+  private record Entry(Long stamp, long loadedAtNanos) {}
+
+  public SecurityStampCache(UserRepository userRepository) {
+    this.userRepository = userRepository;
+  }
+
+  @PostConstruct
+  void init() {
+    final int capacity = Math.max(1, cacheSize);
+    stamps =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > capacity;
+          }
+        };
+  }
+
+  /**
+   * Checks a token's stamp against the user's current one.
+   *
+   * @param username The token's subject.
+   * @param stamp The token's stamp claim.
+   * @return false when the user's stamp changed since the token was issued or the user is gone.
+   */
+  public boolean isCurrent(String username, long stamp) {
+    final Long current = currentStamp(username);
+    return current != null && current == stamp;
+  }
+
+  /** Forgets a user's stamp after it changed, again once the surrounding transaction commits. */
+  public void refresh(String username) {
+    evict(username);
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      // A read between now and the commit would cache the old stamp
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              evict(username);
+            }
+          });
+    }
+  }
+
+  private Long currentStamp(String username) {
+    final long now = System.nanoTime();
+    stampsLock.lock();
+    try {
+      final Entry entry = stamps.get(username);
+      if (entry != null && now - entry.loadedAtNanos() < TimeUnit.SECONDS.toNanos(ttlSeconds)) {
+        return entry.stamp();
+      }
+    } finally {
+      stampsLock.unlock();
+    }
+
+    final Long stamp = userRepository.findSecurityStampByUsername(username).orElse(null);
+    stampsLock.lock();
+    try {
+      stamps.put(username, new Entry(stamp, now));
+    } finally {
+      stampsLock.unlock();
+    }
+    return stamp;
+  }
+
+  private void evict(String username) {
+    stampsLock.lock();
+    try {
+      stamps.remove(username);
+    } finally {
+      stampsLock.unlock();
+    }
+  }
+}
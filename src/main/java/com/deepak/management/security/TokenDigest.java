@@ -0,0 +1,24 @@
+package com.deepak.management.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/** Fixed-length fingerprints of tokens, so that tokens can be looked up without keeping them. */
+public final class TokenDigest {
+
+  private TokenDigest() {}
+
+  /** Returns the SHA-256 digest of the token as 64 lowercase hex characters. */
+  public static String sha256(String token) {
+    try {
+      return HexFormat.of()
+          .formatHex(
+              MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      // Every Java platform is required to support SHA-256
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,40 @@
+package com.deepak.management.security;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * The claims of an access token whose signature and expiry have been checked.
+ *
+ * <p>{@link JwtAuthenticationFilter} stores it on the request under {@link #REQUEST_ATTRIBUTE}, so
+ * later code can read the claims without parsing the token again.
+ *
+ * @param digest The SHA-256 digest of the token, see {@link TokenDigest}.
+ * @param subject The username.
+ * @param role The role claim, or null for tokens without one.
+ * @param clinicIds The clinic ids claim; empty for tokens without one.
+ * @param userId The user id claim, or null for tokens without one.
+ * @param securityStamp The user's security stamp when the token was issued, or null for tokens
+ *     without one; see {@link SecurityStampCache}.
+ * @param issuedAt When the token was issued.
+ * @param expiresAt When the token expires.
+ */
+public record VerifiedToken(
+    String digest,
+    String subject,
+    String role,
+    List<Integer> clinicIds,
+    Integer userId,
+    Long securityStamp,
+    Instant issuedAt,
+    Instant expiresAt) {
+  public static final String REQUEST_ATTRIBUTE = VerifiedToken.class.getName();
+
+  public VerifiedToken {
+    clinicIds = clinicIds == null ? List.of() : List.copyOf(clinicIds);
+  }
+
+  public boolean isExpired(Instant now) {
+    return !expiresAt.isAfter(now);
+  }
+}
@@ -7,5 +7,8 @@ public interface BlacklistedAccessTokenService {
 
   boolean isTokenBlacklisted(String token);
 
+  /** Reads revocations made since the previous call, on any instance, and forgets expired ones. */
+  void syncRevocations();
+
   void removeExpiredTokens();
 }
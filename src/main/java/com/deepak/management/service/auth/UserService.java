@@ -3,6 +3,7 @@ package com.deepak.management.service.auth;
 import com.deepak.management.model.auth.User;
 import com.deepak.management.model.auth.UserRegistrationRequest;
 import com.deepak.management.repository.UserRepository;
+import com.deepak.management.security.SecurityStampCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -13,6 +14,7 @@ import org.springframework.transaction.annotation.Transactional;
 public class UserService {
   private final UserRepository userRepository;
   private final PasswordEncoder passwordEncoder;
+  private final SecurityStampCache securityStampCache;
 
   @Transactional
   public User registerUser(UserRegistrationRequest request) {
@@ -35,14 +37,19 @@ public class UserService {
             .findById(userId)
             .orElseThrow(() -> new IllegalArgumentException("User not found"));
     user.setPasswordHash(passwordEncoder.encode(newPassword));
+    // Access tokens issued with the old password stop working
+    user.setSecurityStamp(user.getSecurityStamp() + 1);
     userRepository.save(user);
+    securityStampCache.refresh(user.getUsername());
   }
 
   @Transactional
   public void deleteUser(Integer userId) {
-    if (!userRepository.existsById(userId)) {
-      throw new IllegalArgumentException("User not found");
-    }
-    userRepository.deleteById(userId);
+    User user =
+        userRepository
+            .findById(userId)
+            .orElseThrow(() -> new IllegalArgumentException("User not found"));
+    userRepository.delete(user);
+    securityStampCache.refresh(user.getUsername());
   }
 }
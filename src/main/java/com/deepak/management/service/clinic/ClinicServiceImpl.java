@@ -12,6 +12,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class ClinicServiceImpl implements ClinicService {
@@ -24,6 +25,7 @@ public class ClinicServiceImpl implements ClinicService {
   }
 
   @Override
+  @Transactional(readOnly = true)
   public List<ClinicInformation> getAllClinics(int page, int size) {
     final Pageable paging = PageRequest.of(page, size);
 
@@ -37,6 +39,7 @@ public class ClinicServiceImpl implements ClinicService {
   }
 
   @Override
+  @Transactional(readOnly = true)
   public Optional<ClinicInformation> getClinicById(Integer clinicId) throws ClinicNotFound {
     final Optional<ClinicInformation> existingClinic =
         this.clinicInformationRepository.findById(clinicId);
@@ -3,9 +3,11 @@ package com.deepak.management.service.doctor;
 import com.deepak.management.exception.ClinicNotFound;
 import com.deepak.management.exception.DoctorNotFound;
 import com.deepak.management.model.clinic.ClinicInformation;
+import com.deepak.management.model.common.DoctorAvailability;
 import com.deepak.management.model.doctor.DoctorInformation;
 import com.deepak.management.repository.ClinicInformationRepository;
 import com.deepak.management.repository.DoctorInformationRepository;
+import com.deepak.queue.service.SlotScheduleReconciler;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -14,21 +16,26 @@ import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
 @Component
 public class DoctorServiceImpl implements DoctorService {
   private static final Logger LOGGER = LoggerFactory.getLogger(DoctorServiceImpl.class);
   private final DoctorInformationRepository doctorInformationRepository;
   private final ClinicInformationRepository clinicInformationRepository;
+  private final SlotScheduleReconciler slotScheduleReconciler;
 
   public DoctorServiceImpl(
       DoctorInformationRepository doctorInformationRepository,
-      ClinicInformationRepository clinicInformationRepository) {
+      ClinicInformationRepository clinicInformationRepository,
+      SlotScheduleReconciler slotScheduleReconciler) {
     this.doctorInformationRepository = doctorInformationRepository;
     this.clinicInformationRepository = clinicInformationRepository;
+    this.slotScheduleReconciler = slotScheduleReconciler;
   }
 
   @Override
+  @Transactional(readOnly = true)
   public List<DoctorInformation> getDoctorInformation(Pageable page) {
 
     final Page<DoctorInformation> pagedResult = this.doctorInformationRepository.findAll(page);
@@ -41,6 +48,7 @@ public class DoctorServiceImpl implements DoctorService {
   }
 
   @Override
+  @Transactional(readOnly = true)
   public Optional<DoctorInformation> getDoctorById(Long doctorId) throws DoctorNotFound {
     final Optional<DoctorInformation> doctor = this.doctorInformationRepository.findById(doctorId);
     if (doctor.isPresent()) {
@@ -51,6 +59,7 @@ public class DoctorServiceImpl implements DoctorService {
   }
 
   @Override
+  @Transactional(readOnly = true)
   public Optional<DoctorInformation> getDoctorByDoctorIdAndClinicId(
       String doctorId, Integer clinicId) throws DoctorNotFound {
     DoctorInformation doctor =
@@ -64,10 +73,12 @@ public class DoctorServiceImpl implements DoctorService {
   }
 
   @Override
+  @Transactional
   public DoctorInformation updateDoctor(Long doctorId, DoctorInformation doctorInformation)
       throws ClinicNotFound, DoctorNotFound {
     final Optional<DoctorInformation> doctor = this.doctorInformationRepository.findById(doctorId);
     if (doctor.isPresent()) {
+      final List<DoctorAvailability> previousAvailability = doctor.get().getDoctorAvailability();
       if (doctorInformation.getClinicId() != null) {
         // Check if the clinicIdToUpdate exists in the clinic_information table
         final Optional<ClinicInformation> clinic =
@@ -93,6 +104,7 @@ public class DoctorServiceImpl implements DoctorService {
       }
       if (doctorInformation.getDoctorAvailability() != null) {
         doctor.get().setDoctorAvailability(doctorInformation.getDoctorAvailability());
+        bumpScheduleVersion(doctor.get());
       }
       if (doctorInformation.getDoctorSpeciality() != null) {
         doctor.get().setDoctorSpeciality(doctorInformation.getDoctorSpeciality());
@@ -115,19 +127,29 @@ public class DoctorServiceImpl implements DoctorService {
         doctor.get().setQualifications(doctorInformation.getQualifications());
       }
       LOGGER.info("Updated doctor information for the Id : {}", doctorId);
-      return this.doctorInformationRepository.save(doctor.get());
+      final DoctorInformation saved = this.doctorInformationRepository.save(doctor.get());
+      if (doctorInformation.getDoctorAvailability() != null) {
+        slotScheduleReconciler.reconcile(
+            saved.getDoctorId(),
+            saved.getClinicId(),
+            previousAvailability,
+            saved.getDoctorAvailability());
+      }
+      return saved;
     } else {
       throw new DoctorNotFound("Doctor with id " + doctorId + " not found");
     }
   }
 
   @Override
+  @Transactional
   public DoctorInformation updateDoctorByDoctorIdAndClinicId(
       String doctorId, Integer clinicId, DoctorInformation doctorInformation)
       throws ClinicNotFound, DoctorNotFound {
     DoctorInformation doctor =
         this.doctorInformationRepository.findByDoctorIdAndClinicId(doctorId, clinicId);
     if (doctor != null) {
+      final List<DoctorAvailability> previousAvailability = doctor.getDoctorAvailability();
       if (doctorInformation.getClinicId() != null) {
         final Optional<ClinicInformation> clinic =
             clinicInformationRepository.findById(doctorInformation.getClinicId());
@@ -152,6 +174,7 @@ public class DoctorServiceImpl implements DoctorService {
       }
       if (doctorInformation.getDoctorAvailability() != null) {
         doctor.setDoctorAvailability(doctorInformation.getDoctorAvailability());
+        bumpScheduleVersion(doctor);
       }
       if (doctorInformation.getDoctorSpeciality() != null) {
         doctor.setDoctorSpeciality(doctorInformation.getDoctorSpeciality());
@@ -173,7 +196,15 @@ public class DoctorServiceImpl implements DoctorService {
       }
       LOGGER.info(
           "Updated doctor information for doctorId: {} and clinicId: {}", doctorId, clinicId);
-      return this.doctorInformationRepository.save(doctor);
+      final DoctorInformation saved = this.doctorInformationRepository.save(doctor);
+      if (doctorInformation.getDoctorAvailability() != null) {
+        slotScheduleReconciler.reconcile(
+            saved.getDoctorId(),
+            saved.getClinicId(),
+            previousAvailability,
+            saved.getDoctorAvailability());
+      }
+      return saved;
     } else {
       throw new DoctorNotFound(
           "Doctor with doctorId " + doctorId + " and clinicId " + clinicId + " not found");
@@ -204,8 +235,18 @@ public class DoctorServiceImpl implements DoctorService {
   }
 
   @Override
+  @Transactional(readOnly = true)
   public List<DoctorInformation> getDoctorInformationByClinicId(Integer clinicId) {
     LOGGER.warn("getDoctorInformationByClinicId Id : {}", clinicId);
     return this.doctorInformationRepository.findAllByClinicId(clinicId);
   }
+
+  /**
+   * Increments the doctor's schedule version so that cached weekly schedule templates compiled from
+   * the previous availability are recompiled on next use.
+   */
+  private static void bumpScheduleVersion(DoctorInformation doctor) {
+    final long current = doctor.getScheduleVersion() == null ? 0L : doctor.getScheduleVersion();
+    doctor.setScheduleVersion(current + 1);
+  }
 }
@@ -23,6 +23,9 @@ public interface DoctorAbsenceService {
   List<DoctorAbsenceInformation> getDoctorAbsenceInformationsByDateAndDoctor(
       Pageable paging, Date date, String doctorId);
 
+  DoctorAbsenceInformation saveDoctorAbsenceInformation(
+      DoctorAbsenceInformation doctorAbsenceInformation);
+
   Optional<DoctorAbsenceInformation> updateDoctorAbsenceInformationById(
       Long id, DoctorAbsenceInformation doctorAbsenceInformation) throws DoctorAbsenceNotFound;
 
@@ -3,6 +3,8 @@ package com.deepak.management.service.doctorabsence;
 import com.deepak.management.exception.DoctorAbsenceNotFound;
 import com.deepak.management.model.doctor.DoctorAbsenceInformation;
 import com.deepak.management.repository.DoctorAbsenceInformationRepository;
+import com.deepak.queue.model.AbsenceSpan;
+import com.deepak.queue.service.SlotAbsencePatcher;
 import java.sql.Date;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
@@ -15,6 +17,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class DoctorAbsenceServiceImpl implements DoctorAbsenceService {
@@ -22,13 +25,17 @@ public class DoctorAbsenceServiceImpl implements DoctorAbsenceService {
   private static final Logger LOGGER = LoggerFactory.getLogger(DoctorAbsenceServiceImpl.class);
 
   private final DoctorAbsenceInformationRepository doctorAbsenceInformationRepository;
+  private final SlotAbsencePatcher slotAbsencePatcher;
 
   public DoctorAbsenceServiceImpl(
-      DoctorAbsenceInformationRepository doctorAbsenceInformationRepository) {
+      DoctorAbsenceInformationRepository doctorAbsenceInformationRepository,
+      SlotAbsencePatcher slotAbsencePatcher) {
     this.doctorAbsenceInformationRepository = doctorAbsenceInformationRepository;
+    this.slotAbsencePatcher = slotAbsencePatcher;
   }
 
   @Override
+  @Transactional(readOnly = true)
   public List<DoctorAbsenceInformation> getDoctorAbsenceInformations(Pageable pageable) {
     final Page<DoctorAbsenceInformation> pagedResult =
         this.doctorAbsenceInformationRepository.findAll(pageable);
@@ -41,11 +48,13 @@ public class DoctorAbsenceServiceImpl implements DoctorAbsenceService {
   }
 
   @Override
+  @Transactional(readOnly = true)
   public Optional<DoctorAbsenceInformation> getDoctorAbsenceInformationsById(Long id) {
     return this.doctorAbsenceInformationRepository.findById(id);
   }
 
   @Override
+  @Transactional(readOnly = true)
   public List<DoctorAbsenceInformation> getDoctorAbsenceInformationsByDate(
       Pageable paging, Date date) {
     final Page<DoctorAbsenceInformation> pagedResult =
@@ -58,6 +67,7 @@ public class DoctorAbsenceServiceImpl implements DoctorAbsenceService {
   }
 
   @Override
+  @Transactional(readOnly = true)
   public List<DoctorAbsenceInformation> getDoctorAbsenceInformationsByDateAndClinic(
       Pageable paging, Date date, Integer clinicId) {
     final Page<DoctorAbsenceInformation> pagedResult =
@@ -71,6 +81,7 @@ public class DoctorAbsenceServiceImpl implements DoctorAbsenceService {
   }
 
   @Override
+  @Transactional(readOnly = true)
   public List<DoctorAbsenceInformation> getDoctorAbsenceInformationsByDateAndDoctor(
       Pageable paging, Date date, String doctorId) {
     final Page<DoctorAbsenceInformation> pagedResult =
@@ -83,6 +94,23 @@ public class DoctorAbsenceServiceImpl implements DoctorAbsenceService {
     }
   }
 
+  /**
+   * Saves new doctor absence information and marks the overlapping slots of an already generated
+   * day as unavailable.
+   *
+   * @param doctorAbsenceInformation The absence to save.
+   * @return The saved absence.
+   */
+  @Override
+  @Transactional
+  public DoctorAbsenceInformation saveDoctorAbsenceInformation(
+      DoctorAbsenceInformation doctorAbsenceInformation) {
+    final DoctorAbsenceInformation saved =
+        doctorAbsenceInformationRepository.save(doctorAbsenceInformation);
+    slotAbsencePatcher.absenceChanged(null, SlotAbsencePatcher.spanOf(saved));
+    return saved;
+  }
+
   /**
    * Updates existing doctor absence information for the given ID.
    *
@@ -92,6 +120,9 @@ public class DoctorAbsenceServiceImpl implements DoctorAbsenceService {
    * the error is logged, and the method proceeds using the original {@code sqlDate} (which might be
    * null or retain a previous value if the field was already populated).
    *
+   * <p>Slots already generated for the old and the new absence period are patched by {@link
+   * SlotAbsencePatcher} in the same transaction.
+   *
    * @param id The ID of the doctor absence information to update.
    * @param doctorAbsenceInformation The new doctor absence information. The {@code
    *     doctorAbsenceInformation.getAbsenceDate()} is expected to be in "dd-MM-yyyy" format.
@@ -100,6 +131,7 @@ public class DoctorAbsenceServiceImpl implements DoctorAbsenceService {
    * @throws DoctorAbsenceNotFound if no doctor absence information is found for the given ID.
    */
   @Override
+  @Transactional
   public Optional<DoctorAbsenceInformation> updateDoctorAbsenceInformationById(
       Long id, DoctorAbsenceInformation doctorAbsenceInformation) throws DoctorAbsenceNotFound {
     final Optional<DoctorAbsenceInformation> existingInfoOptional =
@@ -107,6 +139,7 @@ public class DoctorAbsenceServiceImpl implements DoctorAbsenceService {
 
     if (existingInfoOptional.isPresent()) {
       final DoctorAbsenceInformation existingInfo = existingInfoOptional.get();
+      final AbsenceSpan before = SlotAbsencePatcher.spanOf(existingInfo);
 
       SimpleDateFormat inputFormat = new SimpleDateFormat("dd-MM-yyyy", Locale.ENGLISH);
       final SimpleDateFormat outputFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.ENGLISH);
@@ -126,7 +159,9 @@ public class DoctorAbsenceServiceImpl implements DoctorAbsenceService {
       existingInfo.setDoctorId(doctorAbsenceInformation.getDoctorId());
       existingInfo.setOptionalMessage(doctorAbsenceInformation.getOptionalMessage());
       LOGGER.info("Updated absence info with id: {}", existingInfo.getId());
-      return Optional.of(doctorAbsenceInformationRepository.save(existingInfo));
+      final DoctorAbsenceInformation saved = doctorAbsenceInformationRepository.save(existingInfo);
+      slotAbsencePatcher.absenceChanged(before, SlotAbsencePatcher.spanOf(saved));
+      return Optional.of(saved);
     } else {
       LOGGER.error("Doctor Absence Information not found with ID: {}", id);
       throw new DoctorAbsenceNotFound("Doctor Absence Information not found with ID: " + id);
@@ -134,6 +169,7 @@ public class DoctorAbsenceServiceImpl implements DoctorAbsenceService {
   }
 
   @Override
+  @Transactional
   public void deleteDoctorAbsenceInfoById(Long id) throws DoctorAbsenceNotFound {
     final Optional<DoctorAbsenceInformation> absenceInformation =
         this.getDoctorAbsenceInformationsById(id);
@@ -144,9 +180,11 @@ public class DoctorAbsenceServiceImpl implements DoctorAbsenceService {
     }
     LOGGER.warn("Deleted doctor absence info with id: {}", id);
     doctorAbsenceInformationRepository.deleteById(id);
+    slotAbsencePatcher.absenceChanged(SlotAbsencePatcher.spanOf(absenceInformation.get()), null);
   }
 
   @Override
+  @Transactional(readOnly = true)
   public List<DoctorAbsenceInformation> getDoctorAbsenceInformationsAfterDateAndClinic(
       Date absenceDate, Integer clinicId, Pageable page) {
     final Page<DoctorAbsenceInformation> pagedResult =
@@ -160,6 +198,7 @@ public class DoctorAbsenceServiceImpl implements DoctorAbsenceService {
   }
 
   @Override
+  @Transactional(readOnly = true)
   public List<DoctorAbsenceInformation> getDoctorAbsenceInformationsBetweenDateAndClinic(
       Date startDate, Date endDate, Integer clinicId, Pageable page) {
     final Page<DoctorAbsenceInformation> pagedResult =
@@ -173,6 +212,7 @@ public class DoctorAbsenceServiceImpl implements DoctorAbsenceService {
   }
 
   @Override
+  @Transactional(readOnly = true)
   public List<DoctorAbsenceInformation> getDoctorAbsenceInformationsBetweenDateAndDoctor(
       Date startDate, Date endDate, String doctorId, Pageable page) {
     final Page<DoctorAbsenceInformation> pagedResult =
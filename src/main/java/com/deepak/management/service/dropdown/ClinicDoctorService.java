@@ -4,6 +4,7 @@ import com.deepak.management.model.view.dropdown.ClinicDoctorView;
 import com.deepak.management.repository.ClinicDoctorViewRepository;
 import java.util.List;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class ClinicDoctorService {
@@ -13,10 +14,12 @@ public class ClinicDoctorService {
     this.clinicDoctorViewRepository = clinicDoctorViewRepository;
   }
 
+  @Transactional(readOnly = true)
   public List<ClinicDoctorView> getAllDoctorClinicViews() {
     return clinicDoctorViewRepository.findAll();
   }
 
+  @Transactional(readOnly = true)
   public List<ClinicDoctorView> getAllDoctorByClinic(Integer clinicId) {
     return clinicDoctorViewRepository.findAllByClinicId(clinicId);
   }
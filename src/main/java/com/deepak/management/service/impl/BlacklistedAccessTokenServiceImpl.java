@@ -2,32 +2,122 @@ package com.deepak.management.service.impl;
 
 import com.deepak.management.model.auth.BlacklistedAccessToken;
 import com.deepak.management.repository.BlacklistedAccessTokenRepository;
+import com.deepak.management.security.TokenDigest;
 import com.deepak.management.service.BlacklistedAccessTokenService;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+/**
+ * Keeps the blacklist of access tokens in the database and answers lookups from memory.
+ *
+ * <p>Every revocation is a row stamped by the database with the time it was written. {@link
+ * #syncRevocations()} first loads all unexpired rows and afterwards only the rows written since the
+ * latest stamp seen, less {@code jwt.revocation.sync-overlap-ms}, so each instance learns of
+ * logouts on the others within one poll of {@code jwt.revocation.poll-ms}. The overlap covers the
+ * time between an insert's stamp and its commit, during which a row with an earlier stamp can still
+ * become visible after a later one. Until the first load has finished, lookups go to the database.
+ */
 @Service
 public class BlacklistedAccessTokenServiceImpl implements BlacklistedAccessTokenService {
+  private static final Logger LOGGER =
+      LoggerFactory.getLogger(BlacklistedAccessTokenServiceImpl.class);
+  private static final int SYNC_PAGE_SIZE = 1000;
+  // Keeps each purge statement's locks short
+  private static final int PURGE_BATCH_SIZE = 5000;
+
   private final BlacklistedAccessTokenRepository repository;
+  private final RevokedTokens revokedTokens;
+  private final Duration syncOverlap;
+  private volatile boolean loaded;
+  private Instant lastSeenRevokedAt;
 
-  public BlacklistedAccessTokenServiceImpl(BlacklistedAccessTokenRepository repository) {
+  public BlacklistedAccessTokenServiceImpl(
+      BlacklistedAccessTokenRepository repository,
+      @Value("${jwt.revocation.expected-tokens:10000}") int expectedTokens,
+      @Value("${jwt.revocation.sync-overlap-ms:5000}") long syncOverlapMs) {
     this.repository = repository;
+    this.revokedTokens = new RevokedTokens(expectedTokens);
+    this.syncOverlap = Duration.ofMillis(Math.max(0, syncOverlapMs));
   }
 
   @Override
   public void blacklistToken(String token, Instant expiry) {
-    if (!repository.findByToken(token).isPresent()) {
-      repository.save(new BlacklistedAccessToken(token, expiry));
+    final String digest = TokenDigest.sha256(token);
+    if (!repository.existsByTokenDigest(digest)) {
+      try {
+        repository.save(new BlacklistedAccessToken(digest, expiry));
+      } catch (DataIntegrityViolationException e) {
+        // Revoked concurrently, e.g. a repeated logout
+        LOGGER.debug("Access token was already blacklisted");
+      }
     }
+    revokedTokens.add(digest, expiry);
   }
 
   @Override
   public boolean isTokenBlacklisted(String token) {
-    return repository.findByToken(token).isPresent();
+    final String digest = TokenDigest.sha256(token);
+    if (!loaded) {
+      return repository.existsByTokenDigest(digest);
+    }
+    return revokedTokens.contains(digest, Instant.now());
+  }
+
+  @Override
+  public synchronized void syncRevocations() {
+    final Instant now = Instant.now();
+    // Stamps come from the database clock only, so the clocks of instances do not matter
+    Instant afterRevokedAt =
+        lastSeenRevokedAt == null ? Instant.EPOCH : lastSeenRevokedAt.minus(syncOverlap);
+    long afterId = 0;
+    int added = 0;
+    List<BlacklistedAccessToken> rows;
+    do {
+      rows =
+          repository.findRevokedAfter(afterRevokedAt, afterId, PageRequest.of(0, SYNC_PAGE_SIZE));
+      for (BlacklistedAccessToken row : rows) {
+        if (row.getExpiryDate().isAfter(now)) {
+          revokedTokens.add(row.getTokenDigest(), row.getExpiryDate());
+          added++;
+        }
+        afterRevokedAt = row.getRevokedAt();
+        afterId = row.getId();
+      }
+    } while (rows.size() == SYNC_PAGE_SIZE);
+    if (lastSeenRevokedAt == null || afterRevokedAt.isAfter(lastSeenRevokedAt)) {
+      lastSeenRevokedAt = afterRevokedAt;
+    }
+
+    final int expired = revokedTokens.removeExpired(now);
+    if (!loaded) {
+      loaded = true;
+      LOGGER.info("Loaded {} revoked access tokens", revokedTokens.size());
+    } else if (added > 0 || expired > 0) {
+      LOGGER.debug(
+          "Synced revoked access tokens: {} read, {} expired, {} held",
+          added,
+          expired,
+          revokedTokens.size());
+    }
   }
 
+  /** Deletes the expiry buckets whose hour has passed, in batches of {@value #PURGE_BATCH_SIZE}. */
   @Override
   public void removeExpiredTokens() {
-    repository.deleteByExpiryDateBefore(Instant.now());
+    final long currentHour = BlacklistedAccessToken.hourOf(Instant.now());
+    int deleted = 0;
+    int batch;
+    do {
+      batch = repository.deleteBucketsBefore(currentHour, PURGE_BATCH_SIZE);
+      deleted += batch;
+    } while (batch == PURGE_BATCH_SIZE);
+    LOGGER.info("Purged {} expired blacklisted access tokens", deleted);
   }
 }
@@ -0,0 +1,108 @@
+package com.deepak.management.service.impl;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Revoked access tokens held in memory, keyed by the SHA-256 digest of the token.
+ *
+ * <p>A Bloom filter answers for the tokens that were never revoked, which is nearly every token,
+ * and only its rare positives are checked against the exact map of digest to expiry. A token stops
+ * being revoked once its {@code exp} has passed; {@link #removeExpired(Instant)} drops those
+ * entries and rebuilds the filter, which cannot forget entries on its own.
+ */
+final class RevokedTokens {
+  // Bits per expected entry and probes for a false positive rate near 1%
+  private static final int BITS_PER_ENTRY = 10;
+  private static final int PROBES = 7;
+
+  private final int expectedTokens;
+  private final Map<String, Instant> expiryByDigest = new ConcurrentHashMap<>();
+  private volatile Bloom bloom;
+
+  RevokedTokens(int expectedTokens) {
+    this.expectedTokens = Math.max(1, expectedTokens);
+    this.bloom = new Bloom(this.expectedTokens);
+  }
+
+  void add(String digest, Instant expiresAt) {
+    expiryByDigest.merge(digest, expiresAt, (a, b) -> a.isAfter(b) ? a : b);
+    // Adds again when a rebuild swapped the filter meanwhile
+    Bloom current;
+    do {
+      current = bloom;
+      current.add(digest);
+    } while (current != bloom);
+  }
+
+  boolean contains(String digest, Instant now) {
+    if (!bloom.mightContain(digest)) {
+      return false;
+    }
+    final Instant expiresAt = expiryByDigest.get(digest);
+    return expiresAt != null && expiresAt.isAfter(now);
+  }
+
+  /** Forgets tokens that expired and rebuilds the filter when any were forgotten. */
+  synchronized int removeExpired(Instant now) {
+    final int before = expiryByDigest.size();
+    expiryByDigest.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+    final int removed = before - expiryByDigest.size();
+    if (removed > 0) {
+      final Bloom rebuilt = new Bloom(Math.max(expectedTokens, expiryByDigest.size() * 2));
+      expiryByDigest.keySet().forEach(rebuilt::add);
+      bloom = rebuilt;
+      // Entries added during the first pass may have gone into the old filter only
+      expiryByDigest.keySet().forEach(rebuilt::add);
+    }
+    return removed;
+  }
+
+  int size() {
+    return expiryByDigest.size();
+  }
+
+  private static final class Bloom {
+    private final AtomicLongArray words;
+    private final long bits;
+
+    Bloom(int expectedTokens) {
+      final int wordCount = (int) Math.max(1, ((long) expectedTokens * BITS_PER_ENTRY + 63) / 64);
+      this.words = new AtomicLongArray(wordCount);
+      this.bits = wordCount * 64L;
+    }
+
+    void add(String digest) {
+      final long h1 = hash(digest, 0);
+      final long h2 = hash(digest, 16);
+      for (int i = 0; i < PROBES; i++) {
+        final long bit = Math.floorMod(h1 + i * h2, bits);
+        final int word = (int) (bit >>> 6);
+        final long mask = 1L << bit;
+        long current;
+        do {
+          current = words.get(word);
+        } while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask));
+      }
+    }
+
+    boolean mightContain(String digest) {
+      final long h1 = hash(digest, 0);
+      final long h2 = hash(digest, 16);
+      for (int i = 0; i < PROBES; i++) {
+        final long bit = Math.floorMod(h1 + i * h2, bits);
+        if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    // The digest is already uniformly distributed, so its hex digits serve as the hashes
+    private static long hash(String digest, int offset) {
+      return Long.parseUnsignedLong(digest, offset, offset + 16, 16);
+    }
+  }
+}
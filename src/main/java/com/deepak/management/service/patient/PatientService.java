@@ -6,7 +6,7 @@ import com.deepak.management.repository.PatientRepository;
 import java.time.LocalDateTime;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 /**
@@ -20,9 +20,11 @@ public class PatientService {
   private static final Logger logger = LoggerFactory.getLogger(PatientService.class);
 
   private final PatientRepository patientRepository;
+  private final PasswordEncoder passwordEncoder;
 
-  public PatientService(PatientRepository patientRepository) {
+  public PatientService(PatientRepository patientRepository, PasswordEncoder passwordEncoder) {
     this.patientRepository = patientRepository;
+    this.passwordEncoder = passwordEncoder;
   }
 
   /**
@@ -38,8 +40,7 @@ public class PatientService {
     // This is a temporary measure for initial account setup.
     // The user is expected to change this default password.
     if (patient.getPhoneNumber() != null && !patient.getPhoneNumber().trim().isEmpty()) {
-      BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
-      patient.setPasswordHash(encoder.encode(patient.getPhoneNumber()));
+      patient.setPasswordHash(passwordEncoder.encode(patient.getPhoneNumber()));
       patient.setUsingDefaultPassword(true); // Mark that the patient is using the default password
     } else {
       patient.setPasswordHash(null);
@@ -158,9 +159,12 @@ public class PatientService {
     }
 
     // Verify the provided password against the stored hash
-    BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
-    if (encoder.matches(password, patient.getPasswordHash())) {
-      // Password matches
+    if (passwordEncoder.matches(password, patient.getPasswordHash())) {
+      // Password matches; a hash made with a lower cost than configured is replaced now
+      if (passwordEncoder.upgradeEncoding(patient.getPasswordHash())) {
+        patient.setPasswordHash(passwordEncoder.encode(password));
+        patient = patientRepository.save(patient);
+      }
       return patient;
     } else {
       // Password does not match
@@ -192,8 +196,7 @@ public class PatientService {
             .orElseThrow(() -> new RuntimeException("Patient not found with id: " + patientId));
 
     // Hash the new password using BCrypt
-    BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
-    patient.setPasswordHash(encoder.encode(newPassword));
+    patient.setPasswordHash(passwordEncoder.encode(newPassword));
 
     // Update the 'updatedAt' timestamp
     patient.setUpdatedAt(LocalDateTime.now());
@@ -0,0 +1,80 @@
+package com.deepak.management.service.queuemanagement;
+
+/**
+ * Running consultation durations of one doctor at one clinic.
+ *
+ * <p>Keeps an exponentially weighted moving average and a histogram of one-minute buckets whose
+ * weights decay with every sample, so recent consultations count most in both. The 90th percentile
+ * is recomputed when a sample is recorded, which keeps reads to a few volatile loads.
+ */
+final class ConsultationStats {
+  // Each new sample shrinks older histogram weights by this factor
+  private static final double HISTOGRAM_DECAY = 0.98;
+
+  private final double alpha;
+  private final double[] buckets;
+  private double totalWeight;
+  private volatile double average;
+  private volatile int p90;
+  private volatile long samples;
+  private long lastVisitNanos;
+  private long lastVisitDay = Long.MIN_VALUE;
+
+  ConsultationStats(double alpha, int maxMinutes) {
+    this.alpha = alpha;
+    this.buckets = new double[maxMinutes + 1];
+  }
+
+  /**
+   * Records a visit and, when an earlier visit happened the same day, the minutes between them.
+   *
+   * @param day The epoch day of the visit.
+   * @param nanos The {@link System#nanoTime()} of the visit.
+   */
+  synchronized void visited(long day, long nanos) {
+    if (day == lastVisitDay) {
+      final double minutes = (nanos - lastVisitNanos) / 60_000_000_000d;
+      // Gaps under a minute are batch updates, longer ones than a bucket are breaks
+      if (minutes >= 1 && minutes < buckets.length) {
+        record(minutes);
+      }
+    }
+    lastVisitDay = day;
+    lastVisitNanos = nanos;
+  }
+
+  private void record(double minutes) {
+    average = samples == 0 ? minutes : alpha * minutes + (1 - alpha) * average;
+    for (int i = 0; i < buckets.length; i++) {
+      buckets[i] *= HISTOGRAM_DECAY;
+    }
+    totalWeight = totalWeight * HISTOGRAM_DECAY + 1;
+    buckets[(int) Math.min(Math.round(minutes), buckets.length - 1)] += 1;
+    p90 = percentile(0.9);
+    samples++;
+  }
+
+  private int percentile(double rank) {
+    final double target = totalWeight * rank;
+    double seen = 0;
+    for (int i = 0; i < buckets.length; i++) {
+      seen += buckets[i];
+      if (seen >= target) {
+        return i;
+      }
+    }
+    return buckets.length - 1;
+  }
+
+  double average() {
+    return average;
+  }
+
+  int p90() {
+    return p90;
+  }
+
+  long samples() {
+    return samples;
+  }
+}
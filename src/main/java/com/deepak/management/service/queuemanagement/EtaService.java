@@ -0,0 +1,195 @@
+package com.deepak.management.service.queuemanagement;
+
+import com.deepak.management.model.queuemanagement.QueueChangeEvent;
+import com.deepak.management.model.queuemanagement.QueueEta;
+import com.deepak.queue.service.ShiftTemplate;
+import com.deepak.queue.service.WeeklyScheduleTemplate;
+import com.deepak.queue.service.WeeklyScheduleTemplateCache;
+import jakarta.annotation.PostConstruct;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Estimates when a patient in today's queue will be seen.
+ *
+ * <p>Every {@code visited} change of the live queue records the minutes since the doctor's previous
+ * visit that day in the doctor's {@link ConsultationStats}. An estimate blends the measured average
+ * with the consultation time configured for the patient's shift, weighted as {@code
+ * queue.eta.prior-weight} measured visits, so a doctor without history starts from the schedule.
+ * The patient's place comes from the in-memory queue, which is loaded first when nobody has read it
+ * yet. The configured times are fetched in the background once per doctor and day; a fetch that
+ * fails is started again by the next estimate, which uses the default meanwhile.
+ */
+@Service
+public class EtaService implements LiveQueueListener {
+  private static final Logger LOGGER = LoggerFactory.getLogger(EtaService.class);
+  private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+  // Stands in for a doctor-day's consultation times while they are loaded
+  private static final Map<String, Integer> LOADING = Map.of();
+
+  private final LiveQueueService liveQueueService;
+  private final WeeklyScheduleTemplateCache weeklyScheduleTemplateCache;
+  private final double ewmaAlpha;
+  private final int defaultMinutes;
+  private final int maxMinutes;
+  private final double priorWeight;
+  private final Map<String, ConsultationStats> statsByDoctor = new ConcurrentHashMap<>();
+  // Configured consultation minutes per shift name, per doctor and day
+  private final Map<LiveQueueKey, Map<String, Integer>> scheduledMinutes =
+      new ConcurrentHashMap<>();
+
+  public EtaService(
+      LiveQueueService liveQueueService,
+      WeeklyScheduleTemplateCache weeklyScheduleTemplateCache,
+      @Value("${queue.eta.ewma-alpha:0.2}") double ewmaAlpha,
+      @Value("${queue.eta.default-consultation-minutes:10}") int defaultMinutes,
+      @Value("${queue.eta.max-consultation-minutes:120}") int maxMinutes,
+      @Value("${queue.eta.prior-weight:5}") double priorWeight) {
+    this.liveQueueService = liveQueueService;
+    this.weeklyScheduleTemplateCache = weeklyScheduleTemplateCache;
+    this.ewmaAlpha = ewmaAlpha;
+    this.defaultMinutes = Math.max(1, defaultMinutes);
+    this.maxMinutes = Math.max(1, maxMinutes);
+    this.priorWeight = Math.max(0, priorWeight);
+  }
+
+  // Registered once constructed, so no visit reaches a half-initialized listener
+  @PostConstruct
+  void register() {
+    liveQueueService.addListener(this);
+  }
+
+  /**
+   * Estimates when a patient will be seen.
+   *
+   * @param id The queue record ID.
+   * @return The estimate.
+   * @throws ResponseStatusException 404 when the entry is not in an open queue of today.
+   */
+  public QueueEta estimate(Integer id) {
+    final LiveQueue queue = liveQueueService.loadQueueOf(id);
+    final LiveQueuePosition position = queue == null ? null : queue.position(id);
+    if (position == null) {
+      throw new ResponseStatusException(
+          HttpStatus.NOT_FOUND, "Queue entry " + id + " is not in an open queue of today");
+    }
+    final LiveQueueKey key = queue.getKey();
+    final ConsultationStats stats = statsByDoctor.get(keyOf(key.clinicId(), key.doctorId()));
+    final int scheduled = scheduledMinutes(key, position.entry().getShiftTime());
+    final long samples = stats == null ? 0 : stats.samples();
+    final double minutesPerPatient =
+        samples == 0 ? scheduled : blend(scheduled, stats.average(), samples);
+    if (position.visited()) {
+      return new QueueEta(id, true, 0, round(minutesPerPatient), null, null, samples);
+    }
+    final double slowMinutes =
+        samples == 0
+            ? scheduled
+            : Math.max(minutesPerPatient, blend(scheduled, stats.p90(), samples));
+
+    final LocalDateTime now = LocalDateTime.now();
+    final LocalDateTime slotTime = slotTimeOf(key.date(), position.entry().getTime());
+    final int ahead = position.waitingAhead();
+    return new QueueEta(
+        id,
+        false,
+        ahead,
+        round(minutesPerPatient),
+        TIME_FORMAT.format(
+            notBefore(slotTime, now.plusSeconds(secondsFor(ahead, minutesPerPatient)))),
+        TIME_FORMAT.format(notBefore(slotTime, now.plusSeconds(secondsFor(ahead, slowMinutes)))),
+        samples);
+  }
+
+  @Override
+  public void queueChanged(String clinicId, String doctorId, QueueChangeEvent event) {
+    if (QueueChangeEvent.VISITED.equals(event.type())) {
+      statsByDoctor
+          .computeIfAbsent(
+              keyOf(clinicId, doctorId), k -> new ConsultationStats(ewmaAlpha, maxMinutes))
+          .visited(LocalDate.now().toEpochDay(), System.nanoTime());
+    }
+  }
+
+  private double blend(int scheduled, double measured, long samples) {
+    return (scheduled * priorWeight + measured * samples) / (priorWeight + samples);
+  }
+
+  private int scheduledMinutes(LiveQueueKey key, String shiftTime) {
+    Map<String, Integer> byShift = scheduledMinutes.get(key);
+    if (byShift == null) {
+      scheduledMinutes.keySet().removeIf(old -> old.date().isBefore(key.date()));
+      // The default applies until the background load has filled in the schedule
+      byShift = LOADING;
+      if (scheduledMinutes.putIfAbsent(key, byShift) == null) {
+        Thread.ofVirtual().name("queue-eta-schedule").start(() -> loadSchedule(key));
+      }
+    }
+    final Integer minutes = shiftTime == null ? null : byShift.get(shiftTime.toUpperCase());
+    return minutes != null && minutes > 0 ? minutes : defaultMinutes;
+  }
+
+  private void loadSchedule(LiveQueueKey key) {
+    try {
+      final WeeklyScheduleTemplate template =
+          weeklyScheduleTemplateCache
+              .getTemplate(key.doctorId(), Integer.valueOf(key.clinicId()))
+              .orElse(null);
+      if (template == null) {
+        return;
+      }
+      final Map<String, Integer> byShift = new HashMap<>();
+      for (ShiftTemplate shift : template.getShifts(key.date().getDayOfWeek())) {
+        byShift.putIfAbsent(shift.getShiftTime().name(), shift.getConsultationTime());
+      }
+      scheduledMinutes.replace(key, Map.copyOf(byShift));
+    } catch (RuntimeException e) {
+      // Lets the next estimate start another load
+      scheduledMinutes.remove(key, LOADING);
+      LOGGER.warn(
+          "Could not load consultation times of doctor {} and clinic {}",
+          key.doctorId(),
+          key.clinicId(),
+          e);
+    }
+  }
+
+  private static LocalDateTime slotTimeOf(LocalDate date, String time) {
+    if (time == null) {
+      return null;
+    }
+    try {
+      return LocalDateTime.of(date, LocalTime.parse(time));
+    } catch (DateTimeParseException e) {
+      return null;
+    }
+  }
+
+  private static LocalDateTime notBefore(LocalDateTime slotTime, LocalDateTime estimate) {
+    return slotTime != null && slotTime.isAfter(estimate) ? slotTime : estimate;
+  }
+
+  private static long secondsFor(int patients, double minutesPerPatient) {
+    return Math.round(patients * minutesPerPatient * 60);
+  }
+
+  private static double round(double minutes) {
+    return Math.round(minutes * 10) / 10.0;
+  }
+
+  private static String keyOf(String clinicId, String doctorId) {
+    return clinicId + ":" + doctorId;
+  }
+}
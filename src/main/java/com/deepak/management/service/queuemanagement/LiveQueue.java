@@ -0,0 +1,273 @@
+package com.deepak.management.service.queuemanagement;
+
+import com.deepak.management.model.queuemanagement.QueueManagementDTO;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+
+/**
+ * The active queue of one doctor in one clinic for one day, held in memory.
+ *
+ * <p>Reads return an immutable snapshot that is rebuilt after every change, so they never take a
+ * lock. Mutations must be made while holding the queue's monitor; {@link LiveQueueService} queues
+ * the matching database write under the same monitor, which keeps the writes in the order the
+ * changes were applied.
+ */
+final class LiveQueue {
+  private static final String VISITED_STATUS = "Done";
+  private static final Comparator<QueueManagementDTO> QUEUE_ORDER =
+      Comparator.comparing(QueueManagementDTO::getTime, Comparator.nullsFirst(String::compareTo))
+          .thenComparing(
+              QueueManagementDTO::getShiftTime, Comparator.nullsFirst(String::compareTo));
+
+  private final LiveQueueKey key;
+  private final long loadedAtNanos;
+  private final Map<Integer, Entry> entries = new HashMap<>();
+  private final Map<Long, Slot> slots = new HashMap<>();
+  // Free slot ids in order, so the next free slot after any slot is one lookup
+  private final TreeSet<Long> freeSlots = new TreeSet<>();
+  private volatile List<QueueManagementDTO> snapshot = List.of();
+  private volatile Map<Integer, LiveQueuePosition> positions = Map.of();
+  private int pendingWrites;
+  private volatile boolean stale;
+
+  LiveQueue(LiveQueueKey key, List<Object[]> queueRows, List<Object[]> slotRows) {
+    this.key = key;
+    this.loadedAtNanos = System.nanoTime();
+    for (Object[] row : slotRows) {
+      final Slot slot =
+          new Slot(((Number) row[0]).longValue(), (String) row[1], (String) row[2], isTrue(row[3]));
+      slots.put(slot.slotId, slot);
+      if (slot.available) {
+        freeSlots.add(slot.slotId);
+      }
+    }
+    for (Object[] row : queueRows) {
+      final QueueManagementDTO dto =
+          new QueueManagementDTO(
+              ((Number) row[0]).intValue(),
+              (String) row[1],
+              (String) row[2],
+              (String) row[3],
+              (String) row[4],
+              row[5] == null ? null : ((Number) row[5]).intValue(),
+              (String) row[6],
+              (String) row[7],
+              (String) row[8]);
+      final Entry entry = new Entry(dto, ((Number) row[9]).longValue());
+      entry.visited = VISITED_STATUS.equalsIgnoreCase((String) row[10]);
+      entries.put(dto.getId(), entry);
+    }
+    publish();
+  }
+
+  LiveQueueKey getKey() {
+    return key;
+  }
+
+  List<QueueManagementDTO> snapshot() {
+    return snapshot;
+  }
+
+  /** Returns the entry as last published, or null when it is not in the queue. */
+  QueueManagementDTO find(Integer id) {
+    final LiveQueuePosition position = positions.get(id);
+    return position == null ? null : position.entry();
+  }
+
+  /** Returns the entry's place in the queue as last published, or null when it is not in it. */
+  LiveQueuePosition position(Integer id) {
+    return positions.get(id);
+  }
+
+  /** Compares the published entries field by field. */
+  boolean hasSameEntries(LiveQueue other) {
+    final List<QueueManagementDTO> mine = snapshot;
+    final List<QueueManagementDTO> theirs = other.snapshot;
+    if (mine.size() != theirs.size()) {
+      return false;
+    }
+    for (int i = 0; i < mine.size(); i++) {
+      final QueueManagementDTO a = mine.get(i);
+      final QueueManagementDTO b = theirs.get(i);
+      if (!Objects.equals(a.getId(), b.getId())
+          || !Objects.equals(a.getAvatarUrl(), b.getAvatarUrl())
+          || !Objects.equals(a.getPatientName(), b.getPatientName())
+          || !Objects.equals(a.getPatientPhoneNumber(), b.getPatientPhoneNumber())
+          || !Objects.equals(a.getQueueNo(), b.getQueueNo())
+          || !Objects.equals(a.getPatientReached(), b.getPatientReached())
+          || !Objects.equals(a.getTime(), b.getTime())
+          || !Objects.equals(a.getShiftTime(), b.getShiftTime())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Takes a slot out of the free set after the database refused a move into it. */
+  void slotTaken(long slotId) {
+    freeSlots.remove(slotId);
+  }
+
+  List<Integer> entryIds() {
+    return List.copyOf(entries.keySet());
+  }
+
+  boolean contains(Integer id) {
+    return entries.containsKey(id);
+  }
+
+  boolean isStale(long refreshNanos) {
+    return stale || System.nanoTime() - loadedAtNanos > refreshNanos;
+  }
+
+  /** Forces a reload on the next read, e.g. after a write that memory may not reflect. */
+  void markStale() {
+    stale = true;
+  }
+
+  int pendingWrites() {
+    return pendingWrites;
+  }
+
+  void writeQueued() {
+    pendingWrites++;
+  }
+
+  synchronized void writeFlushed() {
+    pendingWrites--;
+  }
+
+  boolean markReached(Integer id) {
+    final Entry entry = entries.get(id);
+    if (entry == null) {
+      return false;
+    }
+    entry.dto.setPatientReached("true");
+    publish();
+    return true;
+  }
+
+  /** Cancelled and deleted entries leave the queue, as they drop out of the database query. */
+  boolean remove(Integer id) {
+    if (entries.remove(id) == null) {
+      return false;
+    }
+    publish();
+    return true;
+  }
+
+  boolean markVisited(Integer id) {
+    final Entry entry = entries.get(id);
+    if (entry == null) {
+      return false;
+    }
+    entry.visited = true;
+    publish();
+    return true;
+  }
+
+  /**
+   * Picks the slot a skip would move the entry to: the next available slot of the day by slot id,
+   * like {@code QueueManagementRepository.SkipPatient}, in O(log n) of the day's free slots.
+   * Nothing changes until {@link #move(Integer, long[])} applies a move the database accepted.
+   *
+   * @return The current and next slot ids, or null when the entry is unknown or no slot is free.
+   */
+  long[] nextSkip(Integer id) {
+    final Entry entry = entries.get(id);
+    if (entry == null) {
+      return null;
+    }
+    final Long nextSlotId = freeSlots.higher(entry.slotId);
+    return nextSlotId == null ? null : new long[] {entry.slotId, nextSlotId};
+  }
+
+  /**
+   * Applies a move from {@link #nextSkip(Integer)}.
+   *
+   * @return false when the entry is gone or no longer in the move's first slot.
+   */
+  boolean move(Integer id, long[] move) {
+    final Entry entry = entries.get(id);
+    final Slot next = slots.get(move[1]);
+    if (entry == null || entry.slotId != move[0] || next == null) {
+      return false;
+    }
+    freeSlots.remove(next.slotId);
+    if (slots.containsKey(entry.slotId)) {
+      freeSlots.add(entry.slotId);
+    }
+    entry.slotId = next.slotId;
+    entry.dto.setTime(next.time);
+    entry.dto.setShiftTime(next.shiftTime);
+    publish();
+    return true;
+  }
+
+  private void publish() {
+    final List<Entry> ordered = new ArrayList<>(entries.values());
+    ordered.sort(
+        Comparator.comparing(
+            (Entry entry) -> entry.dto, QUEUE_ORDER.thenComparing(QueueManagementDTO::getId)));
+    final List<QueueManagementDTO> copies = new ArrayList<>(ordered.size());
+    final Map<Integer, LiveQueuePosition> places = new HashMap<>();
+    int waitingAhead = 0;
+    for (Entry entry : ordered) {
+      final QueueManagementDTO copy = copyOf(entry.dto);
+      copies.add(copy);
+      places.put(copy.getId(), new LiveQueuePosition(copy, waitingAhead, entry.visited));
+      if (!entry.visited) {
+        waitingAhead++;
+      }
+    }
+    snapshot = List.copyOf(copies);
+    positions = Map.copyOf(places);
+  }
+
+  private static QueueManagementDTO copyOf(QueueManagementDTO dto) {
+    return new QueueManagementDTO(
+        dto.getId(),
+        dto.getAvatarUrl(),
+        dto.getPatientName(),
+        dto.getPatientPhoneNumber(),
+        dto.getDoctorName(),
+        dto.getQueueNo(),
+        dto.getPatientReached(),
+        dto.getTime(),
+        dto.getShiftTime());
+  }
+
+  private static boolean isTrue(Object value) {
+    return value instanceof Boolean b ? b : value != null && ((Number) value).intValue() != 0;
+  }
+
+  private static final class Entry {
+    private final QueueManagementDTO dto;
+    private long slotId;
+    private boolean visited;
+
+    private Entry(QueueManagementDTO dto, long slotId) {
+      this.dto = dto;
+      this.slotId = slotId;
+    }
+  }
+
+  private static final class Slot {
+    private final long slotId;
+    private final String time;
+    private final String shiftTime;
+    private final boolean available;
+
+    private Slot(long slotId, String time, String shiftTime, boolean available) {
+      this.slotId = slotId;
+      this.time = time;
+      this.shiftTime = shiftTime;
+      this.available = available;
+    }
+  }
+}
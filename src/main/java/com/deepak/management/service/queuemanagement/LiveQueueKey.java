@@ -0,0 +1,6 @@
+package com.deepak.management.service.queuemanagement;
+
+import java.time.LocalDate;
+
+/** Identifies the queue of one doctor in one clinic on one day. */
+record LiveQueueKey(String clinicId, String doctorId, LocalDate date) {}
@@ -0,0 +1,12 @@
+package com.deepak.management.service.queuemanagement;
+
+import com.deepak.management.model.queuemanagement.QueueChangeEvent;
+
+/**
+ * Receives changes to today's in-memory queues. Called on the thread that made the change, in the
+ * order the changes were applied to a queue, so implementations must not block.
+ */
+@FunctionalInterface
+public interface LiveQueueListener {
+  void queueChanged(String clinicId, String doctorId, QueueChangeEvent event);
+}
@@ -0,0 +1,12 @@
+package com.deepak.management.service.queuemanagement;
+
+import com.deepak.management.model.queuemanagement.QueueManagementDTO;
+
+/**
+ * Where an entry stands in its live queue.
+ *
+ * @param entry The entry as last published.
+ * @param waitingAhead Entries before it that have not been visited yet.
+ * @param visited Whether the patient has already been seen.
+ */
+record LiveQueuePosition(QueueManagementDTO entry, int waitingAhead, boolean visited) {}
@@ -0,0 +1,633 @@
+package com.deepak.management.service.queuemanagement;
+
+import com.deepak.management.config.DatabaseBulkhead;
+import com.deepak.management.exception.DatabaseBusyException;
+import com.deepak.management.model.queuemanagement.QueueAction;
+import com.deepak.management.model.queuemanagement.QueueBatchOperation;
+import com.deepak.management.model.queuemanagement.QueueBatchResult;
+import com.deepak.management.model.queuemanagement.QueueChangeEvent;
+import com.deepak.management.model.queuemanagement.QueueManagementDTO;
+import com.deepak.management.repository.QueueManagementBatchWriter;
+import com.deepak.management.repository.QueueManagementRepository;
+import jakarta.annotation.PreDestroy;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+/**
+ * Serves today's queue of each doctor from memory and writes queue changes behind.
+ *
+ * <p>A doctor's queue is loaded with one query the first time it is read and then served from a
+ * snapshot until it is older than {@code queue.live.refresh-seconds}; a stale queue is still served
+ * while it is reloaded in the background, which picks up bookings made by other services. Marking a
+ * patient reached, cancelled, visited or deleted changes the in-memory queue first and queues the
+ * matching update behind the earlier work of the same queue; a skip takes its slot in MySQL before
+ * memory changes. The work of one queue runs one task at a time on virtual threads, so its updates
+ * reach MySQL in the order they were made and its loads see every earlier update; different queues
+ * do not wait for each other.
+ *
+ * <p>A change to a queue entry that is not in memory, such as another day's booking, is written on
+ * the caller's thread, as before. A load that ran meanwhile is marked stale. With {@code
+ * queue.live.enabled=false} every call goes straight to {@link QueueManagementRepository}.
+ */
+@Service
+public class LiveQueueService {
+  private static final Logger LOGGER = LoggerFactory.getLogger(LiveQueueService.class);
+  // Attempts of a write-behind update that found the live lane full
+  private static final int WRITE_BEHIND_ATTEMPTS = 5;
+  // Slots a skip tries from memory before asking MySQL for the next free one
+  private static final int SKIP_ATTEMPTS_FROM_MEMORY = 3;
+  // Entries remembered as being in no open queue of today
+  private static final int MAX_MISSES = 10_000;
+  private static final ThreadFactory WRITER_THREADS =
+      Thread.ofVirtual().name("live-queue-writer-", 0).factory();
+
+  private final QueueManagementRepository queueManagementRepository;
+  private final QueueManagementBatchWriter queueManagementBatchWriter;
+  private final boolean enabled;
+  private final long refreshNanos;
+  private final long loadTimeoutMs;
+  private final DatabaseBulkhead databaseBulkhead;
+  private final ExecutorService writers = Executors.newThreadPerTaskExecutor(WRITER_THREADS);
+  // Completes when the last task queued for the queue has run
+  private final Map<LiveQueueKey, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+  // Counts writes of entries not in memory, so a load that overlapped one can tell
+  private final AtomicLong writeThroughs = new AtomicLong();
+  private final Map<LiveQueueKey, LiveQueue> queues = new ConcurrentHashMap<>();
+  private final Map<Integer, LiveQueue> queuesByEntry = new ConcurrentHashMap<>();
+  private final Map<LiveQueueKey, CompletableFuture<LiveQueue>> loads = new ConcurrentHashMap<>();
+  private final List<LiveQueueListener> listeners = new CopyOnWriteArrayList<>();
+  // When an entry was last found in no open queue of today, by entry
+  private final Map<Integer, Long> misses = new ConcurrentHashMap<>();
+
+  public LiveQueueService(
+      QueueManagementRepository queueManagementRepository,
+      QueueManagementBatchWriter queueManagementBatchWriter,
+      DatabaseBulkhead databaseBulkhead,
+      @Value("${queue.live.enabled:true}") boolean enabled,
+      @Value("${queue.live.refresh-seconds:30}") long refreshSeconds,
+      @Value("${queue.live.load-timeout-ms:10000}") long loadTimeoutMs) {
+    this.queueManagementRepository = queueManagementRepository;
+    this.queueManagementBatchWriter = queueManagementBatchWriter;
+    this.enabled = enabled;
+    this.refreshNanos = TimeUnit.SECONDS.toNanos(refreshSeconds);
+    this.loadTimeoutMs = loadTimeoutMs;
+    this.databaseBulkhead = databaseBulkhead;
+  }
+
+  /**
+   * Returns today's active queue of a doctor, ordered by slot time and shift.
+   *
+   * @param clinicId The unique identifier of the clinic.
+   * @param doctorId The unique identifier of the doctor.
+   * @return An immutable list of queue entries.
+   */
+  public List<QueueManagementDTO> getQueue(String clinicId, String doctorId) {
+    if (!enabled) {
+      return queueManagementRepository.getQueueManagementData(clinicId, doctorId);
+    }
+    final LiveQueueKey key = new LiveQueueKey(clinicId, doctorId, LocalDate.now());
+    final LiveQueue queue = queues.get(key);
+    if (queue != null) {
+      if (queue.isStale(refreshNanos)) {
+        load(key);
+      }
+      return queue.snapshot();
+    }
+    return awaitLoad(key).snapshot();
+  }
+
+  /**
+   * Returns the in-memory queue of today that holds the entry, without touching the database.
+   *
+   * @return The queue, or null when the entry is not in a loaded queue.
+   */
+  LiveQueue currentQueueOf(Integer id) {
+    if (!enabled) {
+      return null;
+    }
+    final LiveQueue queue = queuesByEntry.get(id);
+    if (queue == null
+        || queues.get(queue.getKey()) != queue
+        || !queue.getKey().date().equals(LocalDate.now())) {
+      return null;
+    }
+    return queue;
+  }
+
+  /**
+   * Returns the queue of today that holds the entry like {@link #currentQueueOf(Integer)}, first
+   * loading the entry's queue when it is not in memory yet, e.g. because nobody has read it. An
+   * entry found in no open queue of today is answered from memory until it is older than {@code
+   * queue.live.refresh-seconds}, so polling an unknown or finished entry does not query each time.
+   *
+   * @return The queue, or null when the entry is not in an open queue of today.
+   */
+  LiveQueue loadQueueOf(Integer id) {
+    final LiveQueue current = currentQueueOf(id);
+    if (current != null || !enabled) {
+      return current;
+    }
+    final Long missedAt = misses.get(id);
+    if (missedAt != null && System.nanoTime() - missedAt < refreshNanos) {
+      return null;
+    }
+    final List<Object[]> rows = queueManagementRepository.getQueueKeyRows(id);
+    if (rows.isEmpty()) {
+      return missed(id);
+    }
+    final Object[] row = rows.getFirst();
+    final LocalDate date =
+        row[2] instanceof Date sqlDate ? sqlDate.toLocalDate() : (LocalDate) row[2];
+    if (!LocalDate.now().equals(date)) {
+      return missed(id);
+    }
+    // A queue loaded before the entry was booked is reloaded as well
+    final LiveQueue queue =
+        awaitLoad(new LiveQueueKey(String.valueOf(row[0]), (String) row[1], date));
+    if (!queue.contains(id)) {
+      return missed(id);
+    }
+    misses.remove(id);
+    return queue;
+  }
+
+  /** Remembers that an entry is in no open queue of today, while there is room. */
+  private LiveQueue missed(Integer id) {
+    final long now = System.nanoTime();
+    if (misses.size() >= MAX_MISSES) {
+      misses.values().removeIf(missedAt -> now - missedAt >= refreshNanos);
+    }
+    if (misses.size() < MAX_MISSES) {
+      misses.put(id, now);
+    }
+    return null;
+  }
+
+  /**
+   * Loads a queue and waits for it; after {@code queue.live.load-timeout-ms} the queue is queried
+   * directly instead.
+   */
+  private LiveQueue awaitLoad(LiveQueueKey key) {
+    try {
+      return load(key).get(loadTimeoutMs, TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      LOGGER.warn(
+          "Live queue for doctor {} and clinic {} not loaded in time",
+          key.doctorId(),
+          key.clinicId());
+      return fetch(key);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while loading the live queue", e);
+    } catch (ExecutionException e) {
+      throw rethrow(e);
+    }
+  }
+
+  /** Registers a listener for changes to the in-memory queues. */
+  public void addListener(LiveQueueListener listener) {
+    listeners.add(listener);
+  }
+
+  public void patientReached(Integer id) {
+    mutate(
+        id,
+        QueueChangeEvent.REACHED,
+        queue -> queue.markReached(id),
+        () -> queueManagementRepository.updatePatientReached(id));
+  }
+
+  public void patientCancelled(Integer id) {
+    mutate(
+        id,
+        QueueChangeEvent.CANCELLED,
+        queue -> queue.remove(id),
+        () -> queueManagementRepository.updatePatientCancelled(id));
+  }
+
+  public void patientVisited(Integer id) {
+    mutate(
+        id,
+        QueueChangeEvent.VISITED,
+        queue -> queue.markVisited(id),
+        () -> queueManagementRepository.updatePatientVisited(id));
+  }
+
+  public void patientDeleted(Integer id) {
+    mutate(
+        id,
+        QueueChangeEvent.DELETED,
+        queue -> queue.remove(id),
+        () -> queueManagementRepository.updatePatientDelete(id));
+  }
+
+  /**
+   * Moves a patient to the next free slot. Unlike the other changes this one waits for MySQL: the
+   * slot is picked from memory, taken with a guarded update in the queue's turn, and only then
+   * shown to listeners and the caller. A slot another writer took first is dropped and the next one
+   * tried; after {@value #SKIP_ATTEMPTS_FROM_MEMORY} such losses the slot is picked from the table
+   * instead.
+   *
+   * @throws OptimisticLockingFailureException When the skip kept conflicting with other writers.
+   */
+  public void skipPatient(Integer id) {
+    if (!enabled) {
+      queueManagementRepository.SkipPatient(id);
+      return;
+    }
+    LiveQueue queue = queuesByEntry.get(id);
+    while (queue != null) {
+      final LiveQueue target = queue;
+      if (await(inOrder(Set.of(target.getKey()), () -> skipInTurn(target, id)))) {
+        return;
+      }
+      // The queue was reloaded while we waited; retry on the one that replaced it
+      final LiveQueue current = queuesByEntry.get(id);
+      queue = current == queue ? null : current;
+    }
+    writeThrough(id, () -> queueManagementRepository.SkipPatient(id));
+  }
+
+  /**
+   * Skips an entry in its queue's turn, when the queue's earlier writes have reached MySQL.
+   *
+   * @return false when the queue no longer holds the entry.
+   */
+  private boolean skipInTurn(LiveQueue queue, Integer id) {
+    for (int attempt = 1; attempt <= SKIP_ATTEMPTS_FROM_MEMORY; attempt++) {
+      final long[] move;
+      synchronized (queue) {
+        if (queues.get(queue.getKey()) != queue || !queue.contains(id)) {
+          return false;
+        }
+        move = queue.nextSkip(id);
+      }
+      if (move == null && attempt == 1) {
+        LOGGER.warn("No available slot found for skipping queue entry {}", id);
+        return true;
+      }
+      if (move == null) {
+        break;
+      }
+      if (queueManagementRepository.moveToSlot(id, move[0], move[1])) {
+        synchronized (queue) {
+          if (queue.move(id, move)) {
+            notifyListeners(
+                queue.getKey(), new QueueChangeEvent(QueueChangeEvent.SKIPPED, id, queue.find(id)));
+          } else {
+            // Changed in memory after the slot was picked; its own write is queued behind this one
+            queue.markStale();
+          }
+        }
+        return true;
+      }
+      LOGGER.debug("Skip of queue entry {} to slot {} lost a race, trying the next", id, move[1]);
+      synchronized (queue) {
+        queue.slotTaken(move[1]);
+      }
+    }
+    // Memory is behind the table; let the repository pick the slot and reload to show where it went
+    LOGGER.warn("Skip of queue entry {} kept losing slots from memory, reloading", id);
+    queue.markStale();
+    try {
+      queueManagementRepository.SkipPatient(id);
+    } finally {
+      load(queue.getKey());
+    }
+    return true;
+  }
+
+  /**
+   * Applies several status changes at once: to the in-memory queues first, then to MySQL as grouped
+   * batch statements in one transaction on the writer thread, which this call waits for.
+   *
+   * @param operations Operations with a non-null id and action.
+   * @return One result per operation, in the same order.
+   */
+  public List<QueueBatchResult> applyBatch(List<QueueBatchOperation> operations) {
+    if (!enabled) {
+      return queueManagementBatchWriter.apply(operations);
+    }
+    final Set<LiveQueue> touched = new HashSet<>();
+    final List<Integer> replaced = new ArrayList<>();
+    for (QueueBatchOperation operation : operations) {
+      final LiveQueue queue = queuesByEntry.get(operation.getId());
+      if (queue == null) {
+        continue;
+      }
+      synchronized (queue) {
+        if (queues.get(queue.getKey()) != queue) {
+          replaced.add(operation.getId());
+        } else if (applyInMemory(queue, operation)) {
+          if (touched.add(queue)) {
+            queue.writeQueued();
+          }
+          notifyListeners(
+              queue.getKey(),
+              new QueueChangeEvent(
+                  eventTypeOf(operation.getAction()),
+                  operation.getId(),
+                  queue.find(operation.getId())));
+        }
+      }
+    }
+    final Set<LiveQueueKey> keys = new HashSet<>();
+    touched.forEach(queue -> keys.add(queue.getKey()));
+    try {
+      final List<QueueBatchResult> results =
+          await(inOrder(keys, () -> queueManagementBatchWriter.apply(operations)));
+      for (Integer id : replaced) {
+        final LiveQueue loaded = queuesByEntry.get(id);
+        if (loaded != null) {
+          // The queue was reloaded while we applied the batch and may not include it
+          loaded.markStale();
+        }
+      }
+      return results;
+    } catch (RuntimeException e) {
+      touched.forEach(LiveQueue::markStale);
+      throw e;
+    } finally {
+      touched.forEach(LiveQueue::writeFlushed);
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() throws InterruptedException {
+    try {
+      CompletableFuture.allOf(tails.values().toArray(new CompletableFuture<?>[0]))
+          .get(loadTimeoutMs, TimeUnit.MILLISECONDS);
+    } catch (ExecutionException | TimeoutException e) {
+      LOGGER.warn("Live queue writers did not drain before shutdown");
+    }
+    writers.shutdown();
+  }
+
+  /**
+   * Applies a change to the in-memory queue holding the entry and queues its write, or writes
+   * through when the entry is not in memory.
+   *
+   * @param change Changes the queue and returns the write to queue, or null when nothing changed.
+   */
+  private void mutate(Integer id, String eventType, Predicate<LiveQueue> change, Runnable write) {
+    if (!enabled) {
+      write.run();
+      return;
+    }
+    LiveQueue queue = queuesByEntry.get(id);
+    while (queue != null) {
+      synchronized (queue) {
+        if (queues.get(queue.getKey()) == queue && queue.contains(id)) {
+          if (change.test(queue)) {
+            queue.writeQueued();
+            final LiveQueue target = queue;
+            inOrder(Set.of(queue.getKey()), () -> flush(target, write));
+            // Published under the queue's monitor so listeners see changes in order
+            notifyListeners(queue.getKey(), new QueueChangeEvent(eventType, id, queue.find(id)));
+          }
+          return;
+        }
+      }
+      // The queue was reloaded while we waited; retry on the one that replaced it
+      final LiveQueue current = queuesByEntry.get(id);
+      queue = current == queue ? null : current;
+    }
+    writeThrough(id, write);
+  }
+
+  private void writeThrough(Integer id, Runnable write) {
+    write.run();
+    writeThroughs.incrementAndGet();
+    final LiveQueue loaded = queuesByEntry.get(id);
+    if (loaded != null) {
+      // A load may have read the entry before this write landed
+      loaded.markStale();
+    }
+  }
+
+  /**
+   * Queues a task behind the earlier tasks of the given queues and runs it in the live lane of the
+   * database bulkhead, so it neither competes with requests nor waits behind slot generation.
+   */
+  private <T> CompletableFuture<T> inOrder(Set<LiveQueueKey> keys, Supplier<T> task) {
+    final CompletableFuture<T> result = new CompletableFuture<>();
+    final CompletableFuture<Void> done = new CompletableFuture<>();
+    final List<CompletableFuture<Void>> before = new ArrayList<>(keys.size());
+    // One lock for all appends, so tasks spanning several queues cannot wait on each other
+    synchronized (tails) {
+      for (LiveQueueKey key : keys) {
+        final CompletableFuture<Void> previous = tails.put(key, done);
+        if (previous != null) {
+          before.add(previous);
+        }
+      }
+    }
+    CompletableFuture.allOf(before.toArray(new CompletableFuture<?>[0]))
+        .thenRunAsync(
+            () -> {
+              try {
+                result.complete(databaseBulkhead.callAsLiveQueue(task));
+              } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+              }
+            },
+            writers)
+        .whenComplete(
+            (ignored, e) -> {
+              if (e != null) {
+                result.completeExceptionally(e);
+              }
+              done.complete(null);
+              keys.forEach(key -> tails.remove(key, done));
+            });
+    return result;
+  }
+
+  private Void flush(LiveQueue queue, Runnable write) {
+    try {
+      // The change was acknowledged already, so a full live lane is waited out a few times
+      for (int attempt = 1; ; attempt++) {
+        try {
+          write.run();
+          break;
+        } catch (RuntimeException e) {
+          if (attempt >= WRITE_BEHIND_ATTEMPTS || !isBusy(e)) {
+            throw e;
+          }
+          LOGGER.warn(
+              "Live queue write for doctor {} and clinic {} found no free connection, retrying",
+              queue.getKey().doctorId(),
+              queue.getKey().clinicId());
+        }
+      }
+    } catch (RuntimeException e) {
+      LOGGER.error(
+          "Failed to write live queue change for doctor {} and clinic {}, reloading",
+          queue.getKey().doctorId(),
+          queue.getKey().clinicId(),
+          e);
+      queue.markStale();
+    } finally {
+      queue.writeFlushed();
+    }
+    return null;
+  }
+
+  private static boolean isBusy(Throwable e) {
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      if (cause instanceof DatabaseBusyException) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Queues a load of the queue behind its pending writes unless one is already queued. */
+  private CompletableFuture<LiveQueue> load(LiveQueueKey key) {
+    final CompletableFuture<LiveQueue> created = new CompletableFuture<>();
+    final CompletableFuture<LiveQueue> running = loads.putIfAbsent(key, created);
+    if (running != null) {
+      return running;
+    }
+    inOrder(Set.of(key), () -> reload(key))
+        .whenComplete(
+            (queue, e) -> {
+              loads.remove(key, created);
+              if (e == null) {
+                created.complete(queue);
+              } else {
+                LOGGER.error("Failed to load live queue {}", key, e);
+                created.completeExceptionally(e);
+              }
+            });
+    return created;
+  }
+
+  private LiveQueue reload(LiveQueueKey key) {
+    final long seenWriteThroughs = writeThroughs.get();
+    final LiveQueue previous = queues.get(key);
+    final LiveQueue loaded;
+    if (previous == null) {
+      loaded = install(key, null, fetch(key));
+    } else {
+      synchronized (previous) {
+        if (previous.pendingWrites() > 0) {
+          // Changes queued behind this load are not in the database yet; try again on a later read
+          return previous;
+        }
+        loaded = install(key, previous, fetch(key));
+      }
+    }
+    if (writeThroughs.get() != seenWriteThroughs) {
+      // An entry written meanwhile may have been read before its write landed
+      loaded.markStale();
+    }
+    return loaded;
+  }
+
+  private LiveQueue fetch(LiveQueueKey key) {
+    final long startTime = System.currentTimeMillis();
+    final LiveQueue queue =
+        new LiveQueue(
+            key,
+            queueManagementRepository.getLiveQueueRows(key.clinicId(), key.doctorId(), key.date()),
+            queueManagementRepository.getSlotRows(key.clinicId(), key.doctorId(), key.date()));
+    LOGGER.info(
+        "Loaded live queue for doctor {} and clinic {} on {} with {} entries in {} ms",
+        key.doctorId(),
+        key.clinicId(),
+        key.date(),
+        queue.snapshot().size(),
+        System.currentTimeMillis() - startTime);
+    return queue;
+  }
+
+  private LiveQueue install(LiveQueueKey key, LiveQueue previous, LiveQueue queue) {
+    queues.put(key, queue);
+    for (Integer id : queue.entryIds()) {
+      queuesByEntry.put(id, queue);
+    }
+    if (previous != null) {
+      for (Integer id : previous.entryIds()) {
+        queuesByEntry.remove(id, previous);
+      }
+      if (!queue.hasSameEntries(previous)) {
+        notifyListeners(key, new QueueChangeEvent(QueueChangeEvent.SNAPSHOT, null, null));
+      }
+    }
+    evictPastDays(key.date());
+    return queue;
+  }
+
+  private static boolean applyInMemory(LiveQueue queue, QueueBatchOperation operation) {
+    return switch (operation.getAction()) {
+      case REACHED -> queue.markReached(operation.getId());
+      case VISITED -> queue.markVisited(operation.getId());
+      case CANCELLED, DELETED -> queue.remove(operation.getId());
+    };
+  }
+
+  private static String eventTypeOf(QueueAction action) {
+    return switch (action) {
+      case REACHED -> QueueChangeEvent.REACHED;
+      case VISITED -> QueueChangeEvent.VISITED;
+      case CANCELLED -> QueueChangeEvent.CANCELLED;
+      case DELETED -> QueueChangeEvent.DELETED;
+    };
+  }
+
+  private void notifyListeners(LiveQueueKey key, QueueChangeEvent event) {
+    for (LiveQueueListener listener : listeners) {
+      try {
+        listener.queueChanged(key.clinicId(), key.doctorId(), event);
+      } catch (RuntimeException e) {
+        LOGGER.warn("Live queue listener failed on {} for queue {}", event.type(), key, e);
+      }
+    }
+  }
+
+  private void evictPastDays(LocalDate today) {
+    queues.values().removeIf(queue -> queue.getKey().date().isBefore(today));
+    queuesByEntry.values().removeIf(queue -> queue.getKey().date().isBefore(today));
+  }
+
+  private static <T> T await(Future<T> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while writing a queue change", e);
+    } catch (ExecutionException e) {
+      throw rethrow(e);
+    }
+  }
+
+  private static RuntimeException rethrow(ExecutionException e) {
+    return e.getCause() instanceof RuntimeException cause
+        ? cause
+        : new IllegalStateException(e.getCause());
+  }
+}
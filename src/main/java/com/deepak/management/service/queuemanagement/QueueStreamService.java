@@ -0,0 +1,170 @@
+package com.deepak.management.service.queuemanagement;
+
+import com.deepak.management.model.queuemanagement.QueueChangeEvent;
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Pushes a doctor's live queue to Server-Sent Events subscribers.
+ *
+ * <p>Each subscriber first receives a {@code snapshot} event with today's queue and then one event
+ * per change. Changes are buffered per connection in a queue of {@code queue.live.stream-buffer}
+ * events that is drained by the connection's own virtual thread. When a slow client lets its buffer
+ * fill up, the buffered events are dropped and replaced by a fresh snapshot, so a connection never
+ * holds more than one buffer of events. A comment is sent every {@code
+ * queue.live.stream-heartbeat-seconds} to detect clients that went away.
+ */
+@Service
+public class QueueStreamService implements LiveQueueListener {
+  private static final Logger LOGGER = LoggerFactory.getLogger(QueueStreamService.class);
+  private static final QueueChangeEvent RESYNC =
+      new QueueChangeEvent(QueueChangeEvent.SNAPSHOT, null, null);
+
+  private final LiveQueueService liveQueueService;
+  private final int bufferSize;
+  private final long timeoutMs;
+  private final long heartbeatSeconds;
+  private final Map<String, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+
+  public QueueStreamService(
+      LiveQueueService liveQueueService,
+      @Value("${queue.live.stream-buffer:64}") int bufferSize,
+      @Value("${queue.live.stream-timeout-ms:1800000}") long timeoutMs,
+      @Value("${queue.live.stream-heartbeat-seconds:15}") long heartbeatSeconds) {
+    this.liveQueueService = liveQueueService;
+    this.bufferSize = Math.max(1, bufferSize);
+    this.timeoutMs = timeoutMs;
+    this.heartbeatSeconds = Math.max(1, heartbeatSeconds);
+  }
+
+  // Registered once constructed, so no event reaches a half-initialized listener
+  @PostConstruct
+  void register() {
+    liveQueueService.addListener(this);
+  }
+
+  /**
+   * Opens a stream of a doctor's queue.
+   *
+   * @param clinicId The unique identifier of the clinic.
+   * @param doctorId The unique identifier of the doctor.
+   * @return The emitter to return from the controller.
+   */
+  public SseEmitter subscribe(String clinicId, String doctorId) {
+    final SseEmitter emitter = new SseEmitter(timeoutMs);
+    final Subscription subscription = new Subscription(clinicId, doctorId, emitter);
+    final String key = keyOf(clinicId, doctorId);
+    subscriptions.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(subscription);
+    emitter.onCompletion(() -> close(key, subscription));
+    emitter.onTimeout(() -> close(key, subscription));
+    emitter.onError(e -> close(key, subscription));
+    subscription.offer(RESYNC);
+    subscription.thread =
+        Thread.ofVirtual().name("queue-stream-" + key).start(() -> drain(key, subscription));
+    LOGGER.info("Queue stream opened for doctor {} and clinic {}", doctorId, clinicId);
+    return emitter;
+  }
+
+  @Override
+  public void queueChanged(String clinicId, String doctorId, QueueChangeEvent event) {
+    final Set<Subscription> subscribers = subscriptions.get(keyOf(clinicId, doctorId));
+    if (subscribers != null) {
+      for (Subscription subscription : subscribers) {
+        subscription.offer(event);
+      }
+    }
+  }
+
+  private void drain(String key, Subscription subscription) {
+    try {
+      while (!subscription.closed) {
+        final QueueChangeEvent event = subscription.buffer.poll(heartbeatSeconds, TimeUnit.SECONDS);
+        if (event == null) {
+          subscription.emitter.send(SseEmitter.event().comment("heartbeat"));
+        } else if (QueueChangeEvent.SNAPSHOT.equals(event.type())) {
+          subscription.emitter.send(
+              SseEmitter.event()
+                  .name(QueueChangeEvent.SNAPSHOT)
+                  .data(
+                      liveQueueService.getQueue(subscription.clinicId, subscription.doctorId),
+                      MediaType.APPLICATION_JSON));
+        } else {
+          subscription.emitter.send(
+              SseEmitter.event().name(event.type()).data(event, MediaType.APPLICATION_JSON));
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (IOException | IllegalStateException e) {
+      LOGGER.debug("Queue stream for {} ended: {}", key, e.getMessage());
+      subscription.emitter.completeWithError(e);
+    } catch (RuntimeException e) {
+      LOGGER.warn("Queue stream for {} failed", key, e);
+      subscription.emitter.completeWithError(e);
+    } finally {
+      close(key, subscription);
+    }
+  }
+
+  private void close(String key, Subscription subscription) {
+    synchronized (subscription) {
+      if (subscription.closed) {
+        return;
+      }
+      subscription.closed = true;
+    }
+    subscriptions.computeIfPresent(
+        key,
+        (k, subscribers) -> {
+          subscribers.remove(subscription);
+          return subscribers.isEmpty() ? null : subscribers;
+        });
+    final Thread thread = subscription.thread;
+    if (thread != null && thread != Thread.currentThread()) {
+      thread.interrupt();
+    }
+    LOGGER.info(
+        "Queue stream closed for doctor {} and clinic {}",
+        subscription.doctorId,
+        subscription.clinicId);
+  }
+
+  private static String keyOf(String clinicId, String doctorId) {
+    return clinicId + ":" + doctorId;
+  }
+
+  private final class Subscription {
+    private final String clinicId;
+    private final String doctorId;
+    private final SseEmitter emitter;
+    private final BlockingQueue<QueueChangeEvent> buffer = new ArrayBlockingQueue<>(bufferSize);
+    private volatile Thread thread;
+    private volatile boolean closed;
+
+    private Subscription(String clinicId, String doctorId, SseEmitter emitter) {
+      this.clinicId = clinicId;
+      this.doctorId = doctorId;
+      this.emitter = emitter;
+    }
+
+    /** Buffers an event; a full buffer is replaced by a single snapshot. */
+    private synchronized void offer(QueueChangeEvent event) {
+      if (!buffer.offer(event)) {
+        buffer.clear();
+        buffer.offer(RESYNC);
+      }
+    }
+  }
+}
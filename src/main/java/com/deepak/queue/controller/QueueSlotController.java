@@ -6,7 +6,9 @@ import com.deepak.management.repository.SlotGenerationRepository;
 import com.deepak.queue.model.DoctorAvailabilityInformation;
 import com.deepak.queue.model.QueueTimeSlot;
 import com.deepak.queue.model.SlotGeneration;
+import com.deepak.queue.model.SlotGenerationState;
 import com.deepak.queue.service.QueueSlotCreationService;
+import com.deepak.queue.service.SlotGenerationClaimService;
 import io.swagger.v3.oas.annotations.Hidden;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -158,7 +160,11 @@ public class QueueSlotController {
     List<SlotGeneration> generationList =
         slotGenerationRepository.findBySlotDateAndDoctorIdAndClinicId(
             Date.valueOf(currentDate.format(formatter)), doctorId, clinicId);
-    if (generationList.isEmpty()) {
+    // A day claimed by a concurrent caller is not done yet; the service returns its slots
+    if (generationList.stream()
+        .noneMatch(
+            generation ->
+                SlotGenerationClaimService.stateOf(generation) == SlotGenerationState.DONE)) {
       LOGGER.info("Generated List : {}", 0);
       final List<QueueTimeSlot> timeSlots =
           slotCreationService.getTimeSlotInformation(doctorId, clinicId);
@@ -167,7 +173,6 @@ public class QueueSlotController {
           doctorId,
           clinicId,
           timeSlots);
-      saveSlotGenerationInformation(doctorId, clinicId, timeSlots);
       return timeSlots;
     } else
       throw new SlotAlreadyGeneratedException(
@@ -178,17 +183,4 @@ public class QueueSlotController {
               + " for this day :"
               + currentDate);
   }
-
-  private void saveSlotGenerationInformation(
-      String doctorId, Integer clinicId, List<QueueTimeSlot> timeSlots) {
-    if (!timeSlots.isEmpty()) {
-      final SlotGeneration table = new SlotGeneration();
-      table.setDoctorId(doctorId);
-      table.setClinicId(clinicId);
-      table.setSlotDate(Date.valueOf(LocalDate.now()));
-      table.setStatus(true);
-      table.setNoOfSlots(timeSlots.size());
-      slotGenerationRepository.save(table);
-    }
-  }
 }
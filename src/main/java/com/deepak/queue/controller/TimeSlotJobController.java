@@ -1,11 +1,18 @@
 package com.deepak.queue.controller;
 
+import com.deepak.queue.jobs.SlotGenerationEngine;
 import com.deepak.queue.jobs.TimeSlotJobScheduler;
+import com.deepak.queue.model.SlotGenerationPartition;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.List;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -16,14 +23,18 @@ import org.springframework.web.bind.annotation.RestController;
 public class TimeSlotJobController {
 
   private final TimeSlotJobScheduler timeSlotJobScheduler;
+  private final SlotGenerationEngine slotGenerationEngine;
 
-  public TimeSlotJobController(TimeSlotJobScheduler timeSlotJobScheduler) {
+  public TimeSlotJobController(
+      TimeSlotJobScheduler timeSlotJobScheduler, SlotGenerationEngine slotGenerationEngine) {
     this.timeSlotJobScheduler = timeSlotJobScheduler;
+    this.slotGenerationEngine = slotGenerationEngine;
   }
 
   @Operation(
       summary = "Generate time slots",
-      description = "Manually triggers the generation of time slots for all doctors for today")
+      description =
+          "Manually triggers the generation of time slots for all doctors for the configured horizon")
   @ApiResponses(
       value = {
         @ApiResponse(responseCode = "200", description = "Time slots generated successfully"),
@@ -41,4 +52,25 @@ public class TimeSlotJobController {
           .body("Error generating time slots: " + e.getMessage());
     }
   }
+
+  @Operation(
+      summary = "Get slot generation progress",
+      description =
+          "Returns per clinic progress and timings of the current or most recent slot generation run")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Partition progress retrieved successfully",
+            content =
+                @Content(
+                    mediaType = "application/json",
+                    array =
+                        @ArraySchema(
+                            schema = @Schema(implementation = SlotGenerationPartition.class))))
+      })
+  @GetMapping("/generate-slots/progress")
+  public List<SlotGenerationPartition> getTimeSlotGenerationProgress() {
+    return slotGenerationEngine.getLastRun();
+  }
 }
@@ -0,0 +1,38 @@
+package com.deepak.queue.jobs;
+
+import com.deepak.management.config.DatabaseBulkhead;
+import com.deepak.management.service.BlacklistedAccessTokenService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Component responsible for purging revoked access tokens that have expired.
+ *
+ * <p>Runs on the {@code jwt.revocation.purge-cron} expression, hourly by default, and deletes the
+ * expiry buckets of every hour that has fully passed.
+ */
+@Component
+public class BlacklistedTokenPurgeScheduler {
+  private static final Logger LOGGER =
+      LoggerFactory.getLogger(BlacklistedTokenPurgeScheduler.class);
+  private final BlacklistedAccessTokenService blacklistedAccessTokenService;
+  private final DatabaseBulkhead databaseBulkhead;
+
+  public BlacklistedTokenPurgeScheduler(
+      BlacklistedAccessTokenService blacklistedAccessTokenService,
+      DatabaseBulkhead databaseBulkhead) {
+    this.blacklistedAccessTokenService = blacklistedAccessTokenService;
+    this.databaseBulkhead = databaseBulkhead;
+  }
+
+  @Scheduled(cron = "${jwt.revocation.purge-cron:0 5 * * * *}")
+  public void purgeExpiredTokens() {
+    databaseBulkhead.runAsJob(
+        () -> {
+          LOGGER.info("Starting purge of expired blacklisted access tokens");
+          blacklistedAccessTokenService.removeExpiredTokens();
+        });
+  }
+}
@@ -1,5 +1,6 @@
 package com.deepak.queue.jobs;
 
+import com.deepak.management.config.DatabaseBulkhead;
 import com.deepak.management.repository.RefreshTokenRepository;
 import java.time.Instant;
 import org.slf4j.Logger;
@@ -19,18 +20,25 @@ public class RefreshTokenPurgeScheduler {
   private static final Logger LOGGER = LoggerFactory.getLogger(RefreshTokenPurgeScheduler.class);
   private final RefreshTokenRepository refreshTokenRepository;
   private final CronJobService cronJobService;
+  private final DatabaseBulkhead databaseBulkhead;
 
   public RefreshTokenPurgeScheduler(
-      RefreshTokenRepository refreshTokenRepository, CronJobService cronJobService) {
+      RefreshTokenRepository refreshTokenRepository,
+      CronJobService cronJobService,
+      DatabaseBulkhead databaseBulkhead) {
     this.refreshTokenRepository = refreshTokenRepository;
     this.cronJobService = cronJobService;
+    this.databaseBulkhead = databaseBulkhead;
   }
 
   @Scheduled(cron = "#{@cronJobService.getCronExpression(2)}")
   public void purgeExpiredRefreshTokens() {
-    LOGGER.info("Starting purge of expired refresh tokens");
-    refreshTokenRepository.deleteByExpiryDateBefore(Instant.now());
-    LOGGER.info("Purge of expired refresh tokens completed");
-    cronJobService.updateLastRun(2);
+    databaseBulkhead.runAsJob(
+        () -> {
+          LOGGER.info("Starting purge of expired refresh tokens");
+          refreshTokenRepository.deleteByExpiryDateBefore(Instant.now());
+          LOGGER.info("Purge of expired refresh tokens completed");
+          cronJobService.updateLastRun(2);
+        });
   }
 }
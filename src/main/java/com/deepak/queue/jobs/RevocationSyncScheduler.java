@@ -0,0 +1,37 @@
+package com.deepak.queue.jobs;
+
+import com.deepak.management.config.DatabaseBulkhead;
+import com.deepak.management.service.BlacklistedAccessTokenService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the in-memory blacklist of access tokens in step with the database.
+ *
+ * <p>The first run, at startup, loads every unexpired revocation; later runs read the revocations
+ * made since, by any instance, every {@code jwt.revocation.poll-ms} milliseconds.
+ */
+@Component
+public class RevocationSyncScheduler {
+  private static final Logger LOGGER = LoggerFactory.getLogger(RevocationSyncScheduler.class);
+  private final BlacklistedAccessTokenService blacklistedAccessTokenService;
+  private final DatabaseBulkhead databaseBulkhead;
+
+  public RevocationSyncScheduler(
+      BlacklistedAccessTokenService blacklistedAccessTokenService,
+      DatabaseBulkhead databaseBulkhead) {
+    this.blacklistedAccessTokenService = blacklistedAccessTokenService;
+    this.databaseBulkhead = databaseBulkhead;
+  }
+
+  @Scheduled(fixedDelayString = "${jwt.revocation.poll-ms:2000}")
+  public void syncRevocations() {
+    try {
+      databaseBulkhead.runAsJob(blacklistedAccessTokenService::syncRevocations);
+    } catch (RuntimeException e) {
+      LOGGER.warn("Could not read revoked access tokens: {}", e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,154 @@
+package com.deepak.queue.jobs;
+
+import com.deepak.management.config.DatabaseBulkhead;
+import com.deepak.management.model.doctor.DoctorInformation;
+import com.deepak.queue.model.SlotGenerationPartition;
+import com.deepak.queue.service.QueueSlotCreationService;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs slot generation for many doctors in parallel.
+ *
+ * <p>Doctors are partitioned by clinic and each partition is processed sequentially on its own
+ * virtual thread in the job lane of the {@link DatabaseBulkhead}. A semaphore bounds how many
+ * partitions run at the same time to the lane's permits, so partitions never wait on each other for
+ * a connection and web traffic keeps its own permits.
+ *
+ * <p>Each doctor is generated for a rolling horizon of {@code slot.generation.horizon-days} dates
+ * starting today; dates that were generated by an earlier run are skipped.
+ */
+@Component
+public class SlotGenerationEngine {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SlotGenerationEngine.class);
+  private final QueueSlotCreationService slotCreationService;
+  private final DatabaseBulkhead databaseBulkhead;
+  private final int concurrency;
+  private final int horizonDays;
+  private volatile List<SlotGenerationPartition> lastRun = List.of();
+
+  public SlotGenerationEngine(
+      QueueSlotCreationService slotCreationService,
+      DatabaseBulkhead databaseBulkhead,
+      @Value("${slot.generation.concurrency:4}") int configuredConcurrency,
+      @Value("${db.bulkhead.job-permits:3}") int jobPermits,
+      @Value("${slot.generation.horizon-days:7}") int horizonDays) {
+    this.slotCreationService = slotCreationService;
+    this.databaseBulkhead = databaseBulkhead;
+    this.horizonDays = Math.max(1, horizonDays);
+    this.concurrency = Math.max(1, Math.min(configuredConcurrency, jobPermits));
+    LOGGER.info(
+        "Slot generation concurrency set to {} (configured {}, job permits {})",
+        this.concurrency,
+        configuredConcurrency,
+        jobPermits);
+  }
+
+  /**
+   * Generates the horizon's missing slots for the given doctors and blocks until every partition
+   * has finished.
+   *
+   * <p>A failure for one doctor is logged and counted against its partition; it does not stop the
+   * rest of the partition or the run.
+   *
+   * @param doctors The doctors to generate slots for.
+   * @return The partitions of this run with their final progress and timings.
+   */
+  public List<SlotGenerationPartition> generate(List<DoctorInformation> doctors) {
+    final Map<Integer, List<DoctorInformation>> byClinic = new LinkedHashMap<>();
+    for (DoctorInformation doctor : doctors) {
+      byClinic.computeIfAbsent(doctor.getClinicId(), k -> new ArrayList<>()).add(doctor);
+    }
+
+    final List<SlotGenerationPartition> partitions = new ArrayList<>(byClinic.size());
+    byClinic.forEach(
+        (clinicId, clinicDoctors) ->
+            partitions.add(new SlotGenerationPartition(clinicId, clinicDoctors.size())));
+    this.lastRun = List.copyOf(partitions);
+
+    LOGGER.info(
+        "Generating {} days of slots for {} doctors in {} clinic partitions with concurrency {}",
+        horizonDays,
+        doctors.size(),
+        partitions.size(),
+        concurrency);
+    final long startTime = System.currentTimeMillis();
+    final LocalDate startDate = LocalDate.now();
+    final Semaphore permits = new Semaphore(concurrency);
+
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      int index = 0;
+      for (List<DoctorInformation> clinicDoctors : byClinic.values()) {
+        final SlotGenerationPartition partition = partitions.get(index++);
+        executor.submit(
+            () ->
+                databaseBulkhead.runAsJob(
+                    () -> runPartition(partition, clinicDoctors, startDate, permits)));
+      }
+    }
+
+    LOGGER.info(
+        "Slot generation for {} partitions completed in {} ms",
+        partitions.size(),
+        System.currentTimeMillis() - startTime);
+    return partitions;
+  }
+
+  /**
+   * Returns the partitions of the current or most recent run. Partitions that are still running
+   * report live progress.
+   */
+  public List<SlotGenerationPartition> getLastRun() {
+    return lastRun;
+  }
+
+  private void runPartition(
+      SlotGenerationPartition partition,
+      List<DoctorInformation> doctors,
+      LocalDate startDate,
+      Semaphore permits) {
+    try {
+      permits.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      LOGGER.warn("Slot generation for clinic {} interrupted", partition.getClinicId());
+      return;
+    }
+    try {
+      partition.markStarted();
+      for (DoctorInformation doctor : doctors) {
+        try {
+          slotCreationService.generateTimeSlotsForHorizon(
+              doctor.getDoctorId(), doctor.getClinicId(), startDate, horizonDays);
+          partition.recordSuccess();
+        } catch (RuntimeException e) {
+          partition.recordFailure();
+          LOGGER.error(
+              "Slot generation failed for doctor {} in clinic {}: {}",
+              doctor.getDoctorId(),
+              doctor.getClinicId(),
+              e.getMessage());
+        }
+      }
+    } finally {
+      partition.markFinished();
+      permits.release();
+      LOGGER.info(
+          "Time taken for generating Slot information for Clinic {} is {} ms ({} ok, {} failed)",
+          partition.getClinicId(),
+          partition.getDurationMs(),
+          partition.getCompleted(),
+          partition.getFailed());
+    }
+  }
+}
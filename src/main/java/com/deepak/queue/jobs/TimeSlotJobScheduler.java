@@ -1,7 +1,7 @@
 package com.deepak.queue.jobs;
 
+import com.deepak.management.config.DatabaseBulkhead;
 import com.deepak.management.repository.DoctorInformationRepository;
-import com.deepak.queue.service.QueueSlotCreationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -12,42 +12,35 @@ import org.springframework.stereotype.Component;
  * doctors.
  *
  * <p>This scheduler relies on a cron expression, dynamically retrieved via the {@link
- * CronJobService}, to trigger the slot generation process. It iterates through all registered
- * doctors and invokes the slot creation logic for each one.
+ * CronJobService}, to trigger the slot generation process. All registered doctors are handed to the
+ * {@link SlotGenerationEngine}, which processes them in parallel clinic partitions.
  */
 @Component
 public class TimeSlotJobScheduler {
   private static final Logger LOGGER = LoggerFactory.getLogger(TimeSlotJobScheduler.class);
   private final DoctorInformationRepository repository;
-  private final QueueSlotCreationService slotCreationService;
+  private final SlotGenerationEngine slotGenerationEngine;
   private final CronJobService cronJobService;
+  private final DatabaseBulkhead databaseBulkhead;
 
   public TimeSlotJobScheduler(
       DoctorInformationRepository repository,
-      QueueSlotCreationService slotCreationService,
-      CronJobService cronJobService) {
+      SlotGenerationEngine slotGenerationEngine,
+      CronJobService cronJobService,
+      DatabaseBulkhead databaseBulkhead) {
     this.repository = repository;
-    this.slotCreationService = slotCreationService;
+    this.slotGenerationEngine = slotGenerationEngine;
     this.cronJobService = cronJobService;
+    this.databaseBulkhead = databaseBulkhead;
   }
 
   @Scheduled(cron = "#{@cronJobService.getCronExpression(1)}")
   public void scheduleTimeSlotJobForToday() {
-    LOGGER.info("TimeSlotJobScheduler: {}", cronJobService.getCronExpression(1));
-    repository
-        .findAll()
-        .forEach(
-            doctorInformation -> {
-              final long startTime = System.currentTimeMillis();
-              slotCreationService.getTimeSlotInformation(
-                  doctorInformation.getDoctorId(), doctorInformation.getClinicId());
-              final long endTime = System.currentTimeMillis();
-              final long timeTaken = endTime - startTime;
-              LOGGER.info(
-                  "Time taken for generating Slot information for Doctor {} is {} ms",
-                  doctorInformation.getDoctorId(),
-                  timeTaken);
-            });
-    cronJobService.updateLastRun(1);
+    databaseBulkhead.runAsJob(
+        () -> {
+          LOGGER.info("TimeSlotJobScheduler: {}", cronJobService.getCronExpression(1));
+          slotGenerationEngine.generate(repository.findAll());
+          cronJobService.updateLastRun(1);
+        });
   }
 }
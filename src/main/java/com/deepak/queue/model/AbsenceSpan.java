@@ -0,0 +1,9 @@
+package com.deepak.queue.model;
+
+import java.time.LocalDate;
+
+/**
+ * The doctor-day and time range covered by one absence, captured so that a change to the absence
+ * can be compared with its previous state.
+ */
+public record AbsenceSpan(String doctorId, Integer clinicId, LocalDate date, MinuteRange range) {}
@@ -0,0 +1,23 @@
+package com.deepak.queue.model;
+
+/**
+ * Half-open range {@code [start, end)} of minutes on a doctor-day timeline.
+ *
+ * <p>Minute 0 is midnight at the start of the day. Ranges that cross midnight continue past minute
+ * 1440 instead of wrapping, so a shift from 22:00 to 02:00 is {@code [1320, 1560)}.
+ */
+public record MinuteRange(int start, int end) {
+
+  public int length() {
+    return end - start;
+  }
+
+  public boolean isEmpty() {
+    return end <= start;
+  }
+
+  /** Returns true when the two ranges share at least one minute. */
+  public boolean overlaps(MinuteRange other) {
+    return start < other.end && other.start < end;
+  }
+}
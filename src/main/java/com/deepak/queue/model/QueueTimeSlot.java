@@ -2,6 +2,7 @@ package com.deepak.queue.model;
 
 import com.deepak.management.model.common.ShiftTime;
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.v3.oas.annotations.Hidden;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.Column;
@@ -9,6 +10,9 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import lombok.Getter;
@@ -19,6 +23,12 @@ import lombok.ToString;
 @Setter
 @JsonAutoDetect
 @Entity(name = "slot_information")
+@Table(
+    name = "slot_information",
+    indexes =
+        @Index(
+            name = "idx_slot_doctor_clinic_date_time",
+            columnList = "doctor_id, clinic_id, slot_date, slot_time"))
 @ToString
 public class QueueTimeSlot {
   @Id
@@ -54,4 +64,29 @@ public class QueueTimeSlot {
   @Column(name = "is_available")
   @Schema(description = "Availability", example = "true")
   private boolean isAvailable;
+
+  // Bumped by every update, so writers can compare-and-set
+  @Version
+  @Column(name = "version")
+  @JsonIgnore
+  @Hidden
+  private Long version;
+
+  /**
+   * Copies a loaded slot so that changes made by a batch writer are not written again by dirty
+   * checking of the managed entity.
+   */
+  public static QueueTimeSlot copyOf(QueueTimeSlot slot) {
+    final QueueTimeSlot copy = new QueueTimeSlot();
+    copy.setSlotId(slot.getSlotId());
+    copy.setSlotNo(slot.getSlotNo());
+    copy.setShiftTime(slot.getShiftTime());
+    copy.setSlotTime(slot.getSlotTime());
+    copy.setClinicId(slot.getClinicId());
+    copy.setDoctorId(slot.getDoctorId());
+    copy.setSlotDate(slot.getSlotDate());
+    copy.setAvailable(slot.isAvailable());
+    copy.setVersion(slot.getVersion());
+    return copy;
+  }
 }
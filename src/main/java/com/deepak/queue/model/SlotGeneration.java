@@ -6,10 +6,15 @@ import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import java.sql.Date;
+import java.time.LocalDateTime;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
@@ -22,6 +27,12 @@ import org.springframework.format.annotation.DateTimeFormat;
 @JsonAutoDetect
 @ToString
 @Entity(name = "slot_generation_information")
+@Table(
+    name = "slot_generation_information",
+    uniqueConstraints =
+        @UniqueConstraint(
+            name = "uq_slot_generation_doctor_clinic_date",
+            columnNames = {"doctor_id", "clinic_id", "slot_date"}))
 public class SlotGeneration {
   @GeneratedValue(strategy = GenerationType.IDENTITY)
   @Id
@@ -49,4 +60,17 @@ public class SlotGeneration {
   @Column(name = "slots")
   @Schema(description = "No of Slots", example = "10")
   private Integer noOfSlots;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "state", length = 10)
+  @Schema(description = "Generation state", example = "DONE")
+  private SlotGenerationState state;
+
+  @Column(name = "claimed_at")
+  @Schema(description = "Time the day was last claimed", example = "2024-12-12T00:00:00")
+  private LocalDateTime claimedAt;
+
+  @Column(name = "claim_token", length = 36)
+  @Schema(description = "Token of the generator holding the claim", hidden = true)
+  private String claimToken;
 }
@@ -0,0 +1,20 @@
+package com.deepak.queue.model;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * The doctor-days one generator run has claimed.
+ *
+ * @param token Identifies the run in {@code claim_token}; only this run may complete the days.
+ * @param dates The claimed dates, in the order they were requested.
+ */
+public record SlotGenerationClaim(String token, List<LocalDate> dates) {
+  public SlotGenerationClaim {
+    dates = List.copyOf(dates);
+  }
+
+  public boolean isEmpty() {
+    return dates.isEmpty();
+  }
+}
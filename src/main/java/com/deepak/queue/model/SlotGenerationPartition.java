@@ -0,0 +1,83 @@
+package com.deepak.queue.model;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Progress and timing of one clinic partition of a slot generation run.
+ *
+ * <p>The counters are updated by the worker thread that owns the partition while it is running and
+ * may be read concurrently by the scheduler status endpoint.
+ */
+@Getter
+@ToString
+@JsonAutoDetect
+public class SlotGenerationPartition {
+
+  @Schema(description = "Clinic Id", example = "1")
+  private final Integer clinicId;
+
+  @Schema(description = "No of doctors in the partition", example = "12")
+  private final int doctorCount;
+
+  @Getter(lombok.AccessLevel.NONE)
+  private final AtomicInteger completed = new AtomicInteger();
+
+  @Getter(lombok.AccessLevel.NONE)
+  private final AtomicInteger failed = new AtomicInteger();
+
+  @Schema(description = "Time the partition started processing")
+  private volatile Instant startedAt;
+
+  @Schema(description = "Time the partition finished processing")
+  private volatile Instant finishedAt;
+
+  public SlotGenerationPartition(Integer clinicId, int doctorCount) {
+    this.clinicId = clinicId;
+    this.doctorCount = doctorCount;
+  }
+
+  public void markStarted() {
+    this.startedAt = Instant.now();
+  }
+
+  public void markFinished() {
+    this.finishedAt = Instant.now();
+  }
+
+  public void recordSuccess() {
+    this.completed.incrementAndGet();
+  }
+
+  public void recordFailure() {
+    this.failed.incrementAndGet();
+  }
+
+  @Schema(description = "No of doctors processed successfully", example = "11")
+  public int getCompleted() {
+    return completed.get();
+  }
+
+  @Schema(description = "No of doctors that failed", example = "1")
+  public int getFailed() {
+    return failed.get();
+  }
+
+  @Schema(description = "Wall clock time spent on the partition in milliseconds", example = "840")
+  public long getDurationMs() {
+    if (startedAt == null) {
+      return 0L;
+    }
+    final Instant end = finishedAt != null ? finishedAt : Instant.now();
+    return end.toEpochMilli() - startedAt.toEpochMilli();
+  }
+
+  @Schema(description = "True once every doctor in the partition has been processed")
+  public boolean isDone() {
+    return finishedAt != null;
+  }
+}
@@ -0,0 +1,14 @@
+package com.deepak.queue.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/** Lifecycle of a {@link SlotGeneration} claim for one doctor-day. */
+@Schema(enumAsRef = true)
+public enum SlotGenerationState {
+  /** A generator has claimed the day and is writing its slots. */
+  CLAIMED,
+  /** The day's slots have been written. */
+  DONE,
+  /** Generation failed; the day may be claimed again. */
+  FAILED
+}
@@ -2,6 +2,7 @@ package com.deepak.queue.service;
 
 import com.deepak.queue.model.DoctorAvailabilityInformation;
 import com.deepak.queue.model.QueueTimeSlot;
+import java.time.LocalDate;
 import java.util.List;
 import org.springframework.stereotype.Service;
 
@@ -11,4 +12,7 @@ public interface QueueSlotCreationService {
   DoctorAvailabilityInformation getDetailsForSlotCreation(String doctorId, Integer clinicId);
 
   List<QueueTimeSlot> getTimeSlotInformation(String doctorId, Integer clinicId);
+
+  List<QueueTimeSlot> generateTimeSlotsForHorizon(
+      String doctorId, Integer clinicId, LocalDate startDate, int days);
 }
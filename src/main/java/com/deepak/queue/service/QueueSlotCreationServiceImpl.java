@@ -1,5 +1,7 @@
 package com.deepak.queue.service;
 
+import com.deepak.management.exception.SlotGenerationClaimLostException;
+import com.deepak.management.exception.SlotGenerationPendingException;
 import com.deepak.management.model.common.DoctorAvailability;
 import com.deepak.management.model.common.ShiftTime;
 import com.deepak.management.model.doctor.DoctorAbsenceInformation;
@@ -7,16 +9,23 @@ import com.deepak.management.model.doctor.DoctorInformation;
 import com.deepak.management.repository.DoctorAbsenceInformationRepository;
 import com.deepak.management.repository.DoctorInformationRepository;
 import com.deepak.management.repository.SlotGenerationRepository;
+import com.deepak.management.repository.SlotInformationBulkWriter;
 import com.deepak.management.repository.SlotInformationRepository;
 import com.deepak.queue.model.*;
 import java.sql.Date;
 import java.sql.Time;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -24,79 +33,85 @@ import org.springframework.stereotype.Service;
 @Service
 public class QueueSlotCreationServiceImpl implements QueueSlotCreationService {
   private static final Logger LOGGER = LoggerFactory.getLogger(QueueSlotCreationServiceImpl.class);
+  // Fresh claims on a day another caller failed to generate, before giving up
+  private static final int GENERATION_ATTEMPTS = 3;
   private final DoctorInformationRepository doctorInformationRepository;
   private final DoctorAbsenceInformationRepository doctorAbsenceInformationRepository;
   private final SlotInformationRepository slotInformationRepository;
   private final SlotGenerationRepository slotGenerationRepository;
+  private final WeeklyScheduleTemplateCache weeklyScheduleTemplateCache;
+  private final SlotGenerationClaimService slotGenerationClaimService;
 
   public QueueSlotCreationServiceImpl(
       DoctorInformationRepository doctorInformationRepository,
       DoctorAbsenceInformationRepository doctorAbsenceInformationRepository,
       SlotInformationRepository slotInformationRepository,
-      SlotGenerationRepository slotGenerationRepository) {
+      SlotGenerationRepository slotGenerationRepository,
+      WeeklyScheduleTemplateCache weeklyScheduleTemplateCache,
+      SlotGenerationClaimService slotGenerationClaimService) {
     this.doctorInformationRepository = doctorInformationRepository;
     this.doctorAbsenceInformationRepository = doctorAbsenceInformationRepository;
     this.slotInformationRepository = slotInformationRepository;
     this.slotGenerationRepository = slotGenerationRepository;
+    this.weeklyScheduleTemplateCache = weeklyScheduleTemplateCache;
+    this.slotGenerationClaimService = slotGenerationClaimService;
   }
 
-  private static final int BATCH_SIZE = 100;
+  private static final DateTimeFormatter ABSENCE_DATE_FORMAT =
+      DateTimeFormatter.ofPattern("dd-MM-yyyy");
 
   /**
-   * Removes time slots from a list of queue time slots if they coincide with any doctor's absence
-   * periods.
+   * Converts the day's absences into a merged absence timeline.
    *
-   * <p>This method iterates through the {@code queueTimeSlots} and removes any slot whose time
-   * matches a slot time present in the {@code queueAbsenceTimeSlots} list. The comparison is based
-   * on the exact time of the slot.
+   * <p>Each {@link DoctorAbsenceInformation} is turned into a {@link MinuteRange}; absences that
+   * end at or before their start run past midnight. The resulting ranges are merged and sorted by
+   * {@link SlotIntervals#absenceTimeline(List)} so they can be subtracted from every shift in one
+   * pass.
    *
-   * @param queueTimeSlots A list of {@link QueueTimeSlot} objects, representing all initially
-   *     generated slots. This list is modified in place.
-   * @param queueAbsenceTimeSlots A list of {@link QueueTimeSlot} objects, representing the periods
-   *     when the doctor is absent.
+   * @param dayAbsences The absences recorded for the doctor on the day being generated.
+   * @return Disjoint absence ranges sorted by start minute; empty when there are no absences.
    */
-  private static void removeDoctorAbsence(
-      List<QueueTimeSlot> queueTimeSlots, List<QueueTimeSlot> queueAbsenceTimeSlots) {
-    if (queueTimeSlots == null
-        || queueAbsenceTimeSlots == null
-        || queueTimeSlots.isEmpty()
-        || queueAbsenceTimeSlots.isEmpty()) {
-      LOGGER.info("No slots to remove for doctor absence - one of the lists is empty or null");
-      return; // No action needed if either list is null or empty
+  static List<MinuteRange> buildAbsenceTimeline(List<DoctorAbsenceInformation> dayAbsences) {
+    if (dayAbsences == null || dayAbsences.isEmpty()) {
+      return List.of();
     }
-
+    final List<MinuteRange> absences = new ArrayList<>(dayAbsences.size());
+    for (DoctorAbsenceInformation absence : dayAbsences) {
+      if (absence.getAbsenceStartTime() == null || absence.getAbsenceEndTime() == null) {
+        LOGGER.warn("Skipping absence {} without start or end time", absence.getId());
+        continue;
+      }
+      absences.add(
+          SlotIntervals.absenceRange(
+              absence.getAbsenceStartTime().toLocalTime(),
+              absence.getAbsenceEndTime().toLocalTime()));
+    }
+    final List<MinuteRange> timeline = SlotIntervals.absenceTimeline(absences);
     LOGGER.info(
-        "Removing doctor absences: checking {} slots against {} absence periods",
-        queueTimeSlots.size(),
-        queueAbsenceTimeSlots.size());
-
-    int initialSize = queueTimeSlots.size();
-
-    // Remove slots from queueTimeSlots if their slotTime matches any slotTime in
-    // queueAbsenceTimeSlots
-    queueTimeSlots.removeIf(
-        slot1 -> { // Iterate through each slot in the main list
-          boolean shouldRemove =
-              queueAbsenceTimeSlots.stream() // Stream the absence slots for comparison
-                  .anyMatch( // Check if any absence slot matches the current main slot
-                      slot2 ->
-                          slot1 != null // Ensure main slot is not null
-                              && slot2 != null // Ensure absence slot is not null
-                              && slot1.getSlotTime() != null // Ensure main slot time is not null
-                              && slot1
-                                  .getSlotTime()
-                                  .equals(
-                                      slot2.getSlotTime()) // Compare the string representation of
-                      // slot times
-                      );
-          if (shouldRemove && LOGGER.isDebugEnabled()) {
-            LOGGER.debug("Removing slot at time {} due to doctor absence", slot1.getSlotTime());
-          }
-          return shouldRemove;
-        });
+        "Built absence timeline of {} ranges from {} absences", timeline.size(), absences.size());
+    return timeline;
+  }
 
-    int removedCount = initialSize - queueTimeSlots.size();
-    LOGGER.info("Removed {} slots due to doctor absence", removedCount);
+  /**
+   * Groups absences by the date they were recorded for.
+   *
+   * @param absences Absences loaded for a date range.
+   * @return Absences keyed by date; dates without absences are absent from the map.
+   */
+  static Map<LocalDate, List<DoctorAbsenceInformation>> groupAbsencesByDate(
+      List<DoctorAbsenceInformation> absences) {
+    final Map<LocalDate, List<DoctorAbsenceInformation>> byDate = new HashMap<>();
+    for (DoctorAbsenceInformation absence : absences) {
+      if (absence.getAbsenceDate() == null) {
+        continue;
+      }
+      byDate
+          .computeIfAbsent(
+              LocalDate.parse(absence.getAbsenceDate(), ABSENCE_DATE_FORMAT),
+              k -> new ArrayList<>())
+          .add(absence);
+    }
+    return byDate;
   }
 
   /**
@@ -110,7 +125,7 @@ public class QueueSlotCreationServiceImpl implements QueueSlotCreationService {
    * @param queueTimeSlots The list of {@link QueueTimeSlot} objects to be reordered. This list is
    *     modified in place.
    */
-  private static void reorderQueueNumbers(List<QueueTimeSlot> queueTimeSlots) {
+  static void reorderQueueNumbers(List<QueueTimeSlot> queueTimeSlots) {
     // Reorder queue numbers for each shift type (MORNING, AFTERNOON, EVENING, NIGHT)
     if (queueTimeSlots == null || queueTimeSlots.isEmpty()) {
       LOGGER.info("No queue time slots to reorder");
@@ -172,7 +187,8 @@ public class QueueSlotCreationServiceImpl implements QueueSlotCreationService {
    * <ul>
    *   <li>Doctor's general information and weekly availability schedule.
    *   <li>Specific absences recorded for the doctor at the clinic for the current date.
-   *   <li>Any queue time slots that might already exist for the doctor at the clinic.
+   *   <li>Any queue time slots that already exist for the doctor at the clinic for the current
+   *       date.
    * </ul>
    *
    * The collected information is then compiled into a {@link DoctorAvailabilityInformation} object.
@@ -196,7 +212,7 @@ public class QueueSlotCreationServiceImpl implements QueueSlotCreationService {
         this.doctorAbsenceInformationRepository.findByAbsenceDateAndClinicIdAndDoctorId(
             Date.valueOf(LocalDate.now()), clinicId, doctorId);
     final List<QueueTimeSlot> queueTimeSlots =
-        this.slotInformationRepository.findByDoctorIdAndClinicId(doctorId, clinicId);
+        this.findSlotsInShiftOrder(doctorId, clinicId, LocalDate.now());
     LOGGER.info("Doctor Availability Information: {}", information);
     List<DoctorAvailability> todayAvailability =
         this.filterShiftDetails(
@@ -232,44 +248,43 @@ public class QueueSlotCreationServiceImpl implements QueueSlotCreationService {
    * current day.
    *
    * <p>Overall goal: This method is responsible for ensuring that a complete and accurate list of
-   * time slots is available for a doctor for the current day. It first checks if slots have already
-   * been generated to avoid redundant processing. If not, it proceeds to generate them based on the
-   * doctor's availability and absences.
+   * time slots is available for a doctor for the current day. Generation is attempted through
+   * {@link #generateTimeSlotsForHorizon(String, Integer, LocalDate, int)} with a one-day horizon,
+   * which only does any work when this caller wins the day's claim.
    *
-   * <p>Initial check for existing slots: Before any generation logic, the method queries the {@code
-   * slotGenerationRepository} to see if an entry exists for the given {@code doctorId}, {@code
-   * clinicId}, and the current date. If such an entry exists (indicating slots were previously
-   * generated), it fetches these slots directly from the {@code slotInformationRepository} and
-   * returns them, filtering for the current date.
+   * <p>Existing slots: If the day was already generated, or another caller holds the claim, the
+   * method waits for that caller to finish and returns the current date's slots from the {@code
+   * slotInformationRepository} through the {@code (doctor_id, clinic_id, slot_date, slot_time)}
+   * index. Concurrent callers therefore all see the winner's slots. When the other caller's
+   * generation fails, the day is claimed and generated again here; when it is still running after
+   * {@code slot.generation.claim-wait-ms}, a {@link SlotGenerationPendingException} is thrown
+   * rather than returning a partial or empty day.
    *
-   * <p>Slot generation process (if no existing slots are found):
+   * <p>Slot generation process (for the caller that wins the claim):
    *
    * <ul>
-   *   <li><b>Fetch Details:</b> It calls {@link #getDetailsForSlotCreation(String, Integer)} to
-   *       obtain the doctor's general availability (shifts, consultation time) and any specific
-   *       absences recorded for the current day.
-   *   <li><b>Iterate Shifts:</b> The method iterates through each {@link DoctorAvailability} (shift
+   *   <li><b>Fetch Details:</b> It obtains the doctor's compiled {@link WeeklyScheduleTemplate}
+   *       from the {@link WeeklyScheduleTemplateCache} and loads any absences recorded for the day.
+   *       The availability JSON is only parsed again after the doctor's schedule version changes.
+   *   <li><b>Iterate Shifts:</b> The method iterates through each {@link ShiftTemplate} (shift
    *       detail like MORNING, AFTERNOON, EVENING) defined for the doctor on the current day.
-   *   <li><b>Consultation Time & Slot Creation:</b> Within each shift, it uses the {@code
-   *       shiftDetail.getConsultationTime()} to iteratively create individual {@link QueueTimeSlot}
-   *       objects. Each slot's start time is determined by adding the consultation duration to the
-   *       previous slot's start time.
-   *   <li><b>Absence Handling:</b> Doctor absences (both full-day and partial-day) are considered.
-   *       The logic identifies absence periods. While initial slots might be created during these
-   *       absence times, a subsequent call to {@link #removeDoctorAbsence(List, List)} is made.
-   *       This utility method filters out any generated slots that fall within the actual absence
-   *       periods specified in {@code queueAbsenceTimeSlots}.
+   *   <li><b>Consultation Time & Slot Creation:</b> Each shift template already holds the slot
+   *       times laid out on a grid starting at the shift start and advancing by the consultation
+   *       time, so generating the day copies those times into {@link QueueTimeSlot} objects.
+   *   <li><b>Absence Handling:</b> Doctor absences (both full-day and partial-day) are merged into
+   *       an absence timeline by {@link #buildAbsenceTimeline(List)} and subtracted from each shift
+   *       with {@link SlotIntervals}. Any slot that overlaps an absence, even partially, is left
+   *       out. Shifts and absences that cross midnight are handled on the same timeline.
    *   <li><b>Reorder Queue Numbers:</b> After slots are generated and absences are accounted for,
    *       {@link #reorderQueueNumbers(List)} is called to ensure that the {@code slotNo} attribute
    *       of each {@code QueueTimeSlot} is sequential within its respective shift period (e.g.,
    *       MORNING slots are numbered 1, 2, 3,...).
-   *   <li><b>Batch Saving:</b> The newly created and processed {@code QueueTimeSlot} objects are
-   *       saved to the {@code slotInformationRepository} in batches (defined by {@code BATCH_SIZE})
-   *       to optimize database operations and manage memory.
-   *   <li><b>Record Generation:</b> Finally, a {@link SlotGeneration} record is created and saved
-   *       to the {@code slotGenerationRepository}. This record marks that slots have been generated
-   *       for the doctor, clinic, and date, and includes the total number of slots created. This
-   *       prevents re-generation on subsequent calls for the same day.
+   *   <li><b>Bulk Saving:</b> The newly created and processed {@code QueueTimeSlot} objects are
+   *       written by {@link SlotInformationBulkWriter} with multi-row INSERT statements, since the
+   *       IDENTITY key of {@code slot_information} prevents Hibernate from batching inserts.
+   *   <li><b>Record Generation:</b> Finally, the day's {@link SlotGeneration} claim is moved to
+   *       {@code DONE} together with the total number of slots created, in the same transaction as
+   *       the slots. This prevents re-generation on subsequent calls for the same day.
    * </ul>
    *
    * @param doctorId The unique identifier of the doctor for whom slots are to be
@@ -281,148 +296,240 @@ public class QueueSlotCreationServiceImpl implements QueueSlotCreationService {
    */
   @Override
   public List<QueueTimeSlot> getTimeSlotInformation(String doctorId, Integer clinicId) {
-    Date today = Date.valueOf(LocalDate.now());
-    String dayOfWeek = LocalDate.now().getDayOfWeek().toString();
-    LOGGER.info("Executing Scheduled Job for Today: {} : {}", dayOfWeek, today);
-
-    // 1. Return existing slots if already generated for today
-    if (slotGenerationRepository
-        .findByDoctorIdAndClinicIdAndSlotDate(doctorId, clinicId, today)
-        .isPresent()) {
+    final LocalDate today = LocalDate.now();
+    LOGGER.info("Executing Scheduled Job for Today: {} : {}", today.getDayOfWeek(), today);
+
+    for (int attempt = 1; ; attempt++) {
+      // 1. Generate today as a one-day horizon if this caller wins the claim
+      final List<QueueTimeSlot> generated =
+          generateTimeSlotsForHorizon(doctorId, clinicId, today, 1);
+      if (!generated.isEmpty()) {
+        return generated;
+      }
+
+      // 2. Otherwise wait for whoever holds the claim
+      final SlotGenerationState state =
+          slotGenerationClaimService
+              .awaitCompletion(doctorId, clinicId, today)
+              .orElse(SlotGenerationState.DONE);
+      if (state == SlotGenerationState.CLAIMED) {
+        throw new SlotGenerationPendingException(
+            "Slots for doctor " + doctorId + " and clinic " + clinicId + " are still generating");
+      }
+      if (state == SlotGenerationState.FAILED && attempt < GENERATION_ATTEMPTS) {
+        // The other caller gave the day up; claim it again
+        LOGGER.warn(
+            "Slot generation for doctor {} and clinic {} failed elsewhere, retrying",
+            doctorId,
+            clinicId);
+        continue;
+      }
+      if (state == SlotGenerationState.FAILED) {
+        throw new SlotGenerationPendingException(
+            "Slot generation for doctor "
+                + doctorId
+                + " and clinic "
+                + clinicId
+                + " failed "
+                + attempt
+                + " times");
+      }
+
+      // 3. Return the slots written by whoever generated the day
       LOGGER.info(
           "Slot generation already exists for doctor {} and clinic {} for today",
           doctorId,
           clinicId);
-      return slotInformationRepository.findByDoctorIdAndClinicId(doctorId, clinicId).stream()
-          .filter(slot -> slot.getSlotDate().equals(LocalDate.now()))
-          .toList();
+      return findSlotsInShiftOrder(doctorId, clinicId, today);
     }
+  }
 
-    // 2. Fetch Doctor availability and absence information
-    DoctorAvailabilityInformation info = getDetailsForSlotCreation(doctorId, clinicId);
-    List<DoctorAvailability> shiftDetails = info.getDoctorShiftAvailability().getShiftDetails();
-    List<DoctorShiftAbsence> shiftAbsences = info.getDoctorShiftAvailability().getShiftAbsence();
-
-    DateTimeFormatter formatter = DateTimeFormatter.ofPattern("HH:mm:ss");
-    List<QueueTimeSlot> queueTimeSlots = new ArrayList<>();
-    List<QueueTimeSlot> queueAbsenceTimeSlots = new ArrayList<>();
-
-    for (DoctorAvailability shift : shiftDetails) {
-      ShiftTime shiftTime = shift.getShiftTime();
-      int consultationTime = shift.getConsultationTime();
-
-      LOGGER.info("Processing shift: {} for doctor: {}", shiftTime, doctorId);
-
-      if (consultationTime <= 0) {
-        LOGGER.warn("Skipping shift due to invalid consultation time for doctor: {}", doctorId);
-        continue;
-      }
+  /**
+   * Reads a doctor-day's slots in the order they are generated and numbered: by shift, then by
+   * minute from the shift's start, so a night shift's slots after midnight follow its slots before.
+   */
+  private List<QueueTimeSlot> findSlotsInShiftOrder(
+      String doctorId, Integer clinicId, LocalDate date) {
+    final List<QueueTimeSlot> slots =
+        new ArrayList<>(
+            slotInformationRepository.findByDoctorIdAndClinicIdAndSlotDate(
+                doctorId, clinicId, date));
+    final Map<String, Integer> shiftStarts = new HashMap<>();
+    weeklyScheduleTemplateCache
+        .getTemplate(doctorId, clinicId)
+        .ifPresent(
+            template ->
+                template
+                    .getShifts(date.getDayOfWeek())
+                    .forEach(
+                        shift ->
+                            shiftStarts.putIfAbsent(
+                                shift.getShiftTime().toString(), shift.getRange().start())));
+    sortInShiftOrder(slots, shiftStarts);
+    return slots;
+  }
 
-      LocalTime shiftStart = shift.getShiftStartTime().toLocalTime();
-      LocalTime shiftEnd = shift.getShiftEndTime().toLocalTime();
-      LOGGER.info(
-          "Shift time range: {} to {}, consultation time: {} minutes",
-          shiftStart,
-          shiftEnd,
-          consultationTime);
-
-      // Only proceed if current day matches shift day
-      String currentDay = LocalDate.now().getDayOfWeek().toString();
-      if (!shift.getAvailableDays().name().equalsIgnoreCase(currentDay)) {
-        LOGGER.info(
-            "Skipping shift as current day {} doesn't match shift day {}",
-            currentDay,
-            shift.getAvailableDays().name());
-        continue;
-      }
+  /**
+   * Sorts slots by {@link ShiftTime} and then by their minute on the shift's timeline. A shift
+   * without a known start, e.g. one removed from the schedule, is ordered by time of day.
+   *
+   * @param shiftStarts Start minute of each shift by shift name.
+   */
+  static void sortInShiftOrder(List<QueueTimeSlot> slots, Map<String, Integer> shiftStarts) {
+    slots.sort(
+        Comparator.comparingInt((QueueTimeSlot slot) -> shiftOrder(slot.getShiftTime()))
+            .thenComparingInt(
+                slot ->
+                    SlotIntervals.minuteOnShift(
+                        slot.getSlotTime(), shiftStarts.getOrDefault(slot.getShiftTime(), 0))));
+  }
 
-      // Check absence
-      boolean fullDayAbsent =
-          shiftAbsences.stream().anyMatch(a -> a.getShiftTime() == ShiftTime.FULL_DAY);
-      if (fullDayAbsent) {
-        LOGGER.info("Skipping all shifts due to full day absence");
-        continue;
+  private static int shiftOrder(String shiftTime) {
+    for (ShiftTime shift : ShiftTime.values()) {
+      if (shift.name().equalsIgnoreCase(shiftTime)) {
+        return shift.ordinal();
       }
+    }
+    return ShiftTime.values().length;
+  }
 
-      List<DoctorShiftAbsence> absencesForThisShift =
-          shiftAbsences.stream().filter(a -> a.getShiftTime() == shiftTime).toList();
-      LOGGER.info("Found {} absence periods for this shift", absencesForThisShift.size());
-
-      // Generate normal slots up to shiftEnd (handle next-day overflow)
-      int slotNo = 1;
-      int maxSlots = 100; // Prevent infinite loop
-      int currentSlotCount = 0;
-
-      LocalDateTime slotStart = LocalDateTime.of(LocalDate.now(), shiftStart);
-      LocalDateTime slotEnd = LocalDateTime.of(LocalDate.now(), shiftEnd);
-      if (shiftEnd.isBefore(shiftStart)) {
-        slotEnd = slotEnd.plusDays(1); // Shift ends after midnight
-        LOGGER.info("Shift spans midnight, adjusted end time to: {}", slotEnd);
+  /**
+   * Generates the slots of every day in a rolling horizon that has not been generated yet.
+   *
+   * <p>The horizon covers {@code days} consecutive dates starting at {@code startDate}. The method
+   * issues a fixed number of read queries regardless of the horizon length:
+   *
+   * <ul>
+   *   <li>One query loads the {@link SlotGeneration} markers of the whole window. Dates that are
+   *       already {@code DONE} are skipped, so re-running the job only fills in the days that newly
+   *       entered the horizon.
+   *   <li>One range query loads every absence of the doctor in the window, which is then grouped by
+   *       date.
+   *   <li>The compiled {@link WeeklyScheduleTemplate} supplies the shifts of each weekday.
+   * </ul>
+   *
+   * <p>The remaining dates are claimed through {@link SlotGenerationClaimService}; only the dates
+   * this caller wins are generated, so concurrent callers never write the same day twice. The slots
+   * of each won day are numbered per shift with {@link #reorderQueueNumbers(List)}, then written in
+   * date order with multi-row INSERTs and the claims marked {@code DONE} in a single transaction. A
+   * day without shifts is still marked with zero slots so it is not retried. If generation fails,
+   * the claims are marked {@code FAILED} and can be claimed again by a later run.
+   *
+   * @param doctorId The unique identifier of the doctor.
+   * @param clinicId The unique identifier of the clinic.
+   * @param startDate The first date of the horizon.
+   * @param days The number of dates in the horizon; values below one are treated as one.
+   * @return The slots generated by this call in date order; empty when no date was won.
+   */
+  @Override
+  public List<QueueTimeSlot> generateTimeSlotsForHorizon(
+      String doctorId, Integer clinicId, LocalDate startDate, int days) {
+    final LocalDate endDate = startDate.plusDays(Math.max(1, days) - 1L);
+
+    // 1. Find the dates in the window that have not been generated yet
+    final Set<LocalDate> generated = new HashSet<>();
+    for (SlotGeneration marker :
+        slotGenerationRepository.findByDoctorIdAndClinicIdAndSlotDateBetween(
+            doctorId, clinicId, Date.valueOf(startDate), Date.valueOf(endDate))) {
+      if (SlotGenerationClaimService.stateOf(marker) == SlotGenerationState.DONE) {
+        generated.add(marker.getSlotDate().toLocalDate());
       }
-
-      while (slotStart.plusMinutes(consultationTime).isBefore(slotEnd)
-          && currentSlotCount < maxSlots) {
-        LOGGER.debug("Creating slot at time: {} for shift: {}", slotStart.toLocalTime(), shiftTime);
-        QueueTimeSlot slot =
-            createQueueTimeSlot(clinicId, doctorId, shift, slotNo++, slotStart.toLocalTime(), true);
-        queueTimeSlots.add(slot);
-        slotStart = slotStart.plusMinutes(consultationTime);
-        currentSlotCount++;
+    }
+    final List<LocalDate> pendingDates = new ArrayList<>();
+    for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+      if (!generated.contains(date)) {
+        pendingDates.add(date);
       }
+    }
+    if (pendingDates.isEmpty()) {
+      LOGGER.info(
+          "Slots already generated for doctor {} and clinic {} from {} to {}",
+          doctorId,
+          clinicId,
+          startDate,
+          endDate);
+      return List.of();
+    }
 
-      LOGGER.info("Created {} slots for {} shift", currentSlotCount, shiftTime);
-
-      // Handle absence slots (to be removed later)
-      for (DoctorShiftAbsence absence : absencesForThisShift) {
-        LocalTime aStart = LocalTime.parse(absence.getAbsenceStartTime(), formatter);
-        LocalTime aEnd = LocalTime.parse(absence.getAbsenceEndTime(), formatter);
-        LocalDateTime aStartDT = LocalDateTime.of(LocalDate.now(), aStart);
-        LocalDateTime aEndDT = LocalDateTime.of(LocalDate.now(), aEnd);
-        if (aEnd.isBefore(aStart)) aEndDT = aEndDT.plusDays(1);
-
-        int count = 0;
-        while (aStartDT.plusMinutes(consultationTime).isBefore(aEndDT) && count++ < 100) {
-          queueAbsenceTimeSlots.add(
-              createQueueTimeSlot(clinicId, doctorId, shift, 0, aStartDT.toLocalTime(), false));
-          aStartDT = aStartDT.plusMinutes(consultationTime);
+    // 2. Fetch the compiled weekly template and claim the pending dates
+    Optional<WeeklyScheduleTemplate> template =
+        weeklyScheduleTemplateCache.getTemplate(doctorId, clinicId);
+    if (template.isEmpty()) {
+      LOGGER.warn("No doctor {} found for clinic {}, skipping slot generation", doctorId, clinicId);
+      return List.of();
+    }
+    final SlotGenerationClaim claim =
+        slotGenerationClaimService.claim(doctorId, clinicId, pendingDates);
+    if (claim.isEmpty()) {
+      return List.of();
+    }
+    final List<LocalDate> claimedDates = claim.dates();
+
+    try {
+      final Map<LocalDate, List<DoctorAbsenceInformation>> absencesByDate =
+          groupAbsencesByDate(
+              this.doctorAbsenceInformationRepository
+                  .findByAbsenceDateBetweenAndClinicIdAndDoctorId(
+                      Date.valueOf(startDate), Date.valueOf(endDate), clinicId, doctorId));
+
+      // 3. Copy each claimed day's shifts from the template, masking out absences
+      final List<QueueTimeSlot> queueTimeSlots = new ArrayList<>();
+      final Map<LocalDate, Integer> slotsPerDate = new LinkedHashMap<>();
+      for (LocalDate date : claimedDates) {
+        final List<QueueTimeSlot> daySlots = new ArrayList<>();
+        final List<MinuteRange> absenceTimeline = buildAbsenceTimeline(absencesByDate.get(date));
+        for (ShiftTemplate shift : template.get().getShifts(date.getDayOfWeek())) {
+          List<LocalTime> slotTimes = shift.availableSlotTimes(absenceTimeline);
+          for (LocalTime slotTime : slotTimes) {
+            daySlots.add(
+                createQueueTimeSlot(
+                    clinicId, doctorId, date, shift.getShiftTime(), 0, slotTime, true));
+          }
+          LOGGER.info(
+              "Created {} of {} slots for {} shift on {}",
+              slotTimes.size(),
+              shift.getSlotCount(),
+              shift.getShiftTime(),
+              date);
         }
+        reorderQueueNumbers(daySlots);
+        queueTimeSlots.addAll(daySlots);
+        slotsPerDate.put(date, daySlots.size());
       }
-    }
 
-    LOGGER.info("Before removing absences: {} total slots", queueTimeSlots.size());
-    removeDoctorAbsence(queueTimeSlots, queueAbsenceTimeSlots);
-    LOGGER.info("After removing absences: {} slots remaining", queueTimeSlots.size());
-    reorderQueueNumbers(queueTimeSlots);
+      // 4. Bulk insert in date order and mark the claimed days as done
+      slotGenerationClaimService.complete(doctorId, clinicId, claim, queueTimeSlots, slotsPerDate);
 
-    // Batch save
-    for (int i = 0; i < queueTimeSlots.size(); i += BATCH_SIZE) {
-      int end = Math.min(i + BATCH_SIZE, queueTimeSlots.size());
-      slotInformationRepository.saveAll(queueTimeSlots.subList(i, end));
+      LOGGER.info(
+          "Generated {} slots over {} days for doctor {} and clinic {}",
+          queueTimeSlots.size(),
+          claimedDates.size(),
+          doctorId,
+          clinicId);
+      return queueTimeSlots;
+    } catch (SlotGenerationClaimLostException e) {
+      // The run that took over writes the days; release what this run still holds
+      LOGGER.warn("Discarded generated slots: {}", e.getMessage());
+      slotGenerationClaimService.fail(doctorId, clinicId, claim);
+      return List.of();
+    } catch (RuntimeException e) {
+      slotGenerationClaimService.fail(doctorId, clinicId, claim);
+      throw e;
     }
-
-    SlotGeneration generation = new SlotGeneration();
-    generation.setDoctorId(doctorId);
-    generation.setClinicId(clinicId);
-    generation.setSlotDate(today);
-    generation.setStatus(true);
-    generation.setNoOfSlots(queueTimeSlots.size());
-    slotGenerationRepository.save(generation);
-
-    return queueTimeSlots;
   }
 
   /**
    * Utility method to create and initialize a new {@link QueueTimeSlot} object.
    *
    * <p>This helper function populates a new {@code QueueTimeSlot} instance with essential details
-   * such as clinic and doctor identifiers, the date of the slot (set to the current date), the
-   * specific shift (e.g., MORNING), the sequential slot number within that shift, the exact time of
-   * the slot, and its availability status.
+   * such as clinic and doctor identifiers, the date of the slot, the specific shift (e.g.,
+   * MORNING), the sequential slot number within that shift, the exact time of the slot, and its
+   * availability status.
    *
    * @param clinicId The ID of the clinic where the slot is being created.
    * @param doctorId The ID of the doctor for whom the slot is being created.
-   * @param shiftDetail The {@link DoctorAvailability} object representing the current shift, used
-   *     to derive the shift type (e.g., MORNING, AFTERNOON).
+   * @param slotDate The date the slot belongs to.
+   * @param shiftTime The shift type (e.g., MORNING, AFTERNOON) the slot belongs to.
    * @param slotNo The sequential number assigned to this slot within its shift period.
    * @param slotTime The specific {@link LocalTime} at which this slot is scheduled.
    * @param isAvailable A boolean flag indicating if this slot is generally available (true) or
@@ -432,7 +539,8 @@ public class QueueSlotCreationServiceImpl implements QueueSlotCreationService {
   private QueueTimeSlot createQueueTimeSlot(
       Integer clinicId,
       String doctorId,
-      DoctorAvailability shiftDetail,
+      LocalDate slotDate,
+      ShiftTime shiftTime,
       int slotNo,
       LocalTime slotTime,
       boolean isAvailable) {
@@ -440,8 +548,8 @@ public class QueueSlotCreationServiceImpl implements QueueSlotCreationService {
     QueueTimeSlot queueTimeSlot = new QueueTimeSlot();
     queueTimeSlot.setClinicId(clinicId);
     queueTimeSlot.setDoctorId(doctorId);
-    queueTimeSlot.setSlotDate(LocalDate.now());
-    queueTimeSlot.setShiftTime(shiftDetail.getShiftTime().toString());
+    queueTimeSlot.setSlotDate(slotDate);
+    queueTimeSlot.setShiftTime(shiftTime.toString());
     queueTimeSlot.setSlotNo(slotNo);
     queueTimeSlot.setSlotTime(slotTime);
     queueTimeSlot.setAvailable(isAvailable);
@@ -529,7 +637,7 @@ public class QueueSlotCreationServiceImpl implements QueueSlotCreationService {
    * @param absenceEndTime The end {@link java.sql.Time} of the absence period.
    * @return A {@link ShiftTime} enum value indicating the calculated shift period for the absence.
    */
-  private ShiftTime calculateShiftTime(Time absenceStartTime, Time absenceEndTime) {
+  static ShiftTime calculateShiftTime(Time absenceStartTime, Time absenceEndTime) {
     // Method body follows
     final LocalTime localAbsenceStartTime = absenceStartTime.toLocalTime();
     final LocalTime localAbsenceEndTime = absenceEndTime.toLocalTime();
@@ -0,0 +1,83 @@
+package com.deepak.queue.service;
+
+import com.deepak.management.model.common.ShiftTime;
+import com.deepak.queue.model.MinuteRange;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Precomputed slot layout of one weekly shift.
+ *
+ * <p>The grid of slot start minutes and their wall clock times are computed once when the doctor's
+ * availability is compiled. Generating a day only has to mask out absences.
+ */
+public final class ShiftTemplate {
+
+  private final ShiftTime shiftTime;
+  private final int consultationTime;
+  private final MinuteRange range;
+  private final int[] gridStarts;
+  private final LocalTime[] slotTimes;
+
+  ShiftTemplate(ShiftTime shiftTime, int consultationTime, MinuteRange range, int maxSlots) {
+    this.shiftTime = shiftTime;
+    this.consultationTime = consultationTime;
+    this.range = range;
+    this.gridStarts = SlotIntervals.gridStarts(range, consultationTime, maxSlots);
+    this.slotTimes = new LocalTime[gridStarts.length];
+    for (int i = 0; i < gridStarts.length; i++) {
+      slotTimes[i] = SlotIntervals.toLocalTime(gridStarts[i]);
+    }
+  }
+
+  public ShiftTime getShiftTime() {
+    return shiftTime;
+  }
+
+  public int getConsultationTime() {
+    return consultationTime;
+  }
+
+  public MinuteRange getRange() {
+    return range;
+  }
+
+  public int getSlotCount() {
+    return gridStarts.length;
+  }
+
+  /** Returns true when both shifts lay out the same slot grid. */
+  public boolean hasSameLayout(ShiftTemplate other) {
+    return other != null
+        && shiftTime == other.shiftTime
+        && consultationTime == other.consultationTime
+        && range.equals(other.range)
+        && gridStarts.length == other.gridStarts.length;
+  }
+
+  /** Start minutes of every grid position; shared, must not be modified. */
+  int[] gridStarts() {
+    return gridStarts;
+  }
+
+  /**
+   * Returns the start times of the slots that do not overlap any absence.
+   *
+   * @param absenceTimeline Disjoint, sorted absence ranges of the day as returned by {@link
+   *     SlotIntervals#absenceTimeline(List)}.
+   * @return A new list of slot times in ascending order.
+   */
+  public List<LocalTime> availableSlotTimes(List<MinuteRange> absenceTimeline) {
+    if (absenceTimeline.isEmpty()) {
+      return List.of(slotTimes);
+    }
+    final List<MinuteRange> free = SlotIntervals.subtract(range, absenceTimeline);
+    final int[] starts = SlotIntervals.availableStarts(gridStarts, consultationTime, free);
+    final List<LocalTime> times = new ArrayList<>(starts.length);
+    for (int start : starts) {
+      times.add(slotTimes[(start - range.start()) / consultationTime]);
+    }
+    return times;
+  }
+}
@@ -0,0 +1,275 @@
+package com.deepak.queue.service;
+
+import com.deepak.management.model.doctor.DoctorAbsenceInformation;
+import com.deepak.management.repository.DoctorAbsenceInformationRepository;
+import com.deepak.management.repository.SlotGenerationRepository;
+import com.deepak.management.repository.SlotInformationBulkWriter;
+import com.deepak.management.repository.SlotInformationRepository;
+import com.deepak.queue.model.AbsenceSpan;
+import com.deepak.queue.model.MinuteRange;
+import com.deepak.queue.model.QueueTimeSlot;
+import com.deepak.queue.model.SlotGeneration;
+import com.deepak.queue.model.SlotGenerationState;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Applies a created, edited or deleted absence to slots that were already generated.
+ *
+ * <p>Only the slots whose time overlaps the old or new absence range are re-evaluated against the
+ * doctor's current absences. Their {@code is_available} flag is flipped where it changed, grid
+ * positions released by a shrunk or deleted absence are inserted if the generator had skipped them,
+ * and slots with an active queue entry are never touched. Slot numbers are recomputed only for the
+ * shifts that changed, and all updates are sent as one batch. When a booking or skip changed one of
+ * those slots meanwhile, the batch throws and the absence change rolls back with a 409, so an
+ * absence is never saved while a slot it covers stays bookable.
+ *
+ * <p>Doctor-days that have not been generated yet are ignored; the generator reads the absences
+ * when it gets to them.
+ */
+@Service
+public class SlotAbsencePatcher {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SlotAbsencePatcher.class);
+  private static final DateTimeFormatter ABSENCE_DATE_FORMAT =
+      DateTimeFormatter.ofPattern("dd-MM-yyyy");
+
+  private final DoctorAbsenceInformationRepository doctorAbsenceInformationRepository;
+  private final SlotInformationRepository slotInformationRepository;
+  private final SlotGenerationRepository slotGenerationRepository;
+  private final SlotInformationBulkWriter slotInformationBulkWriter;
+  private final WeeklyScheduleTemplateCache weeklyScheduleTemplateCache;
+
+  public SlotAbsencePatcher(
+      DoctorAbsenceInformationRepository doctorAbsenceInformationRepository,
+      SlotInformationRepository slotInformationRepository,
+      SlotGenerationRepository slotGenerationRepository,
+      SlotInformationBulkWriter slotInformationBulkWriter,
+      WeeklyScheduleTemplateCache weeklyScheduleTemplateCache) {
+    this.doctorAbsenceInformationRepository = doctorAbsenceInformationRepository;
+    this.slotInformationRepository = slotInformationRepository;
+    this.slotGenerationRepository = slotGenerationRepository;
+    this.slotInformationBulkWriter = slotInformationBulkWriter;
+    this.weeklyScheduleTemplateCache = weeklyScheduleTemplateCache;
+  }
+
+  /**
+   * Captures the doctor-day and range of an absence.
+   *
+   * @param information The absence; may be null.
+   * @return The span, or null when the absence lacks a doctor, clinic, date or times.
+   */
+  public static AbsenceSpan spanOf(DoctorAbsenceInformation information) {
+    if (information == null
+        || information.getDoctorId() == null
+        || information.getClinicId() == null
+        || information.getAbsenceDate() == null
+        || information.getAbsenceStartTime() == null
+        || information.getAbsenceEndTime() == null) {
+      return null;
+    }
+    return new AbsenceSpan(
+        information.getDoctorId(),
+        information.getClinicId(),
+        LocalDate.parse(information.getAbsenceDate(), ABSENCE_DATE_FORMAT),
+        SlotIntervals.absenceRange(
+            information.getAbsenceStartTime().toLocalTime(),
+            information.getAbsenceEndTime().toLocalTime()));
+  }
+
+  /**
+   * Patches the generated slots affected by an absence change. Must run after the change is visible
+   * to queries in the caller's transaction.
+   *
+   * @param before The absence before the change, or null when it was created.
+   * @param after The absence after the change, or null when it was deleted.
+   */
+  public void absenceChanged(AbsenceSpan before, AbsenceSpan after) {
+    if (before != null && before.equals(after)) {
+      return;
+    }
+    // The old and new spans may belong to different doctor-days
+    final Map<String, List<AbsenceSpan>> byDay = new LinkedHashMap<>();
+    for (AbsenceSpan span : Arrays.asList(before, after)) {
+      if (span != null) {
+        byDay
+            .computeIfAbsent(
+                span.doctorId() + ":" + span.clinicId() + ":" + span.date(), k -> new ArrayList<>())
+            .add(span);
+      }
+    }
+    for (List<AbsenceSpan> spans : byDay.values()) {
+      final AbsenceSpan first = spans.get(0);
+      patchDay(
+          first.doctorId(),
+          first.clinicId(),
+          first.date(),
+          spans.stream().map(AbsenceSpan::range).toList());
+    }
+  }
+
+  private void patchDay(
+      String doctorId, Integer clinicId, LocalDate date, List<MinuteRange> changedRanges) {
+    final Optional<SlotGeneration> marker =
+        slotGenerationRepository.findByDoctorIdAndClinicIdAndSlotDate(
+            doctorId, clinicId, Date.valueOf(date));
+    if (marker.isEmpty()
+        || SlotGenerationClaimService.stateOf(marker.get()) != SlotGenerationState.DONE) {
+      LOGGER.info(
+          "Slots for doctor {} and clinic {} on {} not generated yet, nothing to patch",
+          doctorId,
+          clinicId,
+          date);
+      return;
+    }
+    final Optional<WeeklyScheduleTemplate> template =
+        weeklyScheduleTemplateCache.getTemplate(doctorId, clinicId);
+    if (template.isEmpty()) {
+      return;
+    }
+
+    final List<MinuteRange> affected = SlotIntervals.absenceTimeline(changedRanges);
+    final List<MinuteRange> timeline =
+        QueueSlotCreationServiceImpl.buildAbsenceTimeline(
+            doctorAbsenceInformationRepository.findByAbsenceDateAndClinicIdAndDoctorId(
+                Date.valueOf(date), clinicId, doctorId));
+    final Set<Long> booked =
+        new HashSet<>(slotInformationRepository.findBookedSlotIds(doctorId, clinicId, date));
+    final Map<String, List<QueueTimeSlot>> slotsByShift = new HashMap<>();
+    for (QueueTimeSlot slot :
+        slotInformationRepository.findByDoctorIdAndClinicIdAndSlotDate(doctorId, clinicId, date)) {
+      slotsByShift
+          .computeIfAbsent(slot.getShiftTime(), k -> new ArrayList<>())
+          .add(QueueTimeSlot.copyOf(slot));
+    }
+
+    final List<QueueTimeSlot> inserts = new ArrayList<>();
+    final Set<QueueTimeSlot> updates = new LinkedHashSet<>();
+    for (ShiftTemplate shift : template.get().getShifts(date.getDayOfWeek())) {
+      if (affected.stream().noneMatch(range -> range.overlaps(shift.getRange()))) {
+        continue;
+      }
+      final List<QueueTimeSlot> shiftSlots =
+          slotsByShift.computeIfAbsent(shift.getShiftTime().toString(), k -> new ArrayList<>());
+      if (patchShift(
+          doctorId,
+          clinicId,
+          date,
+          shift,
+          shiftSlots,
+          affected,
+          timeline,
+          booked,
+          inserts,
+          updates)) {
+        renumber(shift, shiftSlots, booked, updates);
+      }
+    }
+
+    slotInformationBulkWriter.insertAll(inserts);
+    updates.removeAll(inserts);
+    slotInformationBulkWriter.updateAll(new ArrayList<>(updates));
+    LOGGER.info(
+        "Patched slots for doctor {} and clinic {} on {}: {} updated, {} inserted",
+        doctorId,
+        clinicId,
+        date,
+        updates.size(),
+        inserts.size());
+  }
+
+  /** Re-evaluates the grid positions of one shift that overlap the changed ranges. */
+  private static boolean patchShift(
+      String doctorId,
+      Integer clinicId,
+      LocalDate date,
+      ShiftTemplate shift,
+      List<QueueTimeSlot> shiftSlots,
+      List<MinuteRange> affected,
+      List<MinuteRange> timeline,
+      Set<Long> booked,
+      List<QueueTimeSlot> inserts,
+      Set<QueueTimeSlot> updates) {
+    final Map<Integer, QueueTimeSlot> slotsByMinute = new HashMap<>();
+    for (QueueTimeSlot slot : shiftSlots) {
+      slotsByMinute.put(minuteOf(shift, slot), slot);
+    }
+    final int consultationTime = shift.getConsultationTime();
+    final Set<Integer> available = new HashSet<>();
+    for (int start :
+        SlotIntervals.availableStarts(
+            shift.gridStarts(),
+            consultationTime,
+            SlotIntervals.subtract(shift.getRange(), timeline))) {
+      available.add(start);
+    }
+
+    boolean changed = false;
+    for (int start : shift.gridStarts()) {
+      final MinuteRange slotRange = new MinuteRange(start, start + consultationTime);
+      if (affected.stream().noneMatch(range -> range.overlaps(slotRange))) {
+        continue;
+      }
+      final boolean isAvailable = available.contains(start);
+      final QueueTimeSlot slot = slotsByMinute.get(start);
+      if (slot == null) {
+        if (isAvailable) {
+          final QueueTimeSlot created = new QueueTimeSlot();
+          created.setClinicId(clinicId);
+          created.setDoctorId(doctorId);
+          created.setShiftTime(shift.getShiftTime().toString());
+          created.setSlotTime(SlotIntervals.toLocalTime(start));
+          created.setSlotDate(date);
+          created.setSlotNo(0);
+          created.setAvailable(true);
+          inserts.add(created);
+          shiftSlots.add(created);
+          changed = true;
+        }
+      } else if (slot.isAvailable() != isAvailable && !booked.contains(slot.getSlotId())) {
+        slot.setAvailable(isAvailable);
+        updates.add(slot);
+        changed = true;
+      }
+    }
+    return changed;
+  }
+
+  /** Numbers the available and booked slots of a shift 1, 2, 3, ... in time order. */
+  private static void renumber(
+      ShiftTemplate shift,
+      List<QueueTimeSlot> shiftSlots,
+      Set<Long> booked,
+      Set<QueueTimeSlot> updates) {
+    shiftSlots.sort(Comparator.comparingInt(slot -> minuteOf(shift, slot)));
+    int slotNo = 1;
+    for (QueueTimeSlot slot : shiftSlots) {
+      if (slot.isAvailable() || booked.contains(slot.getSlotId())) {
+        if (!Objects.equals(slot.getSlotNo(), slotNo)) {
+          slot.setSlotNo(slotNo);
+          updates.add(slot);
+        }
+        slotNo++;
+      }
+    }
+  }
+
+  private static int minuteOf(ShiftTemplate shift, QueueTimeSlot slot) {
+    return SlotIntervals.minuteOnShift(slot.getSlotTime(), shift.getRange().start());
+  }
+}
@@ -0,0 +1,167 @@
+package com.deepak.queue.service;
+
+import com.deepak.management.exception.SlotGenerationClaimLostException;
+import com.deepak.management.repository.SlotGenerationRepository;
+import com.deepak.management.repository.SlotInformationBulkWriter;
+import com.deepak.queue.model.QueueTimeSlot;
+import com.deepak.queue.model.SlotGeneration;
+import com.deepak.queue.model.SlotGenerationClaim;
+import com.deepak.queue.model.SlotGenerationState;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Claims doctor-days for slot generation so that each day is generated exactly once.
+ *
+ * <p>A claim inserts a {@code CLAIMED} marker with {@code INSERT IGNORE}; the unique {@code
+ * (doctor_id, clinic_id, slot_date)} key lets only one caller win, whether it is the cron job, the
+ * manual trigger or the queue-slot endpoint. The winner writes the slots and moves the marker to
+ * {@code DONE}, or to {@code FAILED} when generation throws. A {@code FAILED} day, or a {@code
+ * CLAIMED} one older than {@code slot.generation.claim-timeout-seconds}, can be claimed again.
+ *
+ * <p>Every run claims with a token of its own, and only the run holding the token may mark a day. A
+ * run too slow to finish before its claim was taken over therefore rolls back its slots instead of
+ * writing them next to the new owner's.
+ */
+@Service
+public class SlotGenerationClaimService {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SlotGenerationClaimService.class);
+  private static final long POLL_INTERVAL_MS = 100;
+
+  private final SlotGenerationRepository slotGenerationRepository;
+  private final SlotInformationBulkWriter slotInformationBulkWriter;
+  private final long claimTimeoutSeconds;
+  private final long claimWaitMs;
+
+  public SlotGenerationClaimService(
+      SlotGenerationRepository slotGenerationRepository,
+      SlotInformationBulkWriter slotInformationBulkWriter,
+      @Value("${slot.generation.claim-timeout-seconds:300}") long claimTimeoutSeconds,
+      @Value("${slot.generation.claim-wait-ms:10000}") long claimWaitMs) {
+    this.slotGenerationRepository = slotGenerationRepository;
+    this.slotInformationBulkWriter = slotInformationBulkWriter;
+    this.claimTimeoutSeconds = claimTimeoutSeconds;
+    this.claimWaitMs = claimWaitMs;
+  }
+
+  /**
+   * Claims the given dates for a doctor. Each claim commits on its own so that other callers see it
+   * before generation starts.
+   *
+   * @param doctorId The unique identifier of the doctor.
+   * @param clinicId The unique identifier of the clinic.
+   * @param dates Dates without a {@code DONE} marker.
+   * @return The dates this caller won, in the given order, and the token that holds them.
+   */
+  public SlotGenerationClaim claim(String doctorId, Integer clinicId, List<LocalDate> dates) {
+    final String token = UUID.randomUUID().toString();
+    final List<LocalDate> won = new ArrayList<>(dates.size());
+    for (LocalDate date : dates) {
+      final LocalDateTime now = LocalDateTime.now();
+      final Date slotDate = Date.valueOf(date);
+      if (slotGenerationRepository.claim(doctorId, clinicId, slotDate, now, token) == 1
+          || slotGenerationRepository.reclaim(
+                  doctorId, clinicId, slotDate, now, now.minusSeconds(claimTimeoutSeconds), token)
+              == 1) {
+        won.add(date);
+      } else {
+        LOGGER.info(
+            "Slot generation for doctor {} and clinic {} on {} is claimed elsewhere",
+            doctorId,
+            clinicId,
+            date);
+      }
+    }
+    return new SlotGenerationClaim(token, won);
+  }
+
+  /**
+   * Writes the slots of the claimed dates and marks those dates {@code DONE} in one transaction.
+   *
+   * @param doctorId The unique identifier of the doctor.
+   * @param clinicId The unique identifier of the clinic.
+   * @param claim The claim the slots were generated under.
+   * @param slots The slots of all claimed dates in date order.
+   * @param slotsPerDate Number of slots per claimed date, including dates with none.
+   * @throws SlotGenerationClaimLostException When another run took over one of the dates; nothing
+   *     is written then.
+   */
+  @Transactional
+  public void complete(
+      String doctorId,
+      Integer clinicId,
+      SlotGenerationClaim claim,
+      List<QueueTimeSlot> slots,
+      Map<LocalDate, Integer> slotsPerDate) {
+    slotInformationBulkWriter.insertAll(slots);
+    for (Map.Entry<LocalDate, Integer> entry : slotsPerDate.entrySet()) {
+      if (slotGenerationRepository.markDone(
+              doctorId, clinicId, Date.valueOf(entry.getKey()), entry.getValue(), claim.token())
+          == 0) {
+        // Thrown to roll back the inserts above
+        throw new SlotGenerationClaimLostException(
+            "Claim on "
+                + entry.getKey()
+                + " for doctor "
+                + doctorId
+                + " and clinic "
+                + clinicId
+                + " was taken over");
+      }
+    }
+  }
+
+  /**
+   * Marks claimed dates {@code FAILED} so that a later run can claim them again. Dates whose claim
+   * was taken over are left to their new owner.
+   */
+  public void fail(String doctorId, Integer clinicId, SlotGenerationClaim claim) {
+    for (LocalDate date : claim.dates()) {
+      slotGenerationRepository.markFailed(doctorId, clinicId, Date.valueOf(date), claim.token());
+    }
+  }
+
+  /**
+   * Waits until another caller's claim on a date leaves the {@code CLAIMED} state, for at most
+   * {@code slot.generation.claim-wait-ms}.
+   *
+   * @return The state the marker ended in; {@code CLAIMED} when the wait timed out.
+   */
+  public Optional<SlotGenerationState> awaitCompletion(
+      String doctorId, Integer clinicId, LocalDate date) {
+    final long deadline = System.currentTimeMillis() + claimWaitMs;
+    while (true) {
+      final Optional<SlotGenerationState> state =
+          slotGenerationRepository
+              .findByDoctorIdAndClinicIdAndSlotDate(doctorId, clinicId, Date.valueOf(date))
+              .map(SlotGenerationClaimService::stateOf);
+      if (state.isEmpty()
+          || state.get() != SlotGenerationState.CLAIMED
+          || System.currentTimeMillis() >= deadline) {
+        return state;
+      }
+      try {
+        Thread.sleep(POLL_INTERVAL_MS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return state;
+      }
+    }
+  }
+
+  /** Markers written before claims existed have no state and count as {@code DONE}. */
+  public static SlotGenerationState stateOf(SlotGeneration generation) {
+    return generation.getState() == null ? SlotGenerationState.DONE : generation.getState();
+  }
+}
@@ -0,0 +1,208 @@
+package com.deepak.queue.service;
+
+import com.deepak.queue.model.MinuteRange;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Interval arithmetic used to lay out slots around doctor absences.
+ *
+ * <p>All times are minutes on a doctor-day timeline (see {@link MinuteRange}). Shifts and absences
+ * that cross midnight extend past minute 1440. A slot is dropped when any part of it overlaps an
+ * absence, not only when its start time coincides with one.
+ */
+public final class SlotIntervals {
+
+  public static final int MINUTES_PER_DAY = 1440;
+
+  private SlotIntervals() {}
+
+  /**
+   * Builds the timeline range of a shift. A shift whose end is before its start runs past midnight.
+   */
+  public static MinuteRange shiftRange(LocalTime shiftStart, LocalTime shiftEnd) {
+    final int start = minuteOfDay(shiftStart);
+    int end = minuteOfDay(shiftEnd);
+    if (end < start) {
+      end += MINUTES_PER_DAY;
+    }
+    return new MinuteRange(start, end);
+  }
+
+  /**
+   * Builds the timeline range of an absence. An absence whose end is not after its start runs past
+   * midnight, so {@code 00:00 - 00:00} covers the whole day.
+   */
+  public static MinuteRange absenceRange(LocalTime absenceStart, LocalTime absenceEnd) {
+    final int start = minuteOfDay(absenceStart);
+    int end = minuteOfDay(absenceEnd);
+    if (end <= start) {
+      end += MINUTES_PER_DAY;
+    }
+    return new MinuteRange(start, end);
+  }
+
+  /**
+   * Sorts and merges the absences of one doctor-day into disjoint ranges.
+   *
+   * <p>Every absence is also projected onto the following day so that an absence recorded as, for
+   * example, 00:30 - 01:00 removes the after-midnight part of a night shift that started on the
+   * absence date. Shifts that end before midnight never reach the projected copies.
+   *
+   * <p>The copies come from date D and not from D + 1 because every slot of a night shift keeps the
+   * date its shift started on, and slots of D are only ever matched against D's absences, as the
+   * original time-of-day comparison did. An absence of D at 00:30 therefore means the 00:30 slot of
+   * D's shift; the early morning of D itself is covered by the original range.
+   *
+   * @param absences Absence ranges for the day, in any order.
+   * @return Disjoint ranges sorted by start minute.
+   */
+  public static List<MinuteRange> absenceTimeline(List<MinuteRange> absences) {
+    if (absences == null || absences.isEmpty()) {
+      return List.of();
+    }
+    final List<MinuteRange> all = new ArrayList<>(absences.size() * 2);
+    for (MinuteRange absence : absences) {
+      if (absence != null && !absence.isEmpty()) {
+        all.add(absence);
+        all.add(
+            new MinuteRange(absence.start() + MINUTES_PER_DAY, absence.end() + MINUTES_PER_DAY));
+      }
+    }
+    return merge(all);
+  }
+
+  /** Sorts the ranges by start minute and merges overlapping or touching ranges. */
+  public static List<MinuteRange> merge(List<MinuteRange> ranges) {
+    final List<MinuteRange> sorted = new ArrayList<>(ranges);
+    sorted.sort(Comparator.comparingInt(MinuteRange::start));
+    final List<MinuteRange> merged = new ArrayList<>(sorted.size());
+    for (MinuteRange range : sorted) {
+      final int last = merged.size() - 1;
+      if (last >= 0 && range.start() <= merged.get(last).end()) {
+        final MinuteRange previous = merged.get(last);
+        merged.set(last, new MinuteRange(previous.start(), Math.max(previous.end(), range.end())));
+      } else {
+        merged.add(range);
+      }
+    }
+    return merged;
+  }
+
+  /**
+   * Subtracts absences from a shift in a single pass over the absence timeline.
+   *
+   * @param shift The shift range.
+   * @param timeline Disjoint, sorted absence ranges as returned by {@link #absenceTimeline(List)}.
+   * @return The parts of the shift not covered by any absence, sorted by start minute.
+   */
+  public static List<MinuteRange> subtract(MinuteRange shift, List<MinuteRange> timeline) {
+    final List<MinuteRange> free = new ArrayList<>();
+    int cursor = shift.start();
+    for (MinuteRange absence : timeline) {
+      if (absence.end() <= cursor) {
+        continue;
+      }
+      if (absence.start() >= shift.end()) {
+        break;
+      }
+      if (absence.start() > cursor) {
+        free.add(new MinuteRange(cursor, absence.start()));
+      }
+      cursor = Math.max(cursor, absence.end());
+      if (cursor >= shift.end()) {
+        break;
+      }
+    }
+    if (cursor < shift.end()) {
+      free.add(new MinuteRange(cursor, shift.end()));
+    }
+    return free;
+  }
+
+  /**
+   * Lays out slot start minutes on the shift grid and keeps those that fit entirely inside a free
+   * range.
+   *
+   * @param shift The shift range.
+   * @param consultationTime Slot length in minutes; must be positive.
+   * @param free Free ranges of the shift as returned by {@link #subtract(MinuteRange, List)}.
+   * @param maxSlots Upper bound on the number of grid positions considered.
+   * @return Start minutes of the available slots in ascending order.
+   */
+  public static int[] slotStarts(
+      MinuteRange shift, int consultationTime, List<MinuteRange> free, int maxSlots) {
+    return availableStarts(gridStarts(shift, consultationTime, maxSlots), consultationTime, free);
+  }
+
+  /**
+   * Lays out every slot start minute of a shift, ignoring absences.
+   *
+   * <p>The grid starts at the shift start and advances by the consultation time. As in the original
+   * generator, the last slot must end strictly before the shift end.
+   *
+   * @param shift The shift range.
+   * @param consultationTime Slot length in minutes; must be positive.
+   * @param maxSlots Upper bound on the number of grid positions.
+   * @return Start minutes of the grid positions in ascending order.
+   */
+  public static int[] gridStarts(MinuteRange shift, int consultationTime, int maxSlots) {
+    final int positions = Math.max(0, Math.min(maxSlots, (shift.length() - 1) / consultationTime));
+    final int[] starts = new int[positions];
+    for (int i = 0; i < positions; i++) {
+      starts[i] = shift.start() + i * consultationTime;
+    }
+    return starts;
+  }
+
+  /**
+   * Keeps the grid positions whose slot fits entirely inside one of the free ranges. Runs in a
+   * single pass over both sorted inputs.
+   *
+   * @param gridStarts Slot start minutes in ascending order, as returned by {@link
+   *     #gridStarts(MinuteRange, int, int)}.
+   * @param consultationTime Slot length in minutes.
+   * @param free Disjoint free ranges sorted by start minute.
+   * @return A new array with the start minutes of the available slots.
+   */
+  public static int[] availableStarts(
+      int[] gridStarts, int consultationTime, List<MinuteRange> free) {
+    final int[] starts = new int[gridStarts.length];
+    int count = 0;
+    int freeIndex = 0;
+    for (int slot : gridStarts) {
+      final int slotEnd = slot + consultationTime;
+      while (freeIndex < free.size() && free.get(freeIndex).end() < slotEnd) {
+        freeIndex++;
+      }
+      if (freeIndex == free.size()) {
+        break;
+      }
+      if (free.get(freeIndex).start() <= slot) {
+        starts[count++] = slot;
+      }
+    }
+    return count == starts.length ? starts : Arrays.copyOf(starts, count);
+  }
+
+  /** Converts a timeline minute, possibly past midnight, back to a wall clock time. */
+  public static LocalTime toLocalTime(int minute) {
+    return LocalTime.MIN.plusMinutes(minute);
+  }
+
+  /**
+   * Places a wall clock time on the timeline of a shift starting at {@code shiftStart}; times
+   * before the shift start belong to the part of the shift after midnight.
+   */
+  public static int minuteOnShift(LocalTime time, int shiftStart) {
+    final int minute = minuteOfDay(time);
+    return minute < shiftStart ? minute + MINUTES_PER_DAY : minute;
+  }
+
+  private static int minuteOfDay(LocalTime time) {
+    return time.toSecondOfDay() / 60;
+  }
+}
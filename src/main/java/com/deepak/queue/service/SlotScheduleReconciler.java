@@ -0,0 +1,307 @@
+package com.deepak.queue.service;
+
+import com.deepak.management.model.common.DoctorAvailability;
+import com.deepak.management.model.common.ShiftTime;
+import com.deepak.management.model.doctor.DoctorAbsenceInformation;
+import com.deepak.management.repository.DoctorAbsenceInformationRepository;
+import com.deepak.management.repository.SlotGenerationRepository;
+import com.deepak.management.repository.SlotInformationBulkWriter;
+import com.deepak.management.repository.SlotInformationRepository;
+import com.deepak.queue.model.MinuteRange;
+import com.deepak.queue.model.QueueTimeSlot;
+import com.deepak.queue.model.SlotGeneration;
+import com.deepak.queue.model.SlotGenerationState;
+import java.sql.Date;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Brings already generated future slots in line with a doctor's new weekly availability.
+ *
+ * <p>The old and new availability are compiled into {@link WeeklyScheduleTemplate}s and compared
+ * per weekday and {@link ShiftTime}. Only generated days whose weekday has a changed shift are
+ * loaded, and within those days only the changed shifts are touched:
+ *
+ * <ul>
+ *   <li>Slots whose time is still on the new grid are kept.
+ *   <li>Remaining slots without a queue entry are moved to new grid times that have no slot yet.
+ *   <li>Slots left over after that are deleted, and new grid times still without a slot are
+ *       inserted.
+ *   <li>Slots with an active queue entry are never moved or deleted.
+ * </ul>
+ *
+ * The slots of each changed shift are then renumbered in time order. Absences recorded for the day
+ * are applied to the new grid just as the generator does. A slot booked or skipped into while this
+ * runs makes the batch update throw, which rolls the availability change back with a 409.
+ */
+@Service
+public class SlotScheduleReconciler {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SlotScheduleReconciler.class);
+
+  private final SlotGenerationRepository slotGenerationRepository;
+  private final SlotInformationRepository slotInformationRepository;
+  private final DoctorAbsenceInformationRepository doctorAbsenceInformationRepository;
+  private final SlotInformationBulkWriter slotInformationBulkWriter;
+
+  public SlotScheduleReconciler(
+      SlotGenerationRepository slotGenerationRepository,
+      SlotInformationRepository slotInformationRepository,
+      DoctorAbsenceInformationRepository doctorAbsenceInformationRepository,
+      SlotInformationBulkWriter slotInformationBulkWriter) {
+    this.slotGenerationRepository = slotGenerationRepository;
+    this.slotInformationRepository = slotInformationRepository;
+    this.doctorAbsenceInformationRepository = doctorAbsenceInformationRepository;
+    this.slotInformationBulkWriter = slotInformationBulkWriter;
+  }
+
+  /**
+   * Reconciles the doctor's generated slots from today onwards after an availability change.
+   *
+   * @param doctorId The unique identifier of the doctor.
+   * @param clinicId The unique identifier of the clinic.
+   * @param oldAvailability The availability before the change; may be null.
+   * @param newAvailability The availability after the change; may be null.
+   */
+  public void reconcile(
+      String doctorId,
+      Integer clinicId,
+      List<DoctorAvailability> oldAvailability,
+      List<DoctorAvailability> newAvailability) {
+    final WeeklyScheduleTemplate oldTemplate =
+        WeeklyScheduleTemplate.compile(
+            oldAvailability, 0L, WeeklyScheduleTemplateCache.MAX_SLOTS_PER_SHIFT);
+    final WeeklyScheduleTemplate newTemplate =
+        WeeklyScheduleTemplate.compile(
+            newAvailability, 0L, WeeklyScheduleTemplateCache.MAX_SLOTS_PER_SHIFT);
+
+    // 1. Diff the two templates per weekday and shift
+    final Map<DayOfWeek, Set<ShiftTime>> changedShifts = new EnumMap<>(DayOfWeek.class);
+    for (DayOfWeek day : DayOfWeek.values()) {
+      final Set<ShiftTime> changed =
+          diff(byShiftTime(oldTemplate.getShifts(day)), byShiftTime(newTemplate.getShifts(day)));
+      if (!changed.isEmpty()) {
+        changedShifts.put(day, changed);
+      }
+    }
+    if (changedShifts.isEmpty()) {
+      LOGGER.info("Availability of doctor {} in clinic {} has no slot changes", doctorId, clinicId);
+      return;
+    }
+
+    // 2. Find the generated days from today whose weekday changed
+    final LocalDate today = LocalDate.now();
+    final TreeSet<LocalDate> dates = new TreeSet<>();
+    for (SlotGeneration marker :
+        slotGenerationRepository.findByDoctorIdAndClinicIdAndSlotDateGreaterThanEqual(
+            doctorId, clinicId, Date.valueOf(today))) {
+      final LocalDate date = marker.getSlotDate().toLocalDate();
+      if (SlotGenerationClaimService.stateOf(marker) == SlotGenerationState.DONE
+          && changedShifts.containsKey(date.getDayOfWeek())) {
+        dates.add(date);
+      }
+    }
+    if (dates.isEmpty()) {
+      return;
+    }
+
+    // 3. Load slots, bookings and absences of the affected range in one query each
+    final LocalDate first = dates.first();
+    final LocalDate last = dates.last();
+    final Map<LocalDate, Map<String, List<QueueTimeSlot>>> slotsByDay = new HashMap<>();
+    for (QueueTimeSlot slot :
+        slotInformationRepository
+            .findByDoctorIdAndClinicIdAndSlotDateBetweenOrderBySlotDateAscSlotTimeAsc(
+                doctorId, clinicId, first, last)) {
+      slotsByDay
+          .computeIfAbsent(slot.getSlotDate(), k -> new HashMap<>())
+          .computeIfAbsent(slot.getShiftTime(), k -> new ArrayList<>())
+          .add(slot);
+    }
+    final Set<Long> booked =
+        new HashSet<>(
+            slotInformationRepository.findBookedSlotIdsBetween(doctorId, clinicId, first, last));
+    final Map<LocalDate, List<DoctorAbsenceInformation>> absencesByDate =
+        QueueSlotCreationServiceImpl.groupAbsencesByDate(
+            doctorAbsenceInformationRepository.findByAbsenceDateBetweenAndClinicIdAndDoctorId(
+                Date.valueOf(first), Date.valueOf(last), clinicId, doctorId));
+
+    // 4. Diff every changed shift of every affected day against the new grid
+    final List<QueueTimeSlot> inserts = new ArrayList<>();
+    final Set<QueueTimeSlot> updates = new LinkedHashSet<>();
+    final List<Long> deletes = new ArrayList<>();
+    for (LocalDate date : dates) {
+      final List<MinuteRange> timeline =
+          QueueSlotCreationServiceImpl.buildAbsenceTimeline(absencesByDate.get(date));
+      final Map<ShiftTime, List<ShiftTemplate>> newShifts =
+          byShiftTime(newTemplate.getShifts(date.getDayOfWeek()));
+      for (ShiftTime shiftTime : changedShifts.get(date.getDayOfWeek())) {
+        final List<ShiftTemplate> shifts = newShifts.getOrDefault(shiftTime, List.of());
+        final List<LocalTime> desired = new ArrayList<>();
+        for (ShiftTemplate shift : shifts) {
+          desired.addAll(shift.availableSlotTimes(timeline));
+        }
+        final int shiftStart = shifts.isEmpty() ? 0 : shifts.get(0).getRange().start();
+        final List<QueueTimeSlot> existing =
+            slotsByDay
+                .getOrDefault(date, Map.of())
+                .getOrDefault(shiftTime.toString(), List.of())
+                .stream()
+                .map(QueueTimeSlot::copyOf)
+                .toList();
+        reconcileShift(
+            doctorId,
+            clinicId,
+            date,
+            shiftTime,
+            shiftStart,
+            existing,
+            desired,
+            booked,
+            inserts,
+            updates,
+            deletes);
+      }
+    }
+
+    // 5. Apply the differences
+    slotInformationBulkWriter.insertAll(inserts);
+    slotInformationBulkWriter.updateAll(new ArrayList<>(updates));
+    if (!deletes.isEmpty()) {
+      slotInformationRepository.deleteAllByIdInBatch(deletes);
+    }
+    LOGGER.info(
+        "Reconciled {} days for doctor {} in clinic {}: {} inserted, {} updated, {} deleted",
+        dates.size(),
+        doctorId,
+        clinicId,
+        inserts.size(),
+        updates.size(),
+        deletes.size());
+  }
+
+  static void reconcileShift(
+      String doctorId,
+      Integer clinicId,
+      LocalDate date,
+      ShiftTime shiftTime,
+      int shiftStart,
+      List<QueueTimeSlot> existing,
+      List<LocalTime> desired,
+      Set<Long> booked,
+      List<QueueTimeSlot> inserts,
+      Set<QueueTimeSlot> updates,
+      List<Long> deletes) {
+    final List<QueueTimeSlot> kept = new ArrayList<>(existing.size() + desired.size());
+    final Set<LocalTime> unmatched = new LinkedHashSet<>(desired);
+    final Deque<QueueTimeSlot> movable = new ArrayDeque<>();
+
+    // Keep slots already on the new grid and every booked slot
+    for (QueueTimeSlot slot : existing) {
+      if (unmatched.remove(slot.getSlotTime())) {
+        // A booked slot stays unavailable; only slots closed by the old layout reopen
+        if (!slot.isAvailable() && !booked.contains(slot.getSlotId())) {
+          slot.setAvailable(true);
+          updates.add(slot);
+        }
+        kept.add(slot);
+      } else if (booked.contains(slot.getSlotId())) {
+        kept.add(slot);
+      } else {
+        movable.add(slot);
+      }
+    }
+
+    // Re-time free slots onto new grid times, then insert or delete what is left
+    final Iterator<LocalTime> times = unmatched.iterator();
+    while (times.hasNext()) {
+      final LocalTime time = times.next();
+      final QueueTimeSlot slot = movable.poll();
+      if (slot == null) {
+        final QueueTimeSlot created = new QueueTimeSlot();
+        created.setClinicId(clinicId);
+        created.setDoctorId(doctorId);
+        created.setSlotDate(date);
+        created.setShiftTime(shiftTime.toString());
+        created.setSlotTime(time);
+        created.setSlotNo(0);
+        created.setAvailable(true);
+        inserts.add(created);
+        kept.add(created);
+      } else {
+        slot.setSlotTime(time);
+        slot.setAvailable(true);
+        updates.add(slot);
+        kept.add(slot);
+      }
+    }
+    for (QueueTimeSlot slot : movable) {
+      deletes.add(slot.getSlotId());
+    }
+
+    // Renumber the shift in time order; times before the shift start are after midnight
+    kept.sort(
+        Comparator.comparingInt(
+            slot -> SlotIntervals.minuteOnShift(slot.getSlotTime(), shiftStart)));
+    int slotNo = 1;
+    for (QueueTimeSlot slot : kept) {
+      if (!slot.isAvailable() && !booked.contains(slot.getSlotId())) {
+        continue;
+      }
+      if (!Objects.equals(slot.getSlotNo(), slotNo)) {
+        slot.setSlotNo(slotNo);
+        if (slot.getSlotId() != null) {
+          updates.add(slot);
+        }
+      }
+      slotNo++;
+    }
+  }
+
+  private static Map<ShiftTime, List<ShiftTemplate>> byShiftTime(List<ShiftTemplate> shifts) {
+    final Map<ShiftTime, List<ShiftTemplate>> byShiftTime = new EnumMap<>(ShiftTime.class);
+    for (ShiftTemplate shift : shifts) {
+      byShiftTime.computeIfAbsent(shift.getShiftTime(), k -> new ArrayList<>()).add(shift);
+    }
+    return byShiftTime;
+  }
+
+  /** Returns the shift times whose slot grid differs between the two days. */
+  private static Set<ShiftTime> diff(
+      Map<ShiftTime, List<ShiftTemplate>> before, Map<ShiftTime, List<ShiftTemplate>> after) {
+    final Set<ShiftTime> changed = EnumSet.noneOf(ShiftTime.class);
+    final Set<ShiftTime> shiftTimes = EnumSet.noneOf(ShiftTime.class);
+    shiftTimes.addAll(before.keySet());
+    shiftTimes.addAll(after.keySet());
+    for (ShiftTime shiftTime : shiftTimes) {
+      final List<ShiftTemplate> oldShifts = before.getOrDefault(shiftTime, List.of());
+      final List<ShiftTemplate> newShifts = after.getOrDefault(shiftTime, List.of());
+      boolean same = oldShifts.size() == newShifts.size();
+      for (int i = 0; same && i < oldShifts.size(); i++) {
+        same = oldShifts.get(i).hasSameLayout(newShifts.get(i));
+      }
+      if (!same) {
+        changed.add(shiftTime);
+      }
+    }
+    return changed;
+  }
+}
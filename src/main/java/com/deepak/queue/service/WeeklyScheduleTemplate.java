@@ -0,0 +1,80 @@
+package com.deepak.queue.service;
+
+import com.deepak.management.model.common.DoctorAvailability;
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Immutable weekly schedule of a doctor, compiled from the {@code doctor_availability} JSON.
+ *
+ * <p>Each weekday holds the {@link ShiftTemplate}s that apply to it in the order they were
+ * configured. The template records the doctor's schedule version it was compiled from so that a
+ * cached copy can be checked against the database.
+ */
+public final class WeeklyScheduleTemplate {
+  private static final Logger LOGGER = LoggerFactory.getLogger(WeeklyScheduleTemplate.class);
+
+  private final long version;
+  private final Map<DayOfWeek, List<ShiftTemplate>> shiftsByDay;
+
+  private WeeklyScheduleTemplate(long version, Map<DayOfWeek, List<ShiftTemplate>> shiftsByDay) {
+    this.version = version;
+    this.shiftsByDay = shiftsByDay;
+  }
+
+  /**
+   * Compiles a doctor's availability into a weekly template.
+   *
+   * <p>Shifts with a non-positive consultation time or missing times are skipped, matching the
+   * behaviour of the daily generator.
+   *
+   * @param availability The doctor's availability list; may be null.
+   * @param version The doctor's schedule version.
+   * @param maxSlotsPerShift Upper bound on the number of slots laid out per shift.
+   * @return The compiled template.
+   */
+  public static WeeklyScheduleTemplate compile(
+      List<DoctorAvailability> availability, long version, int maxSlotsPerShift) {
+    final Map<DayOfWeek, List<ShiftTemplate>> shiftsByDay = new EnumMap<>(DayOfWeek.class);
+    if (availability != null) {
+      for (DoctorAvailability shift : availability) {
+        if (shift.getAvailableDays() == null
+            || shift.getShiftTime() == null
+            || shift.getShiftStartTime() == null
+            || shift.getShiftEndTime() == null
+            || shift.getConsultationTime() <= 0) {
+          LOGGER.warn("Skipping invalid shift while compiling schedule template: {}", shift);
+          continue;
+        }
+        shiftsByDay
+            .computeIfAbsent(
+                DayOfWeek.valueOf(shift.getAvailableDays().name()), k -> new ArrayList<>())
+            .add(
+                new ShiftTemplate(
+                    shift.getShiftTime(),
+                    shift.getConsultationTime(),
+                    SlotIntervals.shiftRange(
+                        shift.getShiftStartTime().toLocalTime(),
+                        shift.getShiftEndTime().toLocalTime()),
+                    maxSlotsPerShift));
+      }
+    }
+    shiftsByDay.replaceAll((day, shifts) -> List.copyOf(shifts));
+    return new WeeklyScheduleTemplate(version, Collections.unmodifiableMap(shiftsByDay));
+  }
+
+  public long getVersion() {
+    return version;
+  }
+
+  /** Returns the shifts configured for the given weekday, or an empty list. */
+  public List<ShiftTemplate> getShifts(DayOfWeek day) {
+    return shiftsByDay.getOrDefault(day, List.of());
+  }
+}
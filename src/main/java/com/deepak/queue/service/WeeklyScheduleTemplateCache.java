@@ -0,0 +1,71 @@
+package com.deepak.queue.service;
+
+import com.deepak.management.model.doctor.DoctorInformation;
+import com.deepak.management.repository.DoctorInformationRepository;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Caches compiled {@link WeeklyScheduleTemplate}s per doctor and clinic.
+ *
+ * <p>A lookup reads only the doctor's {@code schedule_version}. The availability JSON is loaded and
+ * compiled again only when that version differs from the cached template, which happens after the
+ * doctor's availability is updated.
+ */
+@Component
+public class WeeklyScheduleTemplateCache {
+  private static final Logger LOGGER = LoggerFactory.getLogger(WeeklyScheduleTemplateCache.class);
+  static final int MAX_SLOTS_PER_SHIFT = 100; // Prevent runaway shifts
+
+  private final DoctorInformationRepository doctorInformationRepository;
+  private final ConcurrentMap<String, WeeklyScheduleTemplate> templates = new ConcurrentHashMap<>();
+
+  public WeeklyScheduleTemplateCache(DoctorInformationRepository doctorInformationRepository) {
+    this.doctorInformationRepository = doctorInformationRepository;
+  }
+
+  /**
+   * Returns the current weekly template of a doctor at a clinic.
+   *
+   * @param doctorId The unique identifier of the doctor.
+   * @param clinicId The unique identifier of the clinic.
+   * @return The template, or empty if the doctor does not exist at the clinic.
+   */
+  public Optional<WeeklyScheduleTemplate> getTemplate(String doctorId, Integer clinicId) {
+    final String key = doctorId + ":" + clinicId;
+    final Optional<Long> version =
+        doctorInformationRepository.findScheduleVersion(doctorId, clinicId);
+    if (version.isEmpty()) {
+      templates.remove(key);
+      return Optional.empty();
+    }
+
+    final WeeklyScheduleTemplate cached = templates.get(key);
+    if (cached != null && cached.getVersion() == version.get()) {
+      return Optional.of(cached);
+    }
+
+    final DoctorInformation doctor =
+        doctorInformationRepository.findByDoctorIdAndClinicId(doctorId, clinicId);
+    if (doctor == null) {
+      templates.remove(key);
+      return Optional.empty();
+    }
+    final long doctorVersion =
+        doctor.getScheduleVersion() == null ? 0L : doctor.getScheduleVersion();
+    final WeeklyScheduleTemplate compiled =
+        WeeklyScheduleTemplate.compile(
+            doctor.getDoctorAvailability(), doctorVersion, MAX_SLOTS_PER_SHIFT);
+    templates.put(key, compiled);
+    LOGGER.info(
+        "Compiled schedule template for doctor {} and clinic {} at version {}",
+        doctorId,
+        clinicId,
+        doctorVersion);
+    return Optional.of(compiled);
+  }
+}
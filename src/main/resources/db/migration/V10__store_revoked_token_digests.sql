@@ -0,0 +1,18 @@
+-- Revoked access tokens are kept as their SHA-256 digest instead of the whole JWT,
+-- and bucketed by the hour they expire (hours since the epoch, UTC) so the purge
+-- removes whole expired hours through the bucket index.
+ALTER TABLE blacklisted_access_tokens
+    ADD COLUMN token_digest CHAR(64) NULL,
+    ADD COLUMN expiry_hour BIGINT NULL;
+
+-- expiry_date holds UTC, so it is measured from the epoch without a time zone conversion
+UPDATE blacklisted_access_tokens
+SET token_digest = SHA2(token, 256),
+    expiry_hour = FLOOR(TIMESTAMPDIFF(SECOND, '1970-01-01 00:00:00', expiry_date) / 3600);
+
+ALTER TABLE blacklisted_access_tokens
+    DROP COLUMN token,
+    MODIFY COLUMN token_digest CHAR(64) NOT NULL,
+    MODIFY COLUMN expiry_hour BIGINT NOT NULL,
+    ADD CONSTRAINT uk_blacklisted_access_tokens_digest UNIQUE (token_digest),
+    ADD INDEX idx_blacklisted_access_tokens_expiry_hour (expiry_hour);
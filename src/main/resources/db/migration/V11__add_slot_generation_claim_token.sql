@@ -0,0 +1,4 @@
+-- Identify the generator holding a claim, so a generator whose stale claim was taken over
+-- can no longer mark the day DONE or FAILED
+ALTER TABLE slot_generation_information
+    ADD COLUMN claim_token CHAR(36) NULL;
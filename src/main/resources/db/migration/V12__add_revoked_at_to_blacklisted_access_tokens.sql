@@ -0,0 +1,6 @@
+-- Instances poll revocations by the time they were written instead of by id: ids are
+-- taken before commit, so a lower id can become visible after a higher one, while an
+-- insert commits within a bounded time of its revoked_at
+ALTER TABLE blacklisted_access_tokens
+    ADD COLUMN revoked_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    ADD INDEX idx_blacklisted_access_tokens_revoked_at (revoked_at, id);
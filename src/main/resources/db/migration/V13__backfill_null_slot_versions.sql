@@ -0,0 +1,7 @@
+-- Schemas built from init.sql before it carried the version column got it from
+-- ddl-auto as a nullable column, and slots inserted there have no version, so every
+-- compare-and-set on them failed. Give them the starting version and the V8 definition.
+UPDATE slot_information SET version = 0 WHERE version IS NULL;
+
+ALTER TABLE slot_information
+    MODIFY COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,138 @@
+-- The V7 triggers dropped read-model rows silently: the insert trigger used INSERT IGNORE
+-- over inner joins, so an entry whose patient, doctor or slot row was missing got no row,
+-- and the update trigger only updated, so such an entry never got one later either. Both
+-- triggers now upsert the entry with only the appointment required, and fail the write
+-- when even that is missing instead of leaving the queue screens without the entry.
+
+-- Entries the old insert trigger skipped
+INSERT INTO queue_read_model (
+    queue_management_id, clinic_id, doctor_id, slot_date, slot_time, shift_time, slot_id,
+    appointment_id, patient_id, patient_name, patient_phone_number, doctor_name, queue_no,
+    patient_reached, cancelled, deleted, visit_status, avatar_url)
+SELECT
+    q.queue_management_id, q.clinic_id, q.doctor_id, s.slot_date, s.slot_time, s.shift_time,
+    q.slot_id, q.appointment_id, a.patient_id,
+    JSON_UNQUOTE(JSON_EXTRACT(p.personalDetails, '$.name')), p.phone_number, d.doctor_name,
+    q.current_queue_no, q.patient_reached <> 0, q.cancelled <> 0, q.deleted <> 0,
+    q.visit_status,
+    CONCAT('/assets/images/avatars/avatar_', FLOOR(RAND() * 24) + 1, '.jpg')
+FROM queue_management q
+    JOIN appointments a ON q.appointment_id = a.appointment_id
+    LEFT JOIN patients p ON a.patient_id = p.id
+    LEFT JOIN doctor_information d ON q.doctor_id = d.doctor_id AND q.clinic_id = d.clinic_id
+    LEFT JOIN slot_information s ON q.slot_id = s.slot_id
+    LEFT JOIN queue_read_model r ON r.queue_management_id = q.queue_management_id
+WHERE r.queue_management_id IS NULL;
+
+DROP TRIGGER IF EXISTS trg_queue_management_insert_read_model;
+DROP TRIGGER IF EXISTS trg_queue_management_update_read_model;
+
+DELIMITER $$
+
+CREATE TRIGGER trg_queue_management_insert_read_model
+AFTER INSERT ON queue_management FOR EACH ROW
+BEGIN
+    INSERT INTO queue_read_model (
+        queue_management_id, clinic_id, doctor_id, slot_date, slot_time, shift_time, slot_id,
+        appointment_id, patient_id, patient_name, patient_phone_number, doctor_name, queue_no,
+        patient_reached, cancelled, deleted, visit_status, avatar_url)
+    SELECT * FROM (
+        SELECT
+            NEW.queue_management_id AS queue_management_id, NEW.clinic_id AS clinic_id,
+            NEW.doctor_id AS doctor_id, s.slot_date AS slot_date, s.slot_time AS slot_time,
+            s.shift_time AS shift_time, NEW.slot_id AS slot_id,
+            NEW.appointment_id AS appointment_id, a.patient_id AS patient_id,
+            JSON_UNQUOTE(JSON_EXTRACT(p.personalDetails, '$.name')) AS patient_name,
+            p.phone_number AS patient_phone_number, d.doctor_name AS doctor_name,
+            NEW.current_queue_no AS queue_no, NEW.patient_reached <> 0 AS patient_reached,
+            NEW.cancelled <> 0 AS cancelled, NEW.deleted <> 0 AS deleted,
+            NEW.visit_status AS visit_status,
+            CONCAT('/assets/images/avatars/avatar_', FLOOR(RAND() * 24) + 1, '.jpg')
+                AS avatar_url
+        FROM appointments a
+            LEFT JOIN patients p ON a.patient_id = p.id
+            LEFT JOIN doctor_information d
+                ON d.doctor_id = NEW.doctor_id AND d.clinic_id = NEW.clinic_id
+            LEFT JOIN slot_information s ON s.slot_id = NEW.slot_id
+        WHERE a.appointment_id = NEW.appointment_id
+    ) AS src
+    ON DUPLICATE KEY UPDATE
+        clinic_id = src.clinic_id,
+        doctor_id = src.doctor_id,
+        slot_date = src.slot_date,
+        slot_time = src.slot_time,
+        shift_time = src.shift_time,
+        slot_id = src.slot_id,
+        appointment_id = src.appointment_id,
+        patient_id = src.patient_id,
+        patient_name = src.patient_name,
+        patient_phone_number = src.patient_phone_number,
+        doctor_name = src.doctor_name,
+        queue_no = src.queue_no,
+        patient_reached = src.patient_reached,
+        cancelled = src.cancelled,
+        deleted = src.deleted,
+        visit_status = src.visit_status;
+
+    IF NOT EXISTS (
+        SELECT 1 FROM queue_read_model WHERE queue_management_id = NEW.queue_management_id) THEN
+        SIGNAL SQLSTATE '45000'
+            SET MESSAGE_TEXT = 'Queue entry has no appointment; queue_read_model not written';
+    END IF;
+END$$
+
+-- Re-reads the joined columns too, since a skip or reschedule changes slot_id, and creates
+-- the row when an earlier write left the entry without one. The avatar is kept once picked.
+CREATE TRIGGER trg_queue_management_update_read_model
+AFTER UPDATE ON queue_management FOR EACH ROW
+BEGIN
+    INSERT INTO queue_read_model (
+        queue_management_id, clinic_id, doctor_id, slot_date, slot_time, shift_time, slot_id,
+        appointment_id, patient_id, patient_name, patient_phone_number, doctor_name, queue_no,
+        patient_reached, cancelled, deleted, visit_status, avatar_url)
+    SELECT * FROM (
+        SELECT
+            NEW.queue_management_id AS queue_management_id, NEW.clinic_id AS clinic_id,
+            NEW.doctor_id AS doctor_id, s.slot_date AS slot_date, s.slot_time AS slot_time,
+            s.shift_time AS shift_time, NEW.slot_id AS slot_id,
+            NEW.appointment_id AS appointment_id, a.patient_id AS patient_id,
+            JSON_UNQUOTE(JSON_EXTRACT(p.personalDetails, '$.name')) AS patient_name,
+            p.phone_number AS patient_phone_number, d.doctor_name AS doctor_name,
+            NEW.current_queue_no AS queue_no, NEW.patient_reached <> 0 AS patient_reached,
+            NEW.cancelled <> 0 AS cancelled, NEW.deleted <> 0 AS deleted,
+            NEW.visit_status AS visit_status,
+            CONCAT('/assets/images/avatars/avatar_', FLOOR(RAND() * 24) + 1, '.jpg')
+                AS avatar_url
+        FROM appointments a
+            LEFT JOIN patients p ON a.patient_id = p.id
+            LEFT JOIN doctor_information d
+                ON d.doctor_id = NEW.doctor_id AND d.clinic_id = NEW.clinic_id
+            LEFT JOIN slot_information s ON s.slot_id = NEW.slot_id
+        WHERE a.appointment_id = NEW.appointment_id
+    ) AS src
+    ON DUPLICATE KEY UPDATE
+        clinic_id = src.clinic_id,
+        doctor_id = src.doctor_id,
+        slot_date = src.slot_date,
+        slot_time = src.slot_time,
+        shift_time = src.shift_time,
+        slot_id = src.slot_id,
+        appointment_id = src.appointment_id,
+        patient_id = src.patient_id,
+        patient_name = src.patient_name,
+        patient_phone_number = src.patient_phone_number,
+        doctor_name = src.doctor_name,
+        queue_no = src.queue_no,
+        patient_reached = src.patient_reached,
+        cancelled = src.cancelled,
+        deleted = src.deleted,
+        visit_status = src.visit_status;
+
+    IF NOT EXISTS (
+        SELECT 1 FROM queue_read_model WHERE queue_management_id = NEW.queue_management_id) THEN
+        SIGNAL SQLSTATE '45000'
+            SET MESSAGE_TEXT = 'Queue entry has no appointment; queue_read_model not written';
+    END IF;
+END$$
+
+DELIMITER ;
@@ -0,0 +1,4 @@
+-- Version of doctor_availability, bumped whenever a doctor's availability is replaced.
+-- Compiled weekly schedule templates are cached against this value.
+ALTER TABLE doctor_information
+    ADD COLUMN schedule_version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,3 @@
+-- Serve date-scoped slot reads from an index instead of scanning a doctor's full slot history
+CREATE INDEX idx_slot_doctor_clinic_date_time
+    ON slot_information (doctor_id, clinic_id, slot_date, slot_time);
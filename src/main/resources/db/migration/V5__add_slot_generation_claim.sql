@@ -0,0 +1,16 @@
+-- Track the claim state of each generated doctor-day
+ALTER TABLE slot_generation_information
+    ADD COLUMN state VARCHAR(10) NOT NULL DEFAULT 'DONE',
+    ADD COLUMN claimed_at TIMESTAMP NULL;
+
+-- Keep the oldest marker of any doctor-day generated more than once
+DELETE newer FROM slot_generation_information newer
+    JOIN slot_generation_information older
+        ON newer.doctor_id = older.doctor_id
+        AND newer.clinic_id = older.clinic_id
+        AND newer.slot_date = older.slot_date
+        AND newer.id > older.id;
+
+-- Only one generator may claim a doctor-day
+ALTER TABLE slot_generation_information
+    ADD CONSTRAINT uq_slot_generation_doctor_clinic_date UNIQUE (doctor_id, clinic_id, slot_date);
@@ -0,0 +1,136 @@
+-- One row per queue entry with everything the queue screens show, so reads need no joins.
+-- Triggers keep it in step inside the writing transaction, whichever service makes the change.
+CREATE TABLE IF NOT EXISTS queue_read_model (
+    queue_management_id INT PRIMARY KEY,
+    clinic_id INT NOT NULL,
+    doctor_id VARCHAR(50) NOT NULL,
+    slot_date DATE NULL,
+    slot_time TIME NULL,
+    shift_time VARCHAR(255) NULL,
+    slot_id BIGINT NOT NULL,
+    appointment_id BIGINT NOT NULL,
+    patient_id BIGINT NOT NULL,
+    patient_name VARCHAR(255) NULL,
+    patient_phone_number VARCHAR(20) NULL,
+    doctor_name VARCHAR(120) NULL,
+    queue_no INT NULL,
+    patient_reached BOOLEAN NOT NULL DEFAULT FALSE,
+    cancelled BOOLEAN NOT NULL DEFAULT FALSE,
+    deleted BOOLEAN NOT NULL DEFAULT FALSE,
+    -- Picked once when the entry is created
+    avatar_url VARCHAR(64) NOT NULL,
+    INDEX idx_queue_read_model_clinic_doctor_date (clinic_id, doctor_id, slot_date, slot_time),
+    INDEX idx_queue_read_model_clinic_date (clinic_id, slot_date, slot_time, queue_management_id),
+    INDEX idx_queue_read_model_date (slot_date, slot_time, queue_management_id),
+    INDEX idx_queue_read_model_slot (slot_id),
+    INDEX idx_queue_read_model_patient (patient_id)
+);
+
+INSERT IGNORE INTO queue_read_model (
+    queue_management_id, clinic_id, doctor_id, slot_date, slot_time, shift_time, slot_id,
+    appointment_id, patient_id, patient_name, patient_phone_number, doctor_name, queue_no,
+    patient_reached, cancelled, deleted, avatar_url)
+SELECT
+    q.queue_management_id, q.clinic_id, q.doctor_id, s.slot_date, s.slot_time, s.shift_time,
+    q.slot_id, q.appointment_id, a.patient_id,
+    JSON_UNQUOTE(JSON_EXTRACT(p.personalDetails, '$.name')), p.phone_number, d.doctor_name,
+    q.current_queue_no, q.patient_reached <> 0, q.cancelled <> 0, q.deleted <> 0,
+    CONCAT('/assets/images/avatars/avatar_', FLOOR(RAND() * 24) + 1, '.jpg')
+FROM queue_management q
+    JOIN appointments a ON q.appointment_id = a.appointment_id
+    JOIN patients p ON a.patient_id = p.id
+    JOIN doctor_information d ON q.doctor_id = d.doctor_id AND q.clinic_id = d.clinic_id
+    JOIN slot_information s ON q.slot_id = s.slot_id;
+
+DELIMITER $$
+
+CREATE TRIGGER trg_queue_management_insert_read_model
+AFTER INSERT ON queue_management FOR EACH ROW
+BEGIN
+    INSERT IGNORE INTO queue_read_model (
+        queue_management_id, clinic_id, doctor_id, slot_date, slot_time, shift_time, slot_id,
+        appointment_id, patient_id, patient_name, patient_phone_number, doctor_name, queue_no,
+        patient_reached, cancelled, deleted, avatar_url)
+    SELECT
+        NEW.queue_management_id, NEW.clinic_id, NEW.doctor_id, s.slot_date, s.slot_time,
+        s.shift_time, NEW.slot_id, NEW.appointment_id, a.patient_id,
+        JSON_UNQUOTE(JSON_EXTRACT(p.personalDetails, '$.name')), p.phone_number, d.doctor_name,
+        NEW.current_queue_no, NEW.patient_reached <> 0, NEW.cancelled <> 0, NEW.deleted <> 0,
+        CONCAT('/assets/images/avatars/avatar_', FLOOR(RAND() * 24) + 1, '.jpg')
+    FROM appointments a
+        JOIN patients p ON a.patient_id = p.id
+        JOIN doctor_information d ON d.doctor_id = NEW.doctor_id AND d.clinic_id = NEW.clinic_id
+        JOIN slot_information s ON s.slot_id = NEW.slot_id
+    WHERE a.appointment_id = NEW.appointment_id;
+END$$
+
+-- Re-reads the joined columns too, since a skip or reschedule changes slot_id
+CREATE TRIGGER trg_queue_management_update_read_model
+AFTER UPDATE ON queue_management FOR EACH ROW
+BEGIN
+    UPDATE queue_read_model r
+        JOIN appointments a ON a.appointment_id = NEW.appointment_id
+        JOIN patients p ON a.patient_id = p.id
+        JOIN doctor_information d ON d.doctor_id = NEW.doctor_id AND d.clinic_id = NEW.clinic_id
+        JOIN slot_information s ON s.slot_id = NEW.slot_id
+    SET r.clinic_id = NEW.clinic_id,
+        r.doctor_id = NEW.doctor_id,
+        r.slot_date = s.slot_date,
+        r.slot_time = s.slot_time,
+        r.shift_time = s.shift_time,
+        r.slot_id = NEW.slot_id,
+        r.appointment_id = NEW.appointment_id,
+        r.patient_id = a.patient_id,
+        r.patient_name = JSON_UNQUOTE(JSON_EXTRACT(p.personalDetails, '$.name')),
+        r.patient_phone_number = p.phone_number,
+        r.doctor_name = d.doctor_name,
+        r.queue_no = NEW.current_queue_no,
+        r.patient_reached = NEW.patient_reached <> 0,
+        r.cancelled = NEW.cancelled <> 0,
+        r.deleted = NEW.deleted <> 0
+    WHERE r.queue_management_id = NEW.queue_management_id;
+END$$
+
+CREATE TRIGGER trg_queue_management_delete_read_model
+AFTER DELETE ON queue_management FOR EACH ROW
+BEGIN
+    DELETE FROM queue_read_model WHERE queue_management_id = OLD.queue_management_id;
+END$$
+
+CREATE TRIGGER trg_patients_update_read_model
+AFTER UPDATE ON patients FOR EACH ROW
+BEGIN
+    IF NOT (OLD.personalDetails <=> NEW.personalDetails)
+        OR NOT (OLD.phone_number <=> NEW.phone_number) THEN
+        UPDATE queue_read_model
+        SET patient_name = JSON_UNQUOTE(JSON_EXTRACT(NEW.personalDetails, '$.name')),
+            patient_phone_number = NEW.phone_number
+        WHERE patient_id = NEW.id;
+    END IF;
+END$$
+
+CREATE TRIGGER trg_slot_information_update_read_model
+AFTER UPDATE ON slot_information FOR EACH ROW
+BEGIN
+    IF NOT (OLD.slot_date <=> NEW.slot_date)
+        OR NOT (OLD.slot_time <=> NEW.slot_time)
+        OR NOT (OLD.shift_time <=> NEW.shift_time) THEN
+        UPDATE queue_read_model
+        SET slot_date = NEW.slot_date,
+            slot_time = NEW.slot_time,
+            shift_time = NEW.shift_time
+        WHERE slot_id = NEW.slot_id;
+    END IF;
+END$$
+
+CREATE TRIGGER trg_doctor_information_update_read_model
+AFTER UPDATE ON doctor_information FOR EACH ROW
+BEGIN
+    IF NOT (OLD.doctor_name <=> NEW.doctor_name) THEN
+        UPDATE queue_read_model
+        SET doctor_name = NEW.doctor_name
+        WHERE doctor_id = NEW.doctor_id AND clinic_id = NEW.clinic_id;
+    END IF;
+END$$
+
+DELIMITER ;
@@ -0,0 +1,63 @@
+-- Visit status of each queue entry, so the live queue knows who has already been seen
+ALTER TABLE queue_read_model
+    ADD COLUMN visit_status VARCHAR(20) NULL;
+
+UPDATE queue_read_model r
+    JOIN queue_management q ON q.queue_management_id = r.queue_management_id
+SET r.visit_status = q.visit_status;
+
+DROP TRIGGER IF EXISTS trg_queue_management_insert_read_model;
+DROP TRIGGER IF EXISTS trg_queue_management_update_read_model;
+
+DELIMITER $$
+
+CREATE TRIGGER trg_queue_management_insert_read_model
+AFTER INSERT ON queue_management FOR EACH ROW
+BEGIN
+    INSERT IGNORE INTO queue_read_model (
+        queue_management_id, clinic_id, doctor_id, slot_date, slot_time, shift_time, slot_id,
+        appointment_id, patient_id, patient_name, patient_phone_number, doctor_name, queue_no,
+        patient_reached, cancelled, deleted, visit_status, avatar_url)
+    SELECT
+        NEW.queue_management_id, NEW.clinic_id, NEW.doctor_id, s.slot_date, s.slot_time,
+        s.shift_time, NEW.slot_id, NEW.appointment_id, a.patient_id,
+        JSON_UNQUOTE(JSON_EXTRACT(p.personalDetails, '$.name')), p.phone_number, d.doctor_name,
+        NEW.current_queue_no, NEW.patient_reached <> 0, NEW.cancelled <> 0, NEW.deleted <> 0,
+        NEW.visit_status,
+        CONCAT('/assets/images/avatars/avatar_', FLOOR(RAND() * 24) + 1, '.jpg')
+    FROM appointments a
+        JOIN patients p ON a.patient_id = p.id
+        JOIN doctor_information d ON d.doctor_id = NEW.doctor_id AND d.clinic_id = NEW.clinic_id
+        JOIN slot_information s ON s.slot_id = NEW.slot_id
+    WHERE a.appointment_id = NEW.appointment_id;
+END$$
+
+-- Re-reads the joined columns too, since a skip or reschedule changes slot_id
+CREATE TRIGGER trg_queue_management_update_read_model
+AFTER UPDATE ON queue_management FOR EACH ROW
+BEGIN
+    UPDATE queue_read_model r
+        JOIN appointments a ON a.appointment_id = NEW.appointment_id
+        JOIN patients p ON a.patient_id = p.id
+        JOIN doctor_information d ON d.doctor_id = NEW.doctor_id AND d.clinic_id = NEW.clinic_id
+        JOIN slot_information s ON s.slot_id = NEW.slot_id
+    SET r.clinic_id = NEW.clinic_id,
+        r.doctor_id = NEW.doctor_id,
+        r.slot_date = s.slot_date,
+        r.slot_time = s.slot_time,
+        r.shift_time = s.shift_time,
+        r.slot_id = NEW.slot_id,
+        r.appointment_id = NEW.appointment_id,
+        r.patient_id = a.patient_id,
+        r.patient_name = JSON_UNQUOTE(JSON_EXTRACT(p.personalDetails, '$.name')),
+        r.patient_phone_number = p.phone_number,
+        r.doctor_name = d.doctor_name,
+        r.queue_no = NEW.current_queue_no,
+        r.patient_reached = NEW.patient_reached <> 0,
+        r.cancelled = NEW.cancelled <> 0,
+        r.deleted = NEW.deleted <> 0,
+        r.visit_status = NEW.visit_status
+    WHERE r.queue_management_id = NEW.queue_management_id;
+END$$
+
+DELIMITER ;
@@ -0,0 +1,7 @@
+-- Row versions for compare-and-set updates; every update of a row bumps its version,
+-- and an update made from an earlier read only applies while the version is unchanged.
+ALTER TABLE queue_management
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE slot_information
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
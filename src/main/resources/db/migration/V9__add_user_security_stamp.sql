@@ -0,0 +1,4 @@
+-- Security stamp of each user, carried in access tokens; bumping it on a password change,
+-- lock or delete rejects every access token issued before.
+ALTER TABLE users
+    ADD COLUMN security_stamp BIGINT NOT NULL DEFAULT 0;
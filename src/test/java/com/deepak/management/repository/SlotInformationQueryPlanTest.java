@@ -0,0 +1,78 @@
+package com.deepak.management.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Checks on a real MySQL that a doctor-day's slots are read through {@code
+ * idx_slot_doctor_clinic_date_time} of init.sql rather than by scanning the doctor's history.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class SlotInformationQueryPlanTest {
+  private static final Pattern SLOT_TABLE =
+      Pattern.compile("CREATE TABLE\\s+IF NOT EXISTS slot_information \\(.*?\\);", Pattern.DOTALL);
+  private static final LocalDate FIRST_DAY = LocalDate.of(2025, 1, 1);
+
+  @Container private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+  @Test
+  void slotsOfADayAreReadThroughTheDateIndex() throws IOException, SQLException {
+    final Matcher table = SLOT_TABLE.matcher(Files.readString(Path.of("init.sql")));
+    assertTrue(table.find(), "init.sql declares slot_information");
+
+    try (Connection connection =
+            DriverManager.getConnection(
+                MYSQL.getJdbcUrl(), MYSQL.getUsername(), MYSQL.getPassword());
+        Statement statement = connection.createStatement()) {
+      statement.execute(table.group());
+      // A few doctors with two months of history, so a scan would cost more than the index
+      for (int doctor = 1; doctor <= 5; doctor++) {
+        final StringBuilder insert =
+            new StringBuilder(
+                "INSERT INTO slot_information "
+                    + "(slot_no, shift_time, slot_time, clinic_id, doctor_id, slot_date, "
+                    + "is_available) VALUES ");
+        for (int day = 0; day < 60; day++) {
+          for (int slot = 0; slot < 20; slot++) {
+            if (day > 0 || slot > 0) {
+              insert.append(", ");
+            }
+            insert.append(
+                String.format(
+                    "(%d, 'MORNING', '%02d:%02d:00', 1, 'AB000%d', '%s', 1)",
+                    slot + 1, 9 + slot / 4, slot % 4 * 15, doctor, FIRST_DAY.plusDays(day)));
+          }
+        }
+        statement.execute(insert.toString());
+      }
+      statement.execute("ANALYZE TABLE slot_information");
+
+      try (ResultSet plan =
+          statement.executeQuery(
+              "EXPLAIN SELECT * FROM slot_information "
+                  + "WHERE doctor_id = 'AB0001' AND clinic_id = 1 AND slot_date = '"
+                  + FIRST_DAY.plusDays(30)
+                  + "'")) {
+        assertTrue(plan.next());
+        assertEquals("idx_slot_doctor_clinic_date_time", plan.getString("key"));
+        assertEquals("ref", plan.getString("type"));
+      }
+    }
+  }
+}
@@ -0,0 +1,62 @@
+package com.deepak.queue.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.deepak.management.model.common.ShiftTime;
+import com.deepak.queue.model.QueueTimeSlot;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class QueueSlotCreationServiceImplTest {
+
+  @Test
+  void nightSlotsAfterMidnightFollowTheEveningPartOfTheShift() {
+    final List<QueueTimeSlot> slots =
+        new ArrayList<>(
+            List.of(
+                slot(ShiftTime.NIGHT, LocalTime.of(0, 30)),
+                slot(ShiftTime.MORNING, LocalTime.of(9, 30)),
+                slot(ShiftTime.NIGHT, LocalTime.of(23, 30)),
+                slot(ShiftTime.NIGHT, LocalTime.of(1, 30)),
+                slot(ShiftTime.MORNING, LocalTime.of(9, 0)),
+                slot(ShiftTime.NIGHT, LocalTime.of(22, 0))));
+
+    QueueSlotCreationServiceImpl.sortInShiftOrder(
+        slots, Map.of(ShiftTime.MORNING.toString(), 9 * 60, ShiftTime.NIGHT.toString(), 22 * 60));
+
+    assertEquals(
+        List.of(
+            LocalTime.of(9, 0),
+            LocalTime.of(9, 30),
+            LocalTime.of(22, 0),
+            LocalTime.of(23, 30),
+            LocalTime.of(0, 30),
+            LocalTime.of(1, 30)),
+        slots.stream().map(QueueTimeSlot::getSlotTime).toList());
+  }
+
+  @Test
+  void shiftWithoutAKnownStartIsOrderedByTimeOfDay() {
+    final List<QueueTimeSlot> slots =
+        new ArrayList<>(
+            List.of(
+                slot(ShiftTime.EVENING, LocalTime.of(18, 30)),
+                slot(ShiftTime.EVENING, LocalTime.of(18, 0))));
+
+    QueueSlotCreationServiceImpl.sortInShiftOrder(slots, Map.of());
+
+    assertEquals(
+        List.of(LocalTime.of(18, 0), LocalTime.of(18, 30)),
+        slots.stream().map(QueueTimeSlot::getSlotTime).toList());
+  }
+
+  private static QueueTimeSlot slot(ShiftTime shift, LocalTime time) {
+    final QueueTimeSlot slot = new QueueTimeSlot();
+    slot.setShiftTime(shift.toString());
+    slot.setSlotTime(time);
+    return slot;
+  }
+}
@@ -0,0 +1,95 @@
+package com.deepak.queue.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.deepak.queue.model.MinuteRange;
+import java.time.LocalTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class SlotIntervalsTest {
+
+  @Test
+  void shiftEndingBeforeItsStartRunsPastMidnight() {
+    assertEquals(
+        new MinuteRange(1320, 1560),
+        SlotIntervals.shiftRange(LocalTime.of(22, 0), LocalTime.of(2, 0)));
+  }
+
+  @Test
+  void absenceFromMidnightToMidnightCoversTheWholeDay() {
+    assertEquals(
+        new MinuteRange(0, 1440),
+        SlotIntervals.absenceRange(LocalTime.MIDNIGHT, LocalTime.MIDNIGHT));
+  }
+
+  @Test
+  void slotsPartlyOverlappingAnAbsenceAreDropped() {
+    final MinuteRange shift = SlotIntervals.shiftRange(LocalTime.of(9, 0), LocalTime.of(11, 0));
+    final List<MinuteRange> timeline =
+        SlotIntervals.absenceTimeline(
+            List.of(SlotIntervals.absenceRange(LocalTime.of(9, 20), LocalTime.of(9, 40))));
+
+    final int[] starts =
+        SlotIntervals.slotStarts(shift, 15, SlotIntervals.subtract(shift, timeline), 100);
+
+    // 09:15 ends inside the absence and 09:30 starts inside it
+    assertArrayEquals(new int[] {minutes(9, 0), 585, 600, 615, 630}, starts);
+  }
+
+  @Test
+  void absenceOfTheShiftDateAppliesAfterMidnight() {
+    final MinuteRange shift = SlotIntervals.shiftRange(LocalTime.of(22, 0), LocalTime.of(2, 0));
+    final List<MinuteRange> timeline =
+        SlotIntervals.absenceTimeline(
+            List.of(SlotIntervals.absenceRange(LocalTime.of(0, 30), LocalTime.of(1, 0))));
+
+    final int[] starts =
+        SlotIntervals.slotStarts(shift, 30, SlotIntervals.subtract(shift, timeline), 100);
+
+    // 00:30 of the night shift is minute 1470 on the shift date's timeline
+    assertArrayEquals(new int[] {1320, 1350, 1380, 1410, 1440, 1500}, starts);
+  }
+
+  @Test
+  void absenceCrossingMidnightCoversBothSidesOfANightShift() {
+    final MinuteRange shift = SlotIntervals.shiftRange(LocalTime.of(22, 0), LocalTime.of(2, 0));
+    final List<MinuteRange> timeline =
+        SlotIntervals.absenceTimeline(
+            List.of(SlotIntervals.absenceRange(LocalTime.of(23, 30), LocalTime.of(0, 30))));
+
+    final int[] starts =
+        SlotIntervals.slotStarts(shift, 30, SlotIntervals.subtract(shift, timeline), 100);
+
+    assertArrayEquals(new int[] {1320, 1350, 1380, 1470, 1500}, starts);
+  }
+
+  @Test
+  void daytimeShiftIsNotReachedByTheProjectedCopies() {
+    final MinuteRange shift = SlotIntervals.shiftRange(LocalTime.of(8, 0), LocalTime.of(10, 0));
+    final List<MinuteRange> timeline =
+        SlotIntervals.absenceTimeline(
+            List.of(SlotIntervals.absenceRange(LocalTime.of(8, 0), LocalTime.of(8, 30))));
+
+    assertEquals(
+        List.of(new MinuteRange(minutes(8, 30), minutes(10, 0))),
+        SlotIntervals.subtract(shift, timeline));
+  }
+
+  @Test
+  void overlappingAndTouchingAbsencesAreMerged() {
+    assertEquals(
+        List.of(new MinuteRange(60, 150), new MinuteRange(200, 210)),
+        SlotIntervals.merge(
+            List.of(
+                new MinuteRange(200, 210),
+                new MinuteRange(90, 150),
+                new MinuteRange(60, 90),
+                new MinuteRange(100, 120))));
+  }
+
+  private static int minutes(int hour, int minute) {
+    return hour * 60 + minute;
+  }
+}
@@ -0,0 +1,63 @@
+package com.deepak.queue.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.deepak.management.model.common.ShiftTime;
+import com.deepak.queue.model.QueueTimeSlot;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class SlotScheduleReconcilerTest {
+  private static final LocalDate DATE = LocalDate.of(2025, 3, 10);
+
+  @Test
+  void bookedSlotStillOnTheNewGridStaysUnavailable() {
+    final QueueTimeSlot free = slot(1L, 1, LocalTime.of(9, 0), true);
+    final QueueTimeSlot booked = slot(2L, 2, LocalTime.of(9, 15), false);
+    final QueueTimeSlot closed = slot(3L, 3, LocalTime.of(9, 30), false);
+    final List<QueueTimeSlot> inserts = new ArrayList<>();
+    final Set<QueueTimeSlot> updates = new LinkedHashSet<>();
+    final List<Long> deletes = new ArrayList<>();
+
+    SlotScheduleReconciler.reconcileShift(
+        "AB0001",
+        1,
+        DATE,
+        ShiftTime.MORNING,
+        9 * 60,
+        List.of(free, booked, closed),
+        List.of(LocalTime.of(9, 0), LocalTime.of(9, 15), LocalTime.of(9, 30)),
+        Set.of(2L),
+        inserts,
+        updates,
+        deletes);
+
+    assertFalse(booked.isAvailable());
+    assertFalse(updates.contains(booked));
+    // A slot that was only closed by the old layout opens again on the new grid
+    assertTrue(closed.isAvailable());
+    assertEquals(Set.of(closed), updates);
+    assertTrue(inserts.isEmpty());
+    assertTrue(deletes.isEmpty());
+  }
+
+  private static QueueTimeSlot slot(Long id, int slotNo, LocalTime time, boolean available) {
+    final QueueTimeSlot slot = new QueueTimeSlot();
+    slot.setSlotId(id);
+    slot.setSlotNo(slotNo);
+    slot.setClinicId(1);
+    slot.setDoctorId("AB0001");
+    slot.setSlotDate(DATE);
+    slot.setShiftTime(ShiftTime.MORNING.toString());
+    slot.setSlotTime(time);
+    slot.setAvailable(available);
+    return slot;
+  }
+}